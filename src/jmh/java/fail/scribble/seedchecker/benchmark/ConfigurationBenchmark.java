@@ -0,0 +1,55 @@
+package fail.scribble.seedchecker.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fail.scribble.seedchecker.SeedChecker.SeedCheckerConfigOptions;
+import fail.scribble.seedchecker.common.Configuration;
+import fail.scribble.seedchecker.common.ConfigurationRegistry;
+
+/**
+ * Measures reading values from the configuration, as it happens for every seed
+ *
+ * @author Scribble
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigurationBenchmark {
+
+	private Configuration config;
+
+	@Setup
+	public void setup() throws IOException {
+		ConfigurationRegistry registry = new ConfigurationRegistry();
+		registry.register(SeedCheckerConfigOptions.values());
+		Path file = Files.createTempDirectory("seedchecker-jmh").resolve("seedchecker.json");
+		config = new Configuration("Benchmark configuration", file, registry);
+		config.load();
+	}
+
+	@Benchmark
+	public String get() {
+		return config.get(SeedCheckerConfigOptions.WORLD_TYPE);
+	}
+
+	@Benchmark
+	public int getInt() {
+		return config.getInt(SeedCheckerConfigOptions.BATCH_CHUNK_RADIUS);
+	}
+
+	@Benchmark
+	public boolean getBoolean() {
+		return config.getBoolean(SeedCheckerConfigOptions.HARDCORE);
+	}
+}
@@ -0,0 +1,48 @@
+package fail.scribble.seedchecker.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fail.scribble.seedchecker.seedlist.SeedListParser;
+import net.minecraft.world.level.levelgen.WorldOptions;
+
+/**
+ * Compares {@link WorldOptions#parseSeed(String)} with the seed list parser for a single line
+ *
+ * @author Scribble
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ParseSeedBenchmark {
+
+	@Param({ "-4172144997902289642", "1234", "Minecraft" })
+	public String seed;
+
+	private byte[] line;
+
+	@Setup
+	public void setup() {
+		line = (seed + "\n").getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public OptionalLong parseSeed() {
+		return WorldOptions.parseSeed(seed);
+	}
+
+	@Benchmark
+	public int parseLine() {
+		return SeedListParser.parse(line, 0, line.length, true).getSeedCount();
+	}
+}
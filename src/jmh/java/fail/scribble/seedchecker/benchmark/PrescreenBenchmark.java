@@ -0,0 +1,70 @@
+package fail.scribble.seedchecker.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import fail.scribble.seedchecker.prescreen.Prescreen;
+import fail.scribble.seedchecker.prescreen.PrescreenEngine;
+import fail.scribble.seedchecker.prescreen.VectorPrescreenEngine;
+
+/**
+ * Compares the scalar and the vector {@link PrescreenEngine} on a batch of seeds, where nearly all seeds fail
+ *
+ * @author Scribble
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrescreenBenchmark {
+
+	@Param({ "slime_chunk 0 0; slime_chunk 1 0; slime_chunk 0 1", "structure_region 10387312 34 8 0 0 0" })
+	public String prescreens;
+
+	private long[] seeds;
+	private PrescreenEngine scalar;
+	private PrescreenEngine vector;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		seeds = new long[PrescreenEngine.BATCH_SIZE];
+		for (int i = 0; i < seeds.length; i++) {
+			seeds[i] = random.nextLong();
+		}
+		List<Prescreen> parsed = Prescreen.parseList(prescreens);
+		scalar = new PrescreenEngine(parsed);
+		vector = new VectorPrescreenEngine(parsed);
+	}
+
+	@Benchmark
+	public int scalar() {
+		return screen(scalar);
+	}
+
+	@Benchmark
+	public int vector() {
+		return screen(vector);
+	}
+
+	/**
+	 * @return The number of seeds in the batch that pass
+	 */
+	private int screen(PrescreenEngine engine) {
+		int passing = 0;
+		int first = -1;
+		while ((first = engine.firstPassing(seeds, first + 1, seeds.length)) != -1) {
+			passing++;
+		}
+		return passing;
+	}
+}
@@ -0,0 +1,83 @@
+package fail.scribble.seedchecker.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import fail.scribble.seedchecker.SeedFile;
+import fail.scribble.seedchecker.seedlist.ProgressJournal;
+import fail.scribble.seedchecker.seedlist.ProgressJournal.Progress;
+
+/**
+ * Measures loading the seed list and storing the progress
+ *
+ * @author Scribble
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeedFileBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int seedCount;
+
+	private Path directory;
+	private SeedFile seedFile;
+
+	/**
+	 * A journal of it's own, since {@link SeedFile#save()} only hands the write to the journal thread and returns
+	 */
+	private ProgressJournal journal;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = Files.createTempDirectory("seedchecker-jmh");
+		Path file = directory.resolve("seedlist.txt");
+
+		Random random = new Random(0L);
+		StringBuilder builder = new StringBuilder("// Benchmark\n");
+		for (int i = 0; i < seedCount; i++) {
+			builder.append(random.nextLong()).append('\n');
+		}
+		Files.writeString(file, builder, StandardCharsets.UTF_8);
+
+		seedFile = new SeedFile(file, directory.resolve("seedlist.progress"), null);
+		while (seedFile.isLoading()) {
+			Thread.onSpinWait();
+		}
+		journal = new ProgressJournal(directory.resolve("benchmark.progress"));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public int load() {
+		seedFile.load();
+		return seedFile.seedList.size();
+	}
+
+	@Benchmark
+	public void save() {
+		journal.writeSync(new Progress(seedCount, 0L));
+	}
+}
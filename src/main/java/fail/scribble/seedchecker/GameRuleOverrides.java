@@ -0,0 +1,109 @@
+package fail.scribble.seedchecker;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.mojang.serialization.Dynamic;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.world.flag.FeatureFlagSet;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.level.GameRules;
+import net.minecraft.world.level.GameRules.BooleanValue;
+import net.minecraft.world.level.GameRules.IntegerValue;
+import net.minecraft.world.level.GameRules.Key;
+import net.minecraft.world.level.GameRules.Type;
+
+/**
+ * Game rules that are applied to every world created by the mod, on top of the default game rules.
+ * <p>
+ * Parsed from a comma separated list like <code>doDaylightCycle=false,doMobSpawning=false</code>.
+ * The values are validated against the registered game rules once the config is loaded.
+ *
+ * @author Scribble
+ */
+public class GameRuleOverrides {
+
+	private final Map<String, String> values;
+
+	private GameRuleOverrides(Map<String, String> values) {
+		this.values = values;
+	}
+
+	/**
+	 * @param spawnChunkRadius The value of the <code>spawnChunkRadius</code> game rule, that decides how many chunks are prepared before the player joins
+	 * @param value The comma separated game rules from the config
+	 * @return The parsed game rules
+	 * @throws IllegalArgumentException If a game rule does not exist or its value has the wrong type
+	 */
+	public static GameRuleOverrides parse(int spawnChunkRadius, String value) {
+		Map<String, String> values = new LinkedHashMap<>();
+		values.put(GameRules.RULE_SPAWN_CHUNK_RADIUS.getId(), Integer.toString(spawnChunkRadius));
+		if (value.isBlank()) {
+			return new GameRuleOverrides(values);
+		}
+
+		Map<String, Boolean> types = getRuleTypes();
+		for (String entry : value.split(",")) {
+			String[] split = entry.split("=", 2);
+			if (split.length != 2) {
+				throw new IllegalArgumentException(String.format("Invalid game rule %s, expected name=value", entry.trim()));
+			}
+			String name = split[0].trim();
+			String ruleValue = split[1].trim();
+			Boolean isBoolean = types.get(name);
+			if (isBoolean == null) {
+				throw new IllegalArgumentException(String.format("Unknown game rule %s", name));
+			}
+			if (isBoolean && !"true".equalsIgnoreCase(ruleValue) && !"false".equalsIgnoreCase(ruleValue)) {
+				throw new IllegalArgumentException(String.format("Invalid value %s for game rule %s, expected true or false", ruleValue, name));
+			}
+			if (!isBoolean) {
+				try {
+					Integer.parseInt(ruleValue);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException(String.format("Invalid value %s for game rule %s, expected a number", ruleValue, name), e);
+				}
+			}
+			values.put(name, ruleValue.toLowerCase());
+		}
+		return new GameRuleOverrides(values);
+	}
+
+	/**
+	 * Creates the game rules of a new world
+	 * @param enabledFeatures The features of the world
+	 * @return The default game rules with the overrides applied
+	 */
+	public GameRules create(FeatureFlagSet enabledFeatures) {
+		CompoundTag tag = new CompoundTag();
+		values.forEach(tag::putString);
+		return new GameRules(enabledFeatures, new Dynamic<>(NbtOps.INSTANCE, tag));
+	}
+
+	/**
+	 * @return The names of all game rules, mapped to whether the game rule is a boolean or an integer
+	 */
+	private static Map<String, Boolean> getRuleTypes() {
+		Map<String, Boolean> types = new HashMap<>();
+		new GameRules(FeatureFlags.REGISTRY.allFlags()).visitGameRuleTypes(new GameRules.GameRuleTypeVisitor() {
+			@Override
+			public void visitBoolean(Key<BooleanValue> key, Type<BooleanValue> type) {
+				types.put(key.getId(), true);
+			}
+
+			@Override
+			public void visitInteger(Key<IntegerValue> key, Type<IntegerValue> type) {
+				types.put(key.getId(), false);
+			}
+		});
+		return types;
+	}
+
+	@Override
+	public String toString() {
+		return values.toString();
+	}
+}
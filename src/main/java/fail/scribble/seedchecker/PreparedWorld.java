@@ -0,0 +1,92 @@
+package fail.scribble.seedchecker;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import net.minecraft.client.gui.screens.worldselection.WorldCreationContext;
+import net.minecraft.world.level.storage.LevelStorageSource.LevelStorageAccess;
+
+/**
+ * A world for a single seed, that is prepared in the background.
+ * <p>
+ * Holds the new world directory and the {@link WorldCreationContext}, so that
+ * {@link SCWorldLoader#loadWorld(long)} only has to open the world, once the
+ * player asks for the next seed.
+ *
+ * @author Scribble
+ */
+public class PreparedWorld {
+
+	/**
+	 * The seed this world is prepared for
+	 */
+	private final long seed;
+
+	/**
+	 * The world type from the config, at the time this world was prepared
+	 */
+	private final String worldType;
+
+	/**
+	 * The access to the new world directory
+	 */
+	private final CompletableFuture<Optional<LevelStorageAccess>> storageAccess;
+
+	/**
+	 * The loaded datapacks and registries with the world gen settings of this seed
+	 */
+	private final CompletableFuture<WorldCreationContext> context;
+
+	public PreparedWorld(long seed, String worldType, CompletableFuture<Optional<LevelStorageAccess>> storageAccess, CompletableFuture<WorldCreationContext> context) {
+		this.seed = seed;
+		this.worldType = worldType;
+		this.storageAccess = storageAccess;
+		this.context = context;
+	}
+
+	/**
+	 * Checks if this world can still be used for the requested seed
+	 * @param seed The seed that should be loaded
+	 * @param worldType The current world type from the config
+	 * @return If the seed and the world type match
+	 */
+	public boolean matches(long seed, String worldType) {
+		return this.seed == seed && this.worldType.equals(worldType);
+	}
+
+	/**
+	 * @return If both the world directory and the context are ready
+	 */
+	public boolean isDone() {
+		return storageAccess.isDone() && context.isDone();
+	}
+
+	/**
+	 * Throws this world away and deletes the already created world directory
+	 * @return A future that completes once the directory was deleted
+	 */
+	public CompletableFuture<Void> discard() {
+		SeedChecker.LOGGER.info("Discarding prefetched world for seed %s", seed);
+		return storageAccess.thenAccept(optional -> optional.ifPresent(access -> {
+			try {
+				access.deleteLevel();
+				access.close();
+			} catch (IOException e) {
+				SeedChecker.LOGGER.catching(e);
+			}
+		}));
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public CompletableFuture<Optional<LevelStorageAccess>> getStorageAccess() {
+		return storageAccess;
+	}
+
+	public CompletableFuture<WorldCreationContext> getContext() {
+		return context;
+	}
+}
@@ -5,117 +5,163 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 import com.mojang.serialization.Lifecycle;
 
-import fail.scribble.seedchecker.SeedChecker.SeedCheckerConfigOptions;
+import fail.scribble.seedchecker.timing.LoadStage;
+import fail.scribble.seedchecker.timing.LoadTimings;
+import fail.scribble.seedchecker.timing.WorldTaskEvent;
+import fail.scribble.seedchecker.worldgen.SeedSampler;
 import net.minecraft.FileUtil;
 import net.minecraft.SharedConstants;
 import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.TitleScreen;
 import net.minecraft.client.gui.screens.dialog.DialogScreen;
 import net.minecraft.client.gui.screens.worldselection.CreateWorldScreen;
-import net.minecraft.client.gui.screens.worldselection.DataPackReloadCookie;
 import net.minecraft.client.gui.screens.worldselection.WorldCreationContext;
-import net.minecraft.client.gui.screens.worldselection.WorldCreationContextMapper;
-import net.minecraft.core.HolderLookup;
 import net.minecraft.core.LayeredRegistryAccess;
-import net.minecraft.core.registries.Registries;
-import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.RegistryLayer;
-import net.minecraft.server.WorldLoader;
-import net.minecraft.server.WorldLoader.DataLoadContext;
-import net.minecraft.server.WorldLoader.DataLoadOutput;
-import net.minecraft.server.WorldLoader.InitConfig;
-import net.minecraft.server.packs.repository.PackRepository;
-import net.minecraft.server.packs.repository.ServerPacksSource;
-import net.minecraft.world.Difficulty;
 import net.minecraft.world.flag.FeatureFlags;
 import net.minecraft.world.level.DataPackConfig;
-import net.minecraft.world.level.GameRules;
-import net.minecraft.world.level.GameType;
 import net.minecraft.world.level.LevelSettings;
 import net.minecraft.world.level.WorldDataConfiguration;
-import net.minecraft.world.level.levelgen.WorldDimensions;
 import net.minecraft.world.level.levelgen.WorldDimensions.Complete;
-import net.minecraft.world.level.levelgen.WorldGenSettings;
-import net.minecraft.world.level.levelgen.WorldOptions;
-import net.minecraft.world.level.levelgen.presets.WorldPreset;
-import net.minecraft.world.level.levelgen.presets.WorldPresets;
 import net.minecraft.world.level.storage.LevelStorageSource.LevelStorageAccess;
 import net.minecraft.world.level.storage.PrimaryLevelData;
 
 public class SCWorldLoader {
 
-	private static GameType getGameType() {
-		return GameType.valueOf(SeedChecker.config.get(SeedCheckerConfigOptions.GAME_MODE));
-	}
+	/**
+	 * The world that is prepared in the background for the next seed in the list
+	 */
+	private static PreparedWorld prefetched;
 
-	private static WorldDimensions getGeneratorType(HolderLookup.Provider provider) {
-		ResourceKey<WorldPreset> preset = WorldPresets.NORMAL;
-		switch (SeedChecker.config.get(SeedCheckerConfigOptions.WORLD_TYPE)) {
-			case "amplified":
-				preset = WorldPresets.AMPLIFIED;
-				break;
-			case "flat":
-				preset = WorldPresets.FLAT;
-				break;
-			case "single_biome":
-				preset = WorldPresets.SINGLE_BIOME_SURFACE;
-				break;
-			default:
-				preset = WorldPresets.NORMAL;
-				break;
-		}
-		return provider.lookupOrThrow(Registries.WORLD_PRESET).getOrThrow(preset).value().createWorldDimensions();
-	}
+	/**
+	 * The time in seconds the client waits for the directory of a prepared world to be deleted, when it stops
+	 */
+	private static final long DISCARD_TIMEOUT = 10;
 
-	private static Difficulty getDifficulty() {
-		return Difficulty.valueOf(SeedChecker.config.get(SeedCheckerConfigOptions.DIFFICULTY));
-	}
+	/**
+	 * Held while a free folder name is picked and its directory is created, so two prepared worlds never pick the same folder
+	 */
+	private static final Object directoryLock = new Object();
 
-	private static String getFolderName() {
-		return SeedChecker.config.get(SeedCheckerConfigOptions.FOLDER_NAME);
-	}
+	/**
+	 * The datapacks and registries that are shared between all seeds
+	 */
+	private static final WorldContextCache contextCache = new WorldContextCache();
 
-	private static boolean isHardcore() {
-		return SeedChecker.config.getBoolean(SeedCheckerConfigOptions.HARDCORE);
-	}
+	/**
+	 * The world that is loading and was not opened yet, or null
+	 */
+	private static PreparedWorld loading;
+
+	/**
+	 * The number of seeds that were skipped, before the current load was opened
+	 */
+	private static int skippedWhileLoading;
+
+	/**
+	 * The number of times the next seed was requested while a world was loading or handed over.
+	 * No seed is polled and no world is prepared for them, until the loading world is ready
+	 */
+	private static int queuedPresses;
+
+	/**
+	 * Whether the previous world is being left and the new world opened. Minecraft keeps running the client while the previous world is saved,
+	 * so requests for the next seed are queued instead of starting another load in between
+	 */
+	private static boolean handingOver;
 
-	private static boolean areCommandsEnabled() {
-		return SeedChecker.config.getBoolean(SeedCheckerConfigOptions.ALLOW_COMMANDS);
+	/**
+	 * Whether the loading world was skipped for the {@link #queuedPresses}, while the seed that replaces it is polled
+	 */
+	private static boolean awaitingNext;
+
+	/**
+	 * The worlds created by the mod
+	 */
+	private static WorldCache worldCache;
+
+	/**
+	 * Loads the world cache and evicts worlds over the budget. Has to be called once the client started
+	 * @param mc The Minecraft instance
+	 */
+	public static void initWorldCache(Minecraft mc) {
+		worldCache = new WorldCache(mc.getLevelSource(), Path.of("seedchecker/worldcache.json"));
+		worldCache.load(getCacheBudget(SeedChecker.settings));
 	}
 
+	/**
+	 * Starts loading the world of a seed.
+	 * <p>
+	 * The world directory and the datapacks are prepared on background threads, while a {@link SeedLoadingScreen} shows the progress.
+	 * The previous world stays open until then, only leaving it and opening the level runs on the client thread, once everything is ready.<br>
+	 * If the next seed is {@link #queuePress() requested} before that, the loading world is skipped once it is ready, so skipping multiple seeds only leaves
+	 * the previous world once and only opens the last seed.
+	 * 
+	 * @param nextSeed The seed to load
+	 */
 	public static void loadWorld(long nextSeed) {
 		Minecraft mc = Minecraft.getInstance();
+		SeedCheckerSettings settings = SeedChecker.settings;
+		discardLoading();
+		awaitingNext = false;
+		LoadTimings timings = LoadTimings.start(nextSeed);
 
-		if (mc.level != null) {
-			mc.level.disconnect(DialogScreen.DISCONNECT);
-			mc.disconnectWithSavingScreen();
+		Optional<String> cachedFolder = worldCache.reserve(nextSeed, settings);
+		PreparedWorld preparedWorld = takePrefetched(nextSeed, settings);
+		if (cachedFolder.isPresent() && preparedWorld != null) {
+			preparedWorld.discard();
+			preparedWorld = null;
+		} else if (cachedFolder.isEmpty() && preparedWorld == null) {
+			preparedWorld = prepareWorld(mc, nextSeed, settings);
 		}
 
-		String folderName = getFolderName();
-		try {
-			folderName = FileUtil.findAvailableName(Path.of("saves"), folderName, "");
-		} catch (IOException e) {
-			e.printStackTrace();
+		if (cachedFolder.isPresent()) {
+			SeedChecker.LOGGER.info("Reopening cached world %s for seed %s", cachedFolder.get(), nextSeed);
+			skippedWhileLoading = 0;
+			handingOver = true;
+			try {
+				leaveWorld(mc, settings);
+				timings.mark(LoadStage.DISCONNECT);
+				timings.mark(LoadStage.DIRECTORY_CREATION);
+				timings.mark(LoadStage.DATAPACK_LOAD);
+				worldCache.open(cachedFolder.get(), nextSeed, settings);
+				mc.createWorldOpenFlows().openWorld(cachedFolder.get(), () -> {
+					LoadTimings.cancel();
+					mc.setScreen(new TitleScreen());
+				});
+			} finally {
+				handingOver = false;
+			}
+			return;
 		}
 
-		Optional<LevelStorageAccess> optional = CreateWorldScreen.createNewWorldDirectory(mc, folderName, null);
+		PreparedWorld world = preparedWorld;
+		loading = world;
+		mc.setScreen(new SeedLoadingScreen(world));
 
-		WorldCreationContextMapper worldCreationContextMapper = (reloadableServerResources, layeredRegistryAccess, dataPackReloadCookie) -> new WorldCreationContext(dataPackReloadCookie.worldGenSettings(), layeredRegistryAccess, reloadableServerResources, dataPackReloadCookie.dataConfiguration());
-		PackRepository packRepository = new PackRepository(new ServerPacksSource(mc.directoryValidator()));
-		WorldDataConfiguration worldDataConfiguration = SharedConstants.IS_RUNNING_IN_IDE ? new WorldDataConfiguration(new DataPackConfig(List.of("vanilla", "tests"), List.of()), FeatureFlags.DEFAULT_FLAGS) : WorldDataConfiguration.DEFAULT;
-		InitConfig initConfig = CreateWorldScreen.createDefaultLoadConfig(packRepository, worldDataConfiguration);
-		Function<DataLoadContext, WorldGenSettings> function = dataLoadContext -> new WorldGenSettings(new WorldOptions(nextSeed, true, false), getGeneratorType(dataLoadContext.datapackWorldgen()));
-		CompletableFuture<WorldCreationContext> completableFuture = WorldLoader.load(initConfig, dataLoadContext -> new DataLoadOutput<>(new DataPackReloadCookie((WorldGenSettings) function.apply(dataLoadContext), dataLoadContext.dataConfiguration()), dataLoadContext.datapackDimensions()), (closeableResourceManager, reloadableServerResources, layeredRegistryAccess, dataPackReloadCookie) -> {
-			closeableResourceManager.close();
-			return worldCreationContextMapper.apply(reloadableServerResources, layeredRegistryAccess, dataPackReloadCookie);
-		}, Util.backgroundExecutor(), mc);
-		mc.managedBlock(completableFuture::isDone);
+		//@formatter:off
+		world.getStorageAccess()
+			.thenApply(storageAccess -> {
+				timings.mark(LoadStage.DIRECTORY_CREATION);
+				return storageAccess.orElseThrow(() -> new IllegalStateException("Could not create the world directory for seed " + nextSeed));
+			})
+			.thenCombineAsync(world.getContext(), (storageAccess, context) -> {
+				timings.mark(LoadStage.DATAPACK_LOAD);
+				return createLevelSetup(storageAccess, context, nextSeed, settings);
+			}, Util.backgroundExecutor())
+			.whenCompleteAsync((setup, throwable) -> openLevel(mc, world, setup, throwable, settings), mc);
+		//@formatter:on
+	}
 
-		WorldCreationContext worldCreationContext = completableFuture.join();
+	/**
+	 * Bakes the dimensions and creates the level data of a new world. Runs on a background thread
+	 */
+	private static LevelSetup createLevelSetup(LevelStorageAccess storageAccess, WorldCreationContext worldCreationContext, long seed, SeedCheckerSettings settings) {
 		Complete complete = worldCreationContext.selectedDimensions().bake(worldCreationContext.datapackDimensions());
 		LayeredRegistryAccess<RegistryLayer> layeredRegistryAccess = worldCreationContext.worldgenRegistries().replaceFrom(RegistryLayer.DIMENSIONS, complete.dimensionsRegistryAccess());
 
@@ -123,9 +169,292 @@ public class SCWorldLoader {
 		Lifecycle lifecycle2 = layeredRegistryAccess.compositeAccess().allRegistriesLifecycle();
 		Lifecycle lifecycle3 = lifecycle2.add(lifecycle);
 
-		LevelSettings levelSettings = new LevelSettings(Long.toString(nextSeed), getGameType(), isHardcore(), getDifficulty(), areCommandsEnabled(), new GameRules(FeatureFlags.DEFAULT_FLAGS), worldCreationContext.dataConfiguration());
+		LevelSettings levelSettings = new LevelSettings(Long.toString(seed), settings.gameMode(), settings.hardcore(), settings.difficulty(), settings.allowCommands(), settings.gameRules().create(worldCreationContext.dataConfiguration().enabledFeatures()), worldCreationContext.dataConfiguration());
 		PrimaryLevelData primaryLevelData = new PrimaryLevelData(levelSettings, worldCreationContext.options(), complete.specialWorldProperty(), lifecycle3);
+		return new LevelSetup(storageAccess, worldCreationContext, layeredRegistryAccess, primaryLevelData);
+	}
+
+	/**
+	 * Leaves the previous world and opens the prepared level on the client thread, unless the load was discarded in the meantime.
+	 * If the next seed was requested while the level was prepared, the level is skipped without leaving the previous world
+	 */
+	private static void openLevel(Minecraft mc, PreparedWorld world, LevelSetup setup, Throwable throwable, SeedCheckerSettings settings) {
+		if (loading != world) {
+			return;
+		}
+		loading = null;
+		long seed = world.getSeed();
+		if (queuedPresses > 0) {
+			SeedChecker.LOGGER.info("Skipping seed %s, the next seed was requested while it was loading", seed);
+			world.discard();
+			skippedWhileLoading++;
+			awaitingNext = true;
+			return;
+		}
+		skippedWhileLoading = 0;
+		if (throwable != null) {
+			SeedChecker.LOGGER.error("Could not prepare the world for seed %s", seed);
+			SeedChecker.LOGGER.catching(throwable);
+			world.discard();
+			LoadTimings.cancel();
+			leaveLoadingScreen(mc);
+			return;
+		}
+
+		handingOver = true;
+		try {
+			leaveWorld(mc, settings);
+			LoadTimings timings = LoadTimings.current();
+			if (timings != null) {
+				timings.mark(LoadStage.DISCONNECT);
+			}
+			worldCache.open(setup.storageAccess().getLevelId(), seed, settings);
+
+			WorldTaskEvent event = WorldTaskEvent.start("createLevelFromExistingSettings", seed);
+			mc.createWorldOpenFlows().createLevelFromExistingSettings(setup.storageAccess(), setup.context().dataPackResources(), setup.registries(), setup.levelData());
+			event.commit();
+		} finally {
+			handingOver = false;
+		}
+	}
+
+	/**
+	 * Discards the world that is currently loading, if it was not opened yet
+	 * @return True if a load was discarded
+	 */
+	private static boolean discardLoading() {
+		PreparedWorld world = loading;
+		if (world == null) {
+			return false;
+		}
+		loading = null;
+		skippedWhileLoading++;
+		world.discard();
+		return true;
+	}
+
+	/**
+	 * Stops the world that is currently loading and returns to the previous world or the title screen
+	 */
+	public static void cancelLoading() {
+		if (discardLoading() || awaitingNext) {
+			awaitingNext = false;
+			queuedPresses = 0;
+			skippedWhileLoading = 0;
+			LoadTimings.cancel();
+			leaveLoadingScreen(Minecraft.getInstance());
+		}
+	}
+
+	/**
+	 * Closes the {@link SeedLoadingScreen}, returning to the previous world if it is still open
+	 */
+	private static void leaveLoadingScreen(Minecraft mc) {
+		mc.setScreen(mc.level == null ? new TitleScreen() : null);
+	}
+
+	/**
+	 * Queues a request for the next seed, if a world is loading. The loading world is skipped once it is ready,
+	 * and the queued requests are {@link #takeQueuedPresses() taken} to load the next seed instead
+	 * @return False if no world is loading, in which case the next seed has to be loaded right away
+	 */
+	public static boolean queuePress() {
+		if (loading == null && !handingOver) {
+			return false;
+		}
+		queuedPresses++;
+		return true;
+	}
+
+	/**
+	 * Takes the requests for the next seed that were queued while the last world was loading, once that world was skipped or opened.
+	 * Only the last request needs a world, the seeds of the other requests are skipped without preparing one
+	 * @return The number of queued requests, 0 if a world is still loading
+	 */
+	public static int takeQueuedPresses() {
+		if (loading != null || handingOver || queuedPresses == 0) {
+			return 0;
+		}
+		int presses = queuedPresses;
+		queuedPresses = 0;
+		if (awaitingNext) {
+			skippedWhileLoading += presses - 1;
+		}
+		return presses;
+	}
+
+	/**
+	 * @return The number of seeds that were skipped, before the world that is currently loading was opened
+	 */
+	public static int getSkippedWhileLoading() {
+		return skippedWhileLoading + queuedPresses;
+	}
+
+	/**
+	 * Closes the current world. If {@link SeedCheckerSettings#discardWorlds()} is enabled and the world is not pinned, the world is not saved and deleted afterwards
+	 * @param mc The Minecraft instance
+	 * @param settings The current settings
+	 */
+	private static void leaveWorld(Minecraft mc, SeedCheckerSettings settings) {
+		if (mc.level == null) {
+			// The world was closed through the menu
+			worldCache.close(getCacheBudget(settings));
+			return;
+		}
+		boolean discard = settings.discardWorlds() && worldCache.hasCurrent() && !worldCache.isCurrentPinned();
+		if (discard) {
+			SeedChecker.skipSaving = true;
+		}
+		mc.level.disconnect(DialogScreen.DISCONNECT);
+		mc.disconnectWithSavingScreen();
+		if (discard) {
+			worldCache.discardCurrent();
+		} else {
+			worldCache.close(getCacheBudget(settings));
+		}
+	}
+
+	/**
+	 * Pins or unpins the current world. Pinned worlds are always saved and never evicted from the world cache
+	 * @return If the current world is pinned, or null if the current world was not created by the mod
+	 */
+	public static Boolean togglePinned() {
+		if (!worldCache.hasCurrent()) {
+			return null;
+		}
+		return worldCache.togglePinned();
+	}
+
+	private static long getCacheBudget(SeedCheckerSettings settings) {
+		return settings.worldCacheSize() * 1024L * 1024L;
+	}
+
+	/**
+	 * Starts preparing the world of the next seed in the background, while the current world is still open.
+	 * <p>
+	 * Replaces any world that was prefetched before.
+	 * 
+	 * @param seed The seed to prepare
+	 */
+	public static void prefetch(long seed) {
+		Minecraft mc = Minecraft.getInstance();
+		SeedCheckerSettings settings = SeedChecker.settings;
+		if (worldCache.find(seed, settings).isPresent()) {
+			return;
+		}
+		if (prefetched != null) {
+			if (prefetched.matches(seed, settings.worldType())) {
+				return;
+			}
+			prefetched.discard();
+		}
+		SeedChecker.LOGGER.debug("Prefetching world for seed %s", seed);
+		prefetched = prepareWorld(mc, seed, settings);
+	}
+
+	/**
+	 * Discards the prefetched world and the world that is loading, so their directories don't stay behind in the saves.
+	 * Has to be called when the client stops, waits until the directories are deleted
+	 */
+	public static void discardPrepared() {
+		PreparedWorld[] worlds = { prefetched, loading };
+		prefetched = null;
+		loading = null;
+		for (PreparedWorld world : worlds) {
+			if (world == null) {
+				continue;
+			}
+			try {
+				world.discard().get(DISCARD_TIMEOUT, TimeUnit.SECONDS);
+			} catch (Exception e) {
+				SeedChecker.LOGGER.error("Could not delete the prepared world for seed %s", world.getSeed());
+				SeedChecker.LOGGER.catching(e);
+			}
+		}
+	}
+
+	/**
+	 * Takes the prefetched world, if it was prepared for this seed and the world type in the config didn't change in the meantime.
+	 * <p>
+	 * A prefetched world that does not match is discarded.
+	 * 
+	 * @param seed The seed that should be loaded
+	 * @param settings The current settings
+	 * @return The prefetched world or null if there is none for this seed
+	 */
+	private static PreparedWorld takePrefetched(long seed, SeedCheckerSettings settings) {
+		PreparedWorld preparedWorld = prefetched;
+		prefetched = null;
+		if (preparedWorld == null) {
+			return null;
+		}
+		if (!preparedWorld.matches(seed, settings.worldType())) {
+			preparedWorld.discard();
+			return null;
+		}
+		return preparedWorld;
+	}
+
+	/**
+	 * Creates the world directory and loads the datapacks for a seed on background threads.
+	 * <p>
+	 * Needs to be called from the client thread, the last step of the datapack loading runs on it.
+	 * 
+	 * @param mc The Minecraft instance
+	 * @param seed The seed of the new world
+	 * @param settings The settings to create the world with
+	 * @return The world that is being prepared
+	 */
+	private static PreparedWorld prepareWorld(Minecraft mc, long seed, SeedCheckerSettings settings) {
+		String baseFolderName = settings.folderName();
+
+		CompletableFuture<Optional<LevelStorageAccess>> storageFuture = CompletableFuture.supplyAsync(() -> {
+			String folderName = baseFolderName;
+			synchronized (directoryLock) {
+				WorldTaskEvent findNameEvent = WorldTaskEvent.start("FileUtil.findAvailableName", seed);
+				try {
+					folderName = FileUtil.findAvailableName(Path.of("saves"), folderName, "");
+				} catch (IOException e) {
+					SeedChecker.LOGGER.catching(e);
+				}
+				findNameEvent.commit();
+
+				WorldTaskEvent directoryEvent = WorldTaskEvent.start("createNewWorldDirectory", seed);
+				Optional<LevelStorageAccess> storageAccess = CreateWorldScreen.createNewWorldDirectory(mc, folderName, null);
+				directoryEvent.commit();
+				return storageAccess;
+			}
+		}, Util.ioPool());
+
+		CompletableFuture<WorldCreationContext> contextFuture = contextCache.get(mc, getWorldDataConfiguration(), settings.worldPreset(), seed);
+
+		return new PreparedWorld(seed, settings.worldType(), storageFuture, contextFuture);
+	}
+
+	/**
+	 * Creates a sampler for the overworld generation of the world preset, using the cached datapacks.
+	 * <p>
+	 * Needs to be called from the client thread, the last step of the datapack loading runs on it.
+	 * 
+	 * @param mc The Minecraft instance
+	 * @param settings The settings containing the world preset
+	 * @return The sampler, once the datapacks are loaded
+	 */
+	public static CompletableFuture<SeedSampler> createSampler(Minecraft mc, SeedCheckerSettings settings) {
+		return contextCache.get(mc, getWorldDataConfiguration(), settings.worldPreset(), 0L).thenApply(context -> new SeedSampler(context.worldgenLoadContext(), settings.worldPreset()));
+	}
+
+	private static WorldDataConfiguration getWorldDataConfiguration() {
+		return SharedConstants.IS_RUNNING_IN_IDE ? new WorldDataConfiguration(new DataPackConfig(List.of("vanilla", "tests"), List.of()), FeatureFlags.DEFAULT_FLAGS) : WorldDataConfiguration.DEFAULT;
+	}
 
-		mc.createWorldOpenFlows().createLevelFromExistingSettings((LevelStorageAccess) optional.get(), worldCreationContext.dataPackResources(), layeredRegistryAccess, primaryLevelData);
+	/**
+	 * Everything that is needed to open a new level
+	 * @param storageAccess The new world directory
+	 * @param context The datapacks and registries
+	 * @param registries The registries including the baked dimensions
+	 * @param levelData The level data with the settings from the config
+	 */
+	private static record LevelSetup(LevelStorageAccess storageAccess, WorldCreationContext context, LayeredRegistryAccess<RegistryLayer> registries, PrimaryLevelData levelData) {
 	}
 }
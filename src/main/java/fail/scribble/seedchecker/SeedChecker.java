@@ -1,7 +1,9 @@
 package fail.scribble.seedchecker;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -10,29 +12,86 @@ import org.apache.logging.log4j.Logger;
 import fail.scribble.seedchecker.common.Configuration;
 import fail.scribble.seedchecker.common.ConfigurationRegistry;
 import fail.scribble.seedchecker.common.ConfigurationRegistry.ConfigOptions;
+import fail.scribble.seedchecker.seedlist.BinarySeedList;
+import fail.scribble.seedchecker.seedlist.CheckedSeedIndex;
+import fail.scribble.seedchecker.seedlist.SeedIngest;
 import io.methvin.watcher.DirectoryChangeEvent;
 import io.methvin.watcher.DirectoryChangeEvent.EventType;
 import io.methvin.watcher.DirectoryChangeListener;
+import fail.scribble.seedchecker.timing.LoadStage;
+import fail.scribble.seedchecker.timing.LoadTimings;
+import fail.scribble.seedchecker.worldgen.ChunkPregenerator;
+import fail.scribble.seedchecker.worldgen.SeedBatch;
+import fail.scribble.seedchecker.worldgen.SeedSampler;
 import io.methvin.watcher.DirectoryWatcher;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.Difficulty;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.GameType;
 
 public class SeedChecker implements ModInitializer {
 
 	public static final Logger LOGGER = LogManager.getFormatterLogger("SeedChecker");
-	public static SeedFile seedFile;
+	/**
+	 * The seed list, replaced once it is converted to a {@link BinarySeedList}
+	 */
+	public static volatile SeedFile seedFile;
+	public static CheckedSeedIndex checkedSeeds;
 	public static DirectoryWatcher watcher;
 	public static Configuration config;
 
+	/**
+	 * Receives seeds from seed finders over a socket, or null if disabled
+	 */
+	public static SeedIngest ingest;
+
+	/**
+	 * The parsed {@link #config}, replaced as a whole once the config is reloaded
+	 */
+	public static volatile SeedCheckerSettings settings = SeedCheckerSettings.defaults();
+
+	/**
+	 * Whether the integrated server should skip saving, because its world is deleted after the seed switch
+	 */
+	public static volatile boolean skipSaving;
+	public static SeedBatch batch;
+
 	public static enum SeedCheckerConfigOptions implements ConfigOptions {
 		GAME_MODE("gameMode", GameType.CREATIVE.toString()),
 		DIFFICULTY("difficulty", Difficulty.EASY.toString()),
 		WORLD_TYPE("worldType", "normal"),
 		HARDCORE("hardcore", "false"),
 		ALLOW_COMMANDS("allowCommands", "true"),
-		FOLDER_NAME("worldFolderName", "SeedChecker World");
+		FOLDER_NAME("worldFolderName", "SeedChecker World"),
+		BATCH_ON_STARTUP("batchOnStartup", "false"),
+		BATCH_CHUNK_RADIUS("batchChunkRadius", "8"),
+		BATCH_BIOMES("batchBiomes", "minecraft:mushroom_fields"),
+		DISCARD_WORLDS("discardWorlds", "false"),
+		WORLD_CACHE_SIZE("worldCacheSize", "4096"),
+		PREFILTER_BIOMES("prefilterBiomes", ""),
+		PREFILTER_RADIUS("prefilterRadius", "16"),
+		PREFILTER_HEIGHT("prefilterHeight", "63"),
+		PREFILTER_SPAWN_EXCLUDE("prefilterSpawnExclude", ""),
+		STRUCTURES("structures", "#minecraft:village,minecraft:stronghold,minecraft:monument,minecraft:ancient_city"),
+		STRUCTURE_RADIUS("structureRadius", "64"),
+		CHECKS("checks", ""),
+		SKIP_CHECKED_SEEDS("skipCheckedSeeds", "true"),
+		SHARED_SEED_LIST("sharedSeedList", "false"),
+		INGEST_PORT("ingestPort", "0"),
+		INGEST_MAX_QUEUED("ingestMaxQueued", "100000"),
+		SPAWN_CHUNK_RADIUS("spawnChunkRadius", "0"),
+		GAME_RULES("gameRules", ""),
+		PREGEN_RADIUS("pregenRadius", "0"),
+		PREGEN_INNER_RADIUS("pregenInnerRadius", "0"),
+		PREGEN_SHAPE("pregenShape", ChunkPregenerator.Shape.CIRCLE.toString()),
+		PREVIEW_RADIUS("previewRadius", "512"),
+		PREVIEW_SCALE("previewScale", "4"),
+		PRESCREENS("prescreens", "");
 
 		final String key;
 		final String defaultValue;
@@ -65,13 +124,17 @@ public class SeedChecker implements ModInitializer {
 	@Override
 	public void onInitialize() {
 		System.setProperty("java.awt.headless", "false");
-		seedFile = new SeedFile();
 
 		ConfigurationRegistry configRegistry = new ConfigurationRegistry();
 		configRegistry.register(SeedCheckerConfigOptions.values());
 		config = new Configuration("SeedChecker configuration", Path.of("config/seedchecker.json"), configRegistry);
 		config.load();
 		config.save();
+		reloadSettings();
+
+		checkedSeeds = new CheckedSeedIndex(Path.of("seedchecker"));
+		seedFile = new SeedFile(checkedSeeds, settings.sharedSeedList());
+		startIngest();
 
 		try {
 			watcher = DirectoryWatcher.builder().paths(List.of(Path.of("./seedchecker"), Path.of("./config"))).listener(new SeedFileWatcher()).build();
@@ -79,6 +142,127 @@ public class SeedChecker implements ModInitializer {
 			e.printStackTrace();
 		}
 		watcher.watchAsync();
+
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> SeedCheckerCommands.register(dispatcher));
+		ServerLifecycleEvents.SERVER_STARTING.register(server -> skipSaving = false);
+		ServerWorldEvents.LOAD.register((server, level) -> {
+			if (!server.isDedicatedServer() && level.dimension() == Level.OVERWORLD) {
+				LoadTimings.markCurrent(LoadStage.LEVEL_CREATION);
+			}
+		});
+		ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+			if (!server.isDedicatedServer()) {
+				LoadTimings.markCurrent(LoadStage.SPAWN_CHUNKS);
+			} else if (settings.batchOnStartup()) {
+				startBatch(server);
+			}
+		});
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> stopBatch());
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			if (server.isDedicatedServer()) {
+				stopIngest();
+				seedFile.compact();
+				seedFile.close();
+				checkedSeeds.flush();
+			} else {
+				skipSaving = false;
+			}
+		});
+	}
+
+	/**
+	 * Parses the {@link #config} into new {@link #settings}.<br>
+	 * If a value is invalid, the previous settings are kept
+	 */
+	public static void reloadSettings() {
+		try {
+			settings = SeedCheckerSettings.from(config);
+		} catch (IllegalArgumentException e) {
+			LOGGER.warn("Could not apply %s, keeping the previous settings: %s", config.getFile().getFileName(), e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts accepting seeds on the <code>ingestPort</code>, if it is set
+	 */
+	private static void startIngest() {
+		if (settings.ingestPort() == 0) {
+			return;
+		}
+		ingest = new SeedIngest(() -> seedFile, settings.ingestPort(), () -> settings.ingestMaxQueued());
+		try {
+			ingest.start();
+		} catch (IOException e) {
+			LOGGER.error("Could not accept seeds on port %s", settings.ingestPort());
+			LOGGER.catching(e);
+			ingest = null;
+		}
+	}
+
+	/**
+	 * Stops accepting seeds, if the ingest was started
+	 */
+	public static void stopIngest() {
+		if (ingest != null) {
+			ingest.stop();
+			ingest = null;
+		}
+	}
+
+	/**
+	 * Starts checking the seed list in the background, without opening a world
+	 * @param server The server providing the registries
+	 * @return False if a batch is already running or it could not be started
+	 */
+	public static boolean startBatch(MinecraftServer server) {
+		if (batch != null && batch.isRunning()) {
+			return false;
+		}
+		SeedCheckerSettings settings = SeedChecker.settings;
+		SeedSampler sampler = new SeedSampler(server.registryAccess(), settings.worldPreset());
+		batch = new SeedBatch(server, sampler, seedFile, settings.batchChunkRadius(), settings.batchBiomes(), settings.checks(), Path.of("seedchecker/batch_results.csv"));
+		try {
+			batch.start();
+		} catch (IOException e) {
+			LOGGER.catching(e);
+			return false;
+		}
+		return true;
+	}
+
+	public static void stopBatch() {
+		if (batch != null) {
+			batch.stop();
+		}
+	}
+
+	/**
+	 * Converts the remaining seeds of seedlist.txt to seedlist.bin and switches to the binary seed list.
+	 * The text file is kept as seedlist.txt.bak
+	 * @param compressed Whether the seeds are compressed in blocks. Compressed seed lists can't be appended to
+	 * @return The number of converted seeds
+	 * @throws IOException If the seed list could not be converted
+	 */
+	public static synchronized long convertSeedList(boolean compressed) throws IOException {
+		SeedFile oldFile = seedFile;
+		if (oldFile.isShared()) {
+			throw new IOException("A shared seed list can't be converted");
+		}
+		if (batch != null && batch.isRunning()) {
+			throw new IOException("A seed batch is running");
+		}
+		if (!oldFile.getFile().equals(SeedFile.TEXT_FILE)) {
+			throw new IOException("The seed list is already binary");
+		}
+		// Removes the used seeds first, so the backup matches the converted seeds
+		oldFile.compact();
+		long count = oldFile.convertToBinary(SeedFile.BINARY_FILE, compressed);
+		oldFile.close();
+		Files.deleteIfExists(Path.of("seedchecker/seedlist.bin.progress"));
+		Files.move(SeedFile.TEXT_FILE, SeedFile.TEXT_FILE.resolveSibling("seedlist.txt.bak"), StandardCopyOption.REPLACE_EXISTING);
+		seedFile = new SeedFile(checkedSeeds, false);
+		LOGGER.info("Converted %s seeds to %s", count, SeedFile.BINARY_FILE.getFileName());
+		return count;
 	}
 
 	public static void openFile() {
@@ -94,8 +278,15 @@ public class SeedChecker implements ModInitializer {
 				Path fileName = modifiedFile.getFileName();
 				if (fileName.equals(seedFile.getFile().getFileName()))
 					seedFile.load();
-				else if (fileName.equals(config.getFile().getFileName()))
+				else if (fileName.equals(config.getFile().getFileName())) {
+					int ingestPort = settings.ingestPort();
 					config.load();
+					reloadSettings();
+					if (settings.ingestPort() != ingestPort) {
+						stopIngest();
+						startIngest();
+					}
+				}
 			}
 		}
 
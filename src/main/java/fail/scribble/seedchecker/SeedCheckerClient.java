@@ -1,36 +1,192 @@
 package fail.scribble.seedchecker;
 
+import java.nio.file.Path;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
 import org.lwjgl.glfw.GLFW;
 
+import fail.scribble.seedchecker.check.SeedCheck;
+import fail.scribble.seedchecker.check.SeedVerifier;
+import fail.scribble.seedchecker.check.SeedVerifier.NamedResult;
+import fail.scribble.seedchecker.check.SeedVerifier.Verdict;
+import fail.scribble.seedchecker.check.VerdictLog;
 import fail.scribble.seedchecker.common.EventClientGameLoop;
 import fail.scribble.seedchecker.common.KeybindManager;
 import fail.scribble.seedchecker.common.KeybindManager.Keybind;
+import fail.scribble.seedchecker.seedlist.SeedQueue;
+import fail.scribble.seedchecker.timing.EventSeedLoaded;
+import fail.scribble.seedchecker.timing.LoadStage;
+import fail.scribble.seedchecker.timing.LoadTimings;
+import fail.scribble.seedchecker.timing.SeedBenchmark;
+import fail.scribble.seedchecker.timing.TimingLog;
+import fail.scribble.seedchecker.worldgen.ChunkPregenerator;
+import fail.scribble.seedchecker.worldgen.SeedPrefilter;
+import fail.scribble.seedchecker.worldgen.StructureLocator;
+import fail.scribble.seedchecker.worldgen.StructureLocator.StructureLocation;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.resources.sounds.SimpleSoundInstance;
+import net.minecraft.client.server.IntegratedServer;
 import net.minecraft.network.chat.ClickEvent;
 import net.minecraft.network.chat.Component;
+import net.minecraft.sounds.SoundEvents;
 
 public class SeedCheckerClient implements ClientModInitializer {
 
+	public static SeedBenchmark benchmark = new SeedBenchmark(Path.of("seedchecker/benchmark.txt"), Path.of("seedchecker/benchmark_results.txt"));
+
+	private TimingLog timingLog = new TimingLog(Path.of("seedchecker/timings.csv"));
+
+	private VerdictLog verdictLog = new VerdictLog(Path.of("seedchecker/verdicts.csv"));
+
 	private KeybindManager keybindManager = new KeybindManager(KeybindManager::isKeyDownExceptTextField);
 
+	/**
+	 * The load that was in the world on the last game loop. Its first frame is rendered once the game loop runs again
+	 */
+	private LoadTimings awaitingFrame;
+
+	/**
+	 * Checks seeds against the biome criteria in the config, before a world is loaded. Null if disabled
+	 */
+	private SeedPrefilter prefilter;
+
+	/**
+	 * Locates structures of the queued seeds in the background. Null if disabled
+	 */
+	private StructureLocator structureLocator;
+
+	/**
+	 * The settings the {@link #prefilter} and the {@link #structureLocator} were created with, null until the game started
+	 */
+	private SeedCheckerSettings workerSettings;
+
+	/**
+	 * Completes once the {@link #prefilter} and the {@link #structureLocator} for the {@link #workerSettings} were created
+	 */
+	private CompletableFuture<Void> workersReady = CompletableFuture.completedFuture(null);
+
+	/**
+	 * Whether the next seed is being polled, while waiting for the prefilter
+	 */
+	private boolean polling;
+
+	/**
+	 * Generates the chunks around spawn after a seed was loaded
+	 */
+	private ChunkPregenerator pregenerator = new ChunkPregenerator();
+
+	/**
+	 * The seed that failed its checks and is advanced from on the next game loop, or null
+	 */
+	private Long failedSeed;
+
+	/**
+	 * The seed that should be loaded on the next game loop, because it was accepted in the {@link SeedPreviewScreen}, or null
+	 */
+	private static volatile Long requestedSeed;
+
 	@Override
 	public void onInitializeClient() {
 		registerKeybindings();
+		ClientLifecycleEvents.CLIENT_STARTED.register(SCWorldLoader::initWorldCache);
+		ClientLifecycleEvents.CLIENT_STARTED.register(this::updateWorkers);
+		ClientLifecycleEvents.CLIENT_STOPPING.register(client -> {
+			SeedChecker.stopIngest();
+			SCWorldLoader.discardPrepared();
+			SeedChecker.seedFile.compact();
+			SeedChecker.seedFile.close();
+			SeedChecker.checkedSeeds.flush();
+		});
+		ClientCommandRegistrationCallback.EVENT.register((dispatcher, registryAccess) -> SeedCheckerClientCommands.register(dispatcher));
+
+		EventClientGameLoop.EVENT.register(this::markFirstFrame);
+		EventClientGameLoop.EVENT.register(client -> {
+			if (workerSettings != null) {
+				updateWorkers(client);
+			}
+		});
+		EventClientGameLoop.EVENT.register(benchmark::onGameLoop);
+		EventClientGameLoop.EVENT.register(this::advanceFailedSeed);
+		EventClientGameLoop.EVENT.register(this::advanceRequestedSeed);
+		EventClientGameLoop.EVENT.register(this::advanceQueuedPresses);
+		EventSeedLoaded.EVENT.register(timings -> SeedChecker.seedFile.complete(timings.getSeed()));
+		EventSeedLoaded.EVENT.register(timingLog::onSeedLoaded);
+		EventSeedLoaded.EVENT.register(benchmark::onSeedLoaded);
+		EventSeedLoaded.EVENT.register(this::showStructures);
+		EventSeedLoaded.EVENT.register(this::runChecks);
+		EventSeedLoaded.EVENT.register(this::startPregeneration);
+		ServerTickEvents.START_SERVER_TICK.register(pregenerator::onTickStart);
+		ServerTickEvents.END_SERVER_TICK.register(pregenerator::onTickEnd);
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> pregenerator.cancel());
 	}
 
 	private void registerKeybindings() {
 		String category = "SeedChanger";
 		keybindManager.registerKeybind(new Keybind("Next Seed", category, GLFW.GLFW_KEY_O, this::nextSeed));
+		keybindManager.registerKeybind(new Keybind("Keep World", category, GLFW.GLFW_KEY_K, this::togglePinned));
 
 		EventClientGameLoop.EVENT.register(keybindManager::onRunClientGameLoop);
 	}
 
 	private void nextSeed(Minecraft client) {
-		Long nextSeed = SeedChecker.seedFile.seedList.poll();
+		if (polling) {
+			// The previous press is still waiting for the prefilter
+			return;
+		}
+		if (SCWorldLoader.queuePress()) {
+			// Handled once the loading world is ready, so quick presses don't prepare a world for every seed
+			return;
+		}
+		pollNext(client, 0);
+	}
+
+	/**
+	 * Polls the next seed and loads it
+	 * @param client The Minecraft instance
+	 * @param discarded The number of seeds that are polled and skipped first, without loading them
+	 */
+	private void pollNext(Minecraft client, int discarded) {
+		failedSeed = null;
+		pregenerator.cancel();
+		polling = true;
+		int[] skipped = { 0 };
+		updateWorkers(client).thenComposeAsync(v -> pollSeeds(client, skipped, discarded), client).whenCompleteAsync((nextSeed, throwable) -> {
+			polling = false;
+			reportSkipped(client, skipped[0]);
+			if (throwable != null) {
+				SeedChecker.LOGGER.error("Failed to poll the next seed");
+				SeedChecker.LOGGER.catching(throwable);
+				return;
+			}
+			onSeedPolled(client, nextSeed);
+		}, client);
+	}
 
-		if (nextSeed == null) {
+	private void onSeedPolled(Minecraft client, OptionalLong nextSeed) {
+		if (nextSeed.isEmpty()) {
+			// Closes the loading screen, if the loading world was skipped for this poll
+			SCWorldLoader.cancelLoading();
+		}
+
+		if (nextSeed.isEmpty() && SeedChecker.seedFile.isLoading()) {
+			client.gui.getChat().addMessage(Component.literal("The seed list is still loading, try again in a moment").withStyle(ChatFormatting.WHITE));
+			return;
+		}
+
+		if (nextSeed.isEmpty() && SeedChecker.seedFile.isPrescreening()) {
+			client.gui.getChat().addMessage(Component.literal("No seed passed the prescreens yet, try again in a moment").withStyle(ChatFormatting.WHITE));
+			return;
+		}
+
+		if (nextSeed.isEmpty()) {
 			//@formatter:off
 			client.gui.getChat().addMessage(
 					Component.translatable("The seed list is empty! [%s]", 
@@ -42,8 +198,320 @@ public class SeedCheckerClient implements ClientModInitializer {
 			return;
 		}
 
-		SeedChecker.LOGGER.info("Loading new seed %s", nextSeed);
-		SCWorldLoader.loadWorld(nextSeed);
+		loadSeed(nextSeed.getAsLong());
+	}
+
+	/**
+	 * Loads the world of a seed that was already removed from the seed list, and prefetches the next one
+	 * @param seed The seed
+	 */
+	private void loadSeed(long seed) {
+		SeedChecker.LOGGER.info("Loading new seed %s", seed);
+		if (structureLocator != null) {
+			structureLocator.locate(seed);
+		}
+		SCWorldLoader.loadWorld(seed);
 		SeedChecker.seedFile.save();
+
+		// With prescreens, only seeds that passed them are prefetched
+		SeedQueue upcoming = SeedChecker.seedFile.getUpcoming();
+		if (prefilter != null) {
+			prefilter.schedule(upcoming);
+			prefilter.peekPassing(upcoming).ifPresent(SCWorldLoader::prefetch);
+		} else {
+			upcoming.peek().ifPresent(SCWorldLoader::prefetch);
+		}
+		if (structureLocator != null) {
+			structureLocator.schedule(upcoming, 1);
+		}
+	}
+
+	/**
+	 * Polls the next seed that passes the prefilter and was not checked before. Seeds that fail are removed from the seed list.<br>
+	 * Verdicts that are ready are taken right away, otherwise the poll continues on the client thread once the verdict is ready,
+	 * so the game never waits for the prefilter
+	 * @param client The Minecraft instance
+	 * @param skipped The number of seeds that failed the prefilter, increased by this poll
+	 * @return The next seed or an empty optional if the seed list is empty
+	 */
+	private CompletableFuture<OptionalLong> pollSeed(Minecraft client, int[] skipped) {
+		OptionalLong seed;
+		while ((seed = SeedChecker.seedFile.poll()).isPresent() && prefilter != null) {
+			long polled = seed.getAsLong();
+			CompletableFuture<Boolean> verdict = prefilter.take(polled);
+			if (!verdict.isDone()) {
+				return verdict.thenComposeAsync(passes -> passes ? CompletableFuture.completedFuture(OptionalLong.of(polled)) : skipSeed(client, polled, skipped), client);
+			}
+			if (verdict.join()) {
+				break;
+			}
+			SeedChecker.seedFile.complete(polled);
+			skipped[0]++;
+		}
+		return CompletableFuture.completedFuture(seed);
+	}
+
+	/**
+	 * Polls seeds like {@link #pollSeed(Minecraft, int[])}, after skipping the given number of seeds that pass
+	 */
+	private CompletableFuture<OptionalLong> pollSeeds(Minecraft client, int[] skipped, int discarded) {
+		CompletableFuture<OptionalLong> seed = pollSeed(client, skipped);
+		if (discarded == 0) {
+			return seed;
+		}
+		return seed.thenComposeAsync(polled -> {
+			if (polled.isEmpty()) {
+				return CompletableFuture.completedFuture(polled);
+			}
+			// Skipped by a press that was queued while the previous world was loading
+			SeedChecker.seedFile.complete(polled.getAsLong());
+			return pollSeeds(client, skipped, discarded - 1);
+		}, client);
+	}
+
+	private CompletableFuture<OptionalLong> skipSeed(Minecraft client, long seed, int[] skipped) {
+		SeedChecker.seedFile.complete(seed);
+		skipped[0]++;
+		return pollSeed(client, skipped);
+	}
+
+	private void reportSkipped(Minecraft client, int skipped) {
+		long prescreened = SeedChecker.seedFile.takePrescreenedCount();
+		if (prescreened > 0) {
+			SeedChecker.LOGGER.info("Skipped %s seeds that failed the prescreens", prescreened);
+			client.gui.getChat().addMessage(Component.literal(String.format("Skipped %s seeds that failed the prescreens", prescreened)).withStyle(ChatFormatting.GRAY));
+		}
+		int checked = SeedChecker.seedFile.takeSkippedCount();
+		if (checked > 0) {
+			SeedChecker.LOGGER.info("Skipped %s seeds that were already checked", checked);
+			client.gui.getChat().addMessage(Component.literal(String.format("Skipped %s seeds that were already checked", checked)).withStyle(ChatFormatting.GRAY));
+		}
+		if (skipped > 0) {
+			SeedChecker.seedFile.save();
+			SeedChecker.LOGGER.info("Skipped %s seeds that failed the prefilter", skipped);
+			client.gui.getChat().addMessage(Component.literal(String.format("Skipped %s seeds that failed the prefilter", skipped)).withStyle(ChatFormatting.GRAY));
+		}
+	}
+
+	/**
+	 * Recreates the {@link #prefilter} and the {@link #structureLocator} in the background, if the settings changed.<br>
+	 * Called on every game loop once the game started, so the sampler is usually built before the next seed is requested
+	 * @param client The Minecraft instance
+	 * @return A future that completes on the client thread once the workers are ready
+	 */
+	private CompletableFuture<Void> updateWorkers(Minecraft client) {
+		SeedCheckerSettings settings = SeedChecker.settings;
+		if (workerSettings == settings) {
+			return workersReady;
+		}
+		workerSettings = settings;
+		prefilter = null;
+		structureLocator = null;
+		if (!settings.prefilterEnabled() && settings.structures().isEmpty()) {
+			workersReady = CompletableFuture.completedFuture(null);
+			return workersReady;
+		}
+
+		workersReady = SCWorldLoader.createSampler(client, settings).thenAcceptAsync(sampler -> {
+			if (workerSettings != settings) {
+				return;
+			}
+			if (settings.prefilterEnabled()) {
+				prefilter = new SeedPrefilter(sampler, settings.prefilterBiomes(), settings.prefilterRadius(), settings.prefilterHeight(), settings.prefilterSpawnExclude());
+				prefilter.schedule(SeedChecker.seedFile.getUpcoming());
+			}
+			if (!settings.structures().isEmpty()) {
+				structureLocator = new StructureLocator(sampler, settings.structures(), settings.structureRadius());
+			}
+		}, client).exceptionally(throwable -> {
+			SeedChecker.LOGGER.error("Could not create the seed sampler, seeds are loaded without the prefilter and the structure locator");
+			SeedChecker.LOGGER.catching(throwable);
+			return null;
+		});
+		return workersReady;
+	}
+
+	/**
+	 * Shows the located structures of the loaded seed in chat
+	 * @param timings The timings of the loaded seed
+	 */
+	private void showStructures(LoadTimings timings) {
+		if (structureLocator == null) {
+			return;
+		}
+		Minecraft client = Minecraft.getInstance();
+		structureLocator.locate(timings.getSeed()).thenAccept(locations -> client.execute(() -> {
+			if (client.level == null) {
+				return;
+			}
+			if (locations.isEmpty()) {
+				client.gui.getChat().addMessage(Component.literal("No structures found near spawn").withStyle(ChatFormatting.GRAY));
+				return;
+			}
+			client.gui.getChat().addMessage(Component.literal("Structures near spawn:").withStyle(ChatFormatting.WHITE));
+			for (StructureLocation location : locations) {
+				String teleport = String.format("/tp @s %s ~ %s", location.x(), location.z());
+				//@formatter:off
+				client.gui.getChat().addMessage(
+						Component.literal(String.format("%s at %s, %s (%.0f blocks)", location.structure(), location.x(), location.z(), location.distance()))
+						.withStyle(ChatFormatting.YELLOW)
+						.withStyle(s -> s.withClickEvent(new ClickEvent.SuggestCommand(teleport))));
+				//@formatter:on
+			}
+		}));
+	}
+
+	/**
+	 * Evaluates the checks from the config against the loaded seed on the integrated server
+	 * @param timings The timings of the loaded seed
+	 */
+	private void runChecks(LoadTimings timings) {
+		List<SeedCheck> checks = SeedChecker.settings.checks();
+		if (checks.isEmpty() || benchmark.isRunning()) {
+			return;
+		}
+		Minecraft client = Minecraft.getInstance();
+		IntegratedServer server = client.getSingleplayerServer();
+		if (server == null) {
+			return;
+		}
+		SeedVerifier.verify(server, timings.getSeed(), checks).whenCompleteAsync((verdict, throwable) -> {
+			if (throwable != null) {
+				SeedChecker.LOGGER.error("Failed to check seed %s", timings.getSeed());
+				SeedChecker.LOGGER.catching(throwable);
+				return;
+			}
+			onVerdict(client, verdict);
+		}, client);
+	}
+
+	/**
+	 * Starts generating the chunks around spawn of the loaded seed, if enabled in the config
+	 * @param timings The timings of the loaded seed
+	 */
+	private void startPregeneration(LoadTimings timings) {
+		SeedCheckerSettings settings = SeedChecker.settings;
+		if (settings.pregenRadius() <= 0 || benchmark.isRunning()) {
+			return;
+		}
+		IntegratedServer server = Minecraft.getInstance().getSingleplayerServer();
+		if (server != null) {
+			pregenerator.start(server, settings.pregenShape(), settings.pregenRadius(), settings.pregenInnerRadius());
+		}
+	}
+
+	/**
+	 * Records the verdict and advances to the next seed if the seed failed. Passing seeds are announced and wait for the player
+	 * @param client The Minecraft instance
+	 * @param verdict The verdict of the loaded seed
+	 */
+	private void onVerdict(Minecraft client, Verdict verdict) {
+		verdictLog.record(verdict);
+		SeedChecker.LOGGER.info("Seed %s %s its checks", verdict.seed(), verdict.passed() ? "passed" : "failed");
+		if (client.level == null || LoadTimings.current() != null) {
+			// The player left the world or is already loading the next seed
+			return;
+		}
+
+		if (!verdict.passed()) {
+			for (NamedResult result : verdict.results()) {
+				if (!result.result().passed()) {
+					client.gui.getChat().addMessage(Component.literal(String.format("Seed %s failed %s (%s)", verdict.seed(), result.check(), result.result().value())).withStyle(ChatFormatting.GRAY));
+					break;
+				}
+			}
+			failedSeed = verdict.seed();
+			return;
+		}
+
+		client.gui.getChat().addMessage(Component.literal(String.format("Seed %s passed all checks", verdict.seed())).withStyle(ChatFormatting.GREEN));
+		for (NamedResult result : verdict.results()) {
+			client.gui.getChat().addMessage(Component.literal(String.format("%s: %s", result.check(), result.result().value())).withStyle(ChatFormatting.WHITE));
+		}
+		client.getSoundManager().play(SimpleSoundInstance.forUI(SoundEvents.NOTE_BLOCK_PLING, 1.0F));
+	}
+
+	/**
+	 * Loads the next seed, after the current seed failed its checks
+	 * @param client The Minecraft instance
+	 */
+	private void advanceFailedSeed(Minecraft client) {
+		if (failedSeed == null) {
+			return;
+		}
+		failedSeed = null;
+		if (client.level != null && LoadTimings.current() == null && !benchmark.isRunning()) {
+			nextSeed(client);
+		}
+	}
+
+	/**
+	 * Loads the next seed for the presses that were queued while the previous world was loading
+	 * @param client The Minecraft instance
+	 */
+	private void advanceQueuedPresses(Minecraft client) {
+		if (polling) {
+			return;
+		}
+		int presses = SCWorldLoader.takeQueuedPresses();
+		if (presses > 0) {
+			pollNext(client, presses - 1);
+		}
+	}
+
+	/**
+	 * Loads a seed on the next game loop, without going through the prefilter or the index of checked seeds
+	 * @param seed The seed, removed from the seed list if it is the next seed
+	 */
+	public static void requestSeed(long seed) {
+		requestedSeed = seed;
+	}
+
+	private void advanceRequestedSeed(Minecraft client) {
+		Long seed = requestedSeed;
+		if (seed == null) {
+			return;
+		}
+		requestedSeed = null;
+		if (LoadTimings.current() != null || benchmark.isRunning()) {
+			return;
+		}
+		failedSeed = null;
+		pregenerator.cancel();
+		updateWorkers(client);
+		if (!SeedChecker.seedFile.remove(seed)) {
+			SeedChecker.LOGGER.warn("Seed %s is no longer the next seed in the seed list, loading it without removing it", seed);
+		}
+		loadSeed(seed);
+	}
+
+	private void togglePinned(Minecraft client) {
+		if (client.level == null) {
+			return;
+		}
+		Boolean pinned = SCWorldLoader.togglePinned();
+		if (pinned == null) {
+			client.gui.getChat().addMessage(Component.literal("This world was not created by SeedChecker and is always kept").withStyle(ChatFormatting.WHITE));
+		} else if (pinned) {
+			client.gui.getChat().addMessage(Component.literal("This world will be kept").withStyle(ChatFormatting.GREEN));
+		} else if (SeedChecker.settings.discardWorlds()) {
+			client.gui.getChat().addMessage(Component.literal("This world will be discarded").withStyle(ChatFormatting.YELLOW));
+		} else {
+			client.gui.getChat().addMessage(Component.literal("This world can be removed from the world cache").withStyle(ChatFormatting.YELLOW));
+		}
+	}
+
+	private void markFirstFrame(Minecraft client) {
+		LoadTimings timings = LoadTimings.current();
+		if (timings == null || !timings.isMarked(LoadStage.SPAWN_CHUNKS)) {
+			awaitingFrame = null;
+			return;
+		}
+		if (awaitingFrame == timings) {
+			awaitingFrame = null;
+			timings.mark(LoadStage.FIRST_FRAME);
+		} else if (client.player != null && client.level != null && client.screen == null) {
+			awaitingFrame = timings;
+		}
 	}
 }
@@ -0,0 +1,42 @@
+package fail.scribble.seedchecker;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.minecraft.network.chat.Component;
+
+/**
+ * The <code>/seedbenchmark</code> command, only available on the client
+ *
+ * @author Scribble
+ */
+public class SeedCheckerClientCommands {
+
+	public static void register(CommandDispatcher<FabricClientCommandSource> dispatcher) {
+		//@formatter:off
+		dispatcher.register(ClientCommandManager.literal("seedbenchmark")
+				.then(ClientCommandManager.literal("start").executes(SeedCheckerClientCommands::startBenchmark))
+				.then(ClientCommandManager.literal("stop").executes(SeedCheckerClientCommands::stopBenchmark))
+		);
+		//@formatter:on
+	}
+
+	private static int startBenchmark(CommandContext<FabricClientCommandSource> context) {
+		if (!SeedCheckerClient.benchmark.start()) {
+			context.getSource().sendError(Component.literal("The benchmark is already running or could not be started"));
+			return 0;
+		}
+		context.getSource().sendFeedback(Component.literal("Starting benchmark, results are written to seedchecker/benchmark_results.txt"));
+		return 1;
+	}
+
+	private static int stopBenchmark(CommandContext<FabricClientCommandSource> context) {
+		if (!SeedCheckerClient.benchmark.stop()) {
+			context.getSource().sendError(Component.literal("No benchmark is running"));
+			return 0;
+		}
+		return 1;
+	}
+}
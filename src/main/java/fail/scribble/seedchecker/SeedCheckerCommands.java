@@ -0,0 +1,88 @@
+package fail.scribble.seedchecker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.Util;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * The <code>/seedchecker</code> command, available on dedicated and integrated servers
+ *
+ * @author Scribble
+ */
+public class SeedCheckerCommands {
+
+	public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+		//@formatter:off
+		dispatcher.register(Commands.literal("seedchecker")
+				.requires(source -> source.hasPermission(2))
+				.then(Commands.literal("batch")
+						.then(Commands.literal("start").executes(SeedCheckerCommands::startBatch))
+						.then(Commands.literal("stop").executes(SeedCheckerCommands::stopBatch))
+				)
+				.then(Commands.literal("compact").executes(SeedCheckerCommands::compact))
+				.then(Commands.literal("convert")
+						.executes(context -> convert(context, false))
+						.then(Commands.literal("compressed").executes(context -> convert(context, true)))
+				)
+		);
+		//@formatter:on
+	}
+
+	private static int startBatch(CommandContext<CommandSourceStack> context) {
+		CommandSourceStack source = context.getSource();
+		if (!SeedChecker.startBatch(source.getServer())) {
+			source.sendFailure(Component.literal("A seed batch is already running or could not be started"));
+			return 0;
+		}
+		source.sendSuccess(() -> Component.literal("Started seed batch, results are written to seedchecker/batch_results.csv"), true);
+		return 1;
+	}
+
+	private static int stopBatch(CommandContext<CommandSourceStack> context) {
+		CommandSourceStack source = context.getSource();
+		if (SeedChecker.batch == null || !SeedChecker.batch.isRunning()) {
+			source.sendFailure(Component.literal("No seed batch is running"));
+			return 0;
+		}
+		SeedChecker.stopBatch();
+		source.sendSuccess(() -> Component.literal(String.format("Stopping seed batch after %s seeds", SeedChecker.batch.getProcessed())), true);
+		return 1;
+	}
+
+	private static int compact(CommandContext<CommandSourceStack> context) {
+		SeedChecker.seedFile.compact();
+		context.getSource().sendSuccess(() -> Component.literal("Removed the used seeds from " + SeedChecker.seedFile.getFile().getFileName()), true);
+		return 1;
+	}
+
+	private static int convert(CommandContext<CommandSourceStack> context, boolean compressed) {
+		CommandSourceStack source = context.getSource();
+		MinecraftServer server = source.getServer();
+		source.sendSuccess(() -> Component.literal("Converting seedlist.txt to seedlist.bin"), true);
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return SeedChecker.convertSeedList(compressed);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, Util.ioPool()).whenCompleteAsync((count, throwable) -> {
+			if (throwable != null) {
+				SeedChecker.LOGGER.catching(throwable);
+				Throwable cause = throwable.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : throwable;
+				source.sendFailure(Component.literal("Could not convert the seed list: " + cause.getMessage()));
+			} else {
+				source.sendSuccess(() -> Component.literal(String.format("Converted %s seeds to seedlist.bin, the text file was kept as seedlist.txt.bak", count)), true);
+			}
+		}, server);
+		return 1;
+	}
+}
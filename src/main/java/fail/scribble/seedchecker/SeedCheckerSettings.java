@@ -0,0 +1,185 @@
+package fail.scribble.seedchecker;
+
+import java.util.List;
+import java.util.function.Function;
+
+import fail.scribble.seedchecker.SeedChecker.SeedCheckerConfigOptions;
+import fail.scribble.seedchecker.check.SeedCheck;
+import fail.scribble.seedchecker.common.Configuration;
+import fail.scribble.seedchecker.prescreen.Prescreen;
+import fail.scribble.seedchecker.worldgen.BiomeMatcher;
+import fail.scribble.seedchecker.worldgen.ChunkPregenerator;
+import fail.scribble.seedchecker.worldgen.StructureMatcher;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.Difficulty;
+import net.minecraft.world.level.GameType;
+import net.minecraft.world.level.levelgen.presets.WorldPreset;
+import net.minecraft.world.level.levelgen.presets.WorldPresets;
+
+/**
+ * The {@link SeedCheckerConfigOptions}, parsed and validated once every time the config is loaded.
+ * <p>
+ * The record is immutable and published as a whole in {@link SeedChecker#settings}, so reading it while the config is reloaded can never see half of a change.
+ *
+ * @author Scribble
+ */
+//@formatter:off
+public record SeedCheckerSettings(
+		GameType gameMode,
+		Difficulty difficulty,
+		String worldType,
+		ResourceKey<WorldPreset> worldPreset,
+		boolean hardcore,
+		boolean allowCommands,
+		String folderName,
+		boolean batchOnStartup,
+		int batchChunkRadius,
+		List<BiomeMatcher> batchBiomes,
+		boolean discardWorlds,
+		int worldCacheSize,
+		List<BiomeMatcher> prefilterBiomes,
+		int prefilterRadius,
+		int prefilterHeight,
+		List<BiomeMatcher> prefilterSpawnExclude,
+		List<StructureMatcher> structures,
+		int structureRadius,
+		List<SeedCheck> checks,
+		boolean skipCheckedSeeds,
+		boolean sharedSeedList,
+		int ingestPort,
+		int ingestMaxQueued,
+		GameRuleOverrides gameRules,
+		int pregenRadius,
+		int pregenInnerRadius,
+		ChunkPregenerator.Shape pregenShape,
+		int previewRadius,
+		int previewScale,
+		List<Prescreen> prescreens) {
+//@formatter:on
+
+	/**
+	 * @return Whether seeds are checked by the prefilter, before a world is created for them
+	 */
+	public boolean prefilterEnabled() {
+		return !prefilterBiomes.isEmpty() || !prefilterSpawnExclude.isEmpty();
+	}
+
+	/**
+	 * @param config The loaded config
+	 * @return The settings from the config
+	 * @throws IllegalArgumentException If a value in the config is invalid
+	 */
+	public static SeedCheckerSettings from(Configuration config) {
+		return parse(config::get);
+	}
+
+	/**
+	 * @return The settings from the default values of the {@link SeedCheckerConfigOptions}
+	 */
+	public static SeedCheckerSettings defaults() {
+		return parse(SeedCheckerConfigOptions::getDefaultValue);
+	}
+
+	private static SeedCheckerSettings parse(Function<SeedCheckerConfigOptions, String> values) {
+		String worldType = values.apply(SeedCheckerConfigOptions.WORLD_TYPE);
+		//@formatter:off
+		return new SeedCheckerSettings(
+				parseEnum(GameType.class, SeedCheckerConfigOptions.GAME_MODE, values),
+				parseEnum(Difficulty.class, SeedCheckerConfigOptions.DIFFICULTY, values),
+				worldType,
+				parseWorldPreset(worldType),
+				parseBoolean(SeedCheckerConfigOptions.HARDCORE, values),
+				parseBoolean(SeedCheckerConfigOptions.ALLOW_COMMANDS, values),
+				values.apply(SeedCheckerConfigOptions.FOLDER_NAME),
+				parseBoolean(SeedCheckerConfigOptions.BATCH_ON_STARTUP, values),
+				parseInt(SeedCheckerConfigOptions.BATCH_CHUNK_RADIUS, values),
+				List.copyOf(BiomeMatcher.parseList(values.apply(SeedCheckerConfigOptions.BATCH_BIOMES))),
+				parseBoolean(SeedCheckerConfigOptions.DISCARD_WORLDS, values),
+				parseInt(SeedCheckerConfigOptions.WORLD_CACHE_SIZE, values),
+				List.copyOf(BiomeMatcher.parseList(values.apply(SeedCheckerConfigOptions.PREFILTER_BIOMES))),
+				parseInt(SeedCheckerConfigOptions.PREFILTER_RADIUS, values),
+				parseInt(SeedCheckerConfigOptions.PREFILTER_HEIGHT, values),
+				List.copyOf(BiomeMatcher.parseList(values.apply(SeedCheckerConfigOptions.PREFILTER_SPAWN_EXCLUDE))),
+				List.copyOf(StructureMatcher.parseList(values.apply(SeedCheckerConfigOptions.STRUCTURES))),
+				parseInt(SeedCheckerConfigOptions.STRUCTURE_RADIUS, values),
+				List.copyOf(SeedCheck.parseList(values.apply(SeedCheckerConfigOptions.CHECKS))),
+				parseBoolean(SeedCheckerConfigOptions.SKIP_CHECKED_SEEDS, values),
+				parseBoolean(SeedCheckerConfigOptions.SHARED_SEED_LIST, values),
+				parsePort(SeedCheckerConfigOptions.INGEST_PORT, values),
+				parseInt(SeedCheckerConfigOptions.INGEST_MAX_QUEUED, values),
+				GameRuleOverrides.parse(parseSpawnChunkRadius(values), values.apply(SeedCheckerConfigOptions.GAME_RULES)),
+				parseInt(SeedCheckerConfigOptions.PREGEN_RADIUS, values),
+				parseInt(SeedCheckerConfigOptions.PREGEN_INNER_RADIUS, values),
+				parseEnum(ChunkPregenerator.Shape.class, SeedCheckerConfigOptions.PREGEN_SHAPE, values),
+				parsePositiveInt(SeedCheckerConfigOptions.PREVIEW_RADIUS, values),
+				parsePositiveInt(SeedCheckerConfigOptions.PREVIEW_SCALE, values),
+				List.copyOf(Prescreen.parseList(values.apply(SeedCheckerConfigOptions.PRESCREENS)))
+		);
+		//@formatter:on
+	}
+
+	private static ResourceKey<WorldPreset> parseWorldPreset(String worldType) {
+		switch (worldType) {
+			case "normal":
+				return WorldPresets.NORMAL;
+			case "amplified":
+				return WorldPresets.AMPLIFIED;
+			case "flat":
+				return WorldPresets.FLAT;
+			case "single_biome":
+				return WorldPresets.SINGLE_BIOME_SURFACE;
+			default:
+				throw new IllegalArgumentException(String.format("Invalid value %s for worldType", worldType));
+		}
+	}
+
+	private static <T extends Enum<T>> T parseEnum(Class<T> clazz, SeedCheckerConfigOptions option, Function<SeedCheckerConfigOptions, String> values) {
+		String value = values.apply(option);
+		try {
+			return Enum.valueOf(clazz, value);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for %s", value, option.getConfigKey()), e);
+		}
+	}
+
+	private static boolean parseBoolean(SeedCheckerConfigOptions option, Function<SeedCheckerConfigOptions, String> values) {
+		String value = values.apply(option);
+		if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for %s", value, option.getConfigKey()));
+		}
+		return Boolean.parseBoolean(value);
+	}
+
+	private static int parsePort(SeedCheckerConfigOptions option, Function<SeedCheckerConfigOptions, String> values) {
+		int port = parseInt(option, values);
+		if (port < 0 || port > 65535) {
+			throw new IllegalArgumentException(String.format("Invalid port %s for %s", port, option.getConfigKey()));
+		}
+		return port;
+	}
+
+	private static int parseSpawnChunkRadius(Function<SeedCheckerConfigOptions, String> values) {
+		int radius = parseInt(SeedCheckerConfigOptions.SPAWN_CHUNK_RADIUS, values);
+		if (radius < 0 || radius > 32) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for %s, expected 0 to 32", radius, SeedCheckerConfigOptions.SPAWN_CHUNK_RADIUS.getConfigKey()));
+		}
+		return radius;
+	}
+
+	private static int parsePositiveInt(SeedCheckerConfigOptions option, Function<SeedCheckerConfigOptions, String> values) {
+		int value = parseInt(option, values);
+		if (value <= 0) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for %s, expected a positive number", value, option.getConfigKey()));
+		}
+		return value;
+	}
+
+	private static int parseInt(SeedCheckerConfigOptions option, Function<SeedCheckerConfigOptions, String> values) {
+		String value = values.apply(option);
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid value %s for %s", value, option.getConfigKey()), e);
+		}
+	}
+}
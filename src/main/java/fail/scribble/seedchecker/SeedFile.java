@@ -1,24 +1,200 @@
 package fail.scribble.seedchecker;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalLong;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
 
+import fail.scribble.seedchecker.prescreen.PrescreenQueue;
+import fail.scribble.seedchecker.prescreen.PrescreenQueue.Survivor;
+
+import fail.scribble.seedchecker.seedlist.BinarySeedList;
+import fail.scribble.seedchecker.seedlist.CheckedSeedIndex;
+import fail.scribble.seedchecker.seedlist.GeneratorSeedQueue;
+import fail.scribble.seedchecker.seedlist.LongSeedQueue;
+import fail.scribble.seedchecker.seedlist.MappedSeedQueue;
+import fail.scribble.seedchecker.seedlist.ProgressJournal;
+import fail.scribble.seedchecker.seedlist.ProgressJournal.Progress;
+import fail.scribble.seedchecker.seedlist.SeedListParser;
+import fail.scribble.seedchecker.seedlist.SeedListParser.InvalidLine;
+import fail.scribble.seedchecker.seedlist.SeedListParser.ParsedSegment;
+import fail.scribble.seedchecker.seedlist.SeedListParser.TextGeneratorLine;
+import fail.scribble.seedchecker.seedlist.SeedQueue;
+import fail.scribble.seedchecker.seedlist.SharedClaims;
+import fail.scribble.seedchecker.seedlist.SharedClaims.Claim;
+import fail.scribble.seedchecker.util.FileRanges;
 import fail.scribble.seedchecker.util.PathLock;
-import net.minecraft.world.level.levelgen.WorldOptions;
 
 public class SeedFile {
 
-	private final Path file = Path.of("seedchecker/seedlist.txt");
-	public final Queue<Long> seedList = new ConcurrentLinkedQueue<>();
+	private static final String HEADER = "// Paste your seeds in this file (each seed in a new line) and save it. Also supports text as seeds!";
+
+	public static final Path TEXT_FILE = Path.of("seedchecker/seedlist.txt");
+	public static final Path BINARY_FILE = Path.of("seedchecker/seedlist.bin");
+
+	private final Path file;
+
+	/**
+	 * Whether the {@link #file} is a {@link BinarySeedList}
+	 */
+	private final boolean binary;
+
+	/**
+	 * The seeds that are handed out next. In shared mode, these are only the remaining seeds of the claimed block
+	 */
+	public final SeedQueue seedList;
+
+	/**
+	 * The seeds parsed from the {@link #file}. The same queue as the {@link #seedList}, except in shared mode where it holds the entire file
+	 */
+	private final SeedQueue fileSeeds;
+
+	/**
+	 * Hands out blocks of the file to multiple game instances, or null if the seed list is not shared
+	 */
+	private final SharedClaims claims;
+
+	/**
+	 * The seeds that were handed out in shared mode but not {@link #complete(long) completed} yet, mapped to their index in the {@link #fileSeeds}
+	 */
+	private final Map<Long, Long> handedOut = new HashMap<>();
 	private final PathLock lock = new PathLock();
 
-	public SeedFile() {
+	/**
+	 * Keeps track of the consumed seeds, so the seed list only has to be rewritten when {@link #compact() compacting}
+	 */
+	private final ProgressJournal journal;
+
+	/**
+	 * The seeds that were already polled from any seed list, or null if seeds are never skipped
+	 */
+	private final CheckedSeedIndex checkedSeeds;
+
+	/**
+	 * The number of already checked seeds that were skipped since the last call to {@link #takeSkippedCount()}
+	 */
+	private int skippedCount;
+
+	/**
+	 * Screens the {@link #seedList} ahead of the first seed with the <code>prescreens</code> of the settings. Unused in shared mode
+	 */
+	private final PrescreenQueue prescreens;
+
+	/**
+	 * Whether the <code>prescreens</code> of the settings are applied. If not, every seed is handed out
+	 */
+	private final boolean prescreened;
+
+	/**
+	 * The number of seeds that failed the prescreens since the last call to {@link #takePrescreenedCount()}
+	 */
+	private long prescreenedCount;
+
+	/**
+	 * The number of seeds from the start of the {@link #file}, that were already polled
+	 */
+	private long consumed;
+
+	/**
+	 * The number of seeds that were removed from the {@link #seedList}, including the seeds that failed the prescreens.
+	 * Unlike {@link #consumed}, this is never reset, so it can tell which appended seeds were used
+	 */
+	private long removedCount;
+
+	/**
+	 * The last seed that was polled, used to verify the journal against the {@link #file}
+	 */
+	private long lastConsumedSeed;
+
+	/**
+	 * The number of bytes of the {@link #file}, that were already parsed
+	 */
+	private long parsedBytes;
+
+	/**
+	 * Whether the parsed content ended with a line break. If not, the last line might continue and can't be loaded incrementally
+	 */
+	private boolean parsedEndsWithNewline;
+
+	/**
+	 * The checksum of all parsed bytes of a text seed list, extended when lines are appended
+	 */
+	private final CRC32 parsedChecksum = new CRC32();
+
+	/**
+	 * The number of lines that were parsed, used in warnings
+	 */
+	private long lineCount;
+
+	/**
+	 * Guards loading and compacting the seed list, so they never run at the same time
+	 */
+	private final Object loadLock = new Object();
+
+	/**
+	 * Whether the seed list is currently being loaded
+	 */
+	private volatile boolean loading;
+
+	/**
+	 * @param checkedSeeds The index of already checked seeds, or null to never skip seeds
+	 * @param shared Whether the seed list is shared with other game instances
+	 */
+	public SeedFile(CheckedSeedIndex checkedSeeds, boolean shared) {
+		//@formatter:off
+		this(Files.exists(BINARY_FILE) ? BINARY_FILE : TEXT_FILE,
+				Files.exists(BINARY_FILE) ? Path.of("seedchecker/seedlist.bin.progress") : Path.of("seedchecker/seedlist.progress"),
+				checkedSeeds,
+				shared ? Path.of("seedchecker/seedlist.claims") : null);
+		//@formatter:on
+	}
+
+	/**
+	 * @param file The seed list
+	 * @param progressFile The journal storing the progress in the seed list
+	 * @param checkedSeeds The index of already checked seeds, or null to never skip seeds
+	 */
+	public SeedFile(Path file, Path progressFile, CheckedSeedIndex checkedSeeds) {
+		this(file, progressFile, checkedSeeds, null);
+	}
+
+	/**
+	 * @param file The seed list, read as a {@link BinarySeedList} if the file ends with <code>.bin</code>
+	 * @param progressFile The journal storing the progress in the seed list. Unused in shared mode, as the progress is stored in the claim table
+	 * @param checkedSeeds The index of already checked seeds, or null to never skip seeds
+	 * @param claimFile The claim table shared with other game instances, or null if the seed list is not shared
+	 */
+	public SeedFile(Path file, Path progressFile, CheckedSeedIndex checkedSeeds, Path claimFile) {
+		this(file, progressFile, checkedSeeds, claimFile, true);
+	}
+
+	/**
+	 * @param file The seed list, read as a {@link BinarySeedList} if the file ends with <code>.bin</code>
+	 * @param progressFile The journal storing the progress in the seed list. Unused in shared mode, as the progress is stored in the claim table
+	 * @param checkedSeeds The index of already checked seeds, or null to never skip seeds
+	 * @param claimFile The claim table shared with other game instances, or null if the seed list is not shared
+	 * @param prescreened Whether seeds that fail the <code>prescreens</code> of the settings are skipped
+	 */
+	public SeedFile(Path file, Path progressFile, CheckedSeedIndex checkedSeeds, Path claimFile, boolean prescreened) {
+		this.file = file;
+		this.prescreened = prescreened;
+		this.journal = new ProgressJournal(progressFile);
+		this.checkedSeeds = checkedSeeds;
+		this.binary = file.getFileName().toString().endsWith(".bin");
+		this.claims = openClaims(claimFile);
+		this.fileSeeds = binary ? new MappedSeedQueue() : new GeneratorSeedQueue();
+		this.seedList = claims == null ? fileSeeds : new LongSeedQueue();
+		this.prescreens = new PrescreenQueue(this, seedList, () -> consumed);
 		if (!Files.exists(file.getParent())) {
 			SeedChecker.LOGGER.info("Creating new directories %s", file.getParent());
 			try {
@@ -28,74 +204,752 @@ public class SeedFile {
 			}
 		}
 		if (Files.exists(file)) {
-			load();
+			if (claims == null) {
+				Progress progress = journal.read();
+				consumed = progress.consumed();
+				lastConsumedSeed = progress.lastSeed();
+			}
+			loadAsync();
 		} else {
 			createNew();
 		}
 	}
 
+	private static SharedClaims openClaims(Path claimFile) {
+		if (claimFile == null) {
+			return null;
+		}
+		try {
+			SeedChecker.LOGGER.info("Sharing the seed list with other instances through %s", claimFile.getFileName());
+			return new SharedClaims(claimFile);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not open %s, the seed list is not shared", claimFile);
+			SeedChecker.LOGGER.catching(e);
+			return null;
+		}
+	}
+
 	public void createNew() {
 		SeedChecker.LOGGER.info("Creating new %s", file.getFileName());
-		List<String> lines = new ArrayList<>();
-		lines.add("// Paste your seeds in this file (each seed in a new line) and save it. Also supports text as seeds!");
-		writeFile(file, lines);
+		if (binary) {
+			try {
+				new BinarySeedList.Writer(file, false).close();
+			} catch (IOException e) {
+				SeedChecker.LOGGER.catching(e);
+			}
+		} else {
+			writeFile(file, (HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+		resetProgress();
+	}
+
+	/**
+	 * Loads the seed list on a background thread. Seeds are added to the {@link #fileSeeds} while the file is parsed
+	 */
+	public void loadAsync() {
+		loading = true;
+		Thread thread = new Thread(this::load, "SeedChecker Loader");
+		thread.setDaemon(true);
+		thread.start();
 	}
 
+	/**
+	 * Loads the seed list.<br>
+	 * If seeds were only appended to the file since the last load, only the new lines are parsed.
+	 * Otherwise the entire file is parsed again
+	 */
 	public void load() {
-		if (lock.isLocked(file)) {
-			return;
+		synchronized (loadLock) {
+			loading = true;
+			try {
+				if (lock.isLocked(file)) {
+					return;
+				}
+				if (binary) {
+					loadBinary();
+					return;
+				}
+				try {
+					if (isAppended()) {
+						loadAppended();
+						return;
+					}
+				} catch (IOException e) {
+					SeedChecker.LOGGER.catching(e);
+				}
+				loadFull();
+			} finally {
+				loading = false;
+			}
 		}
+	}
+
+	private void loadFull() {
 		SeedChecker.LOGGER.info("Loading %s", file);
-		List<String> in = readFile(file);
-
-		int lineCount = 0;
-		seedList.clear();
-		for (String line : in) {
-			lineCount++;
-			if (line.startsWith("//"))
-				continue;
-
-			OptionalLong opt = WorldOptions.parseSeed(line);
-			if (opt.isPresent()) {
-				seedList.add(opt.getAsLong());
+		long startTime = System.currentTimeMillis();
+		long skip;
+		long expectedSeed;
+		synchronized (this) {
+			skip = consumed;
+			expectedSeed = lastConsumedSeed;
+		}
+
+		try {
+			long size = Files.size(file);
+			long seedCount;
+			try {
+				seedCount = parseFull(size, skip, expectedSeed);
+			} catch (ProgressMismatchException e) {
+				SeedChecker.LOGGER.warn("The seed list changed before the last used seed, starting from the beginning of the list");
+				resetProgress();
+				skip = 0;
+				seedCount = parseFull(size, 0, 0);
+			}
+			if (claims != null) {
+				// The claimed block is filled again from the new content on the next poll
+				synchronized (this) {
+					seedList.clear();
+				}
+			}
+			updateFingerprint(size, false);
+			if (skip > 0) {
+				SeedChecker.LOGGER.info("Skipped %s already used seeds", skip);
+			}
+			SeedChecker.LOGGER.info("Loaded %s seeds in %sms", seedCount - skip, System.currentTimeMillis() - startTime);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * Opens the binary seed list and skips the used seeds, without reading the seeds themselves
+	 */
+	private void loadBinary() {
+		long startTime = System.currentTimeMillis();
+		long skip;
+		long expectedSeed;
+		synchronized (this) {
+			skip = consumed;
+			expectedSeed = lastConsumedSeed;
+		}
+
+		try {
+			BinarySeedList list = BinarySeedList.open(file);
+			if (skip > list.size() || (skip > 0 && list.get(skip - 1) != expectedSeed)) {
+				SeedChecker.LOGGER.warn("The seed list changed before the last used seed, starting from the beginning of the list");
+				resetProgress();
+				skip = 0;
+			}
+			synchronized (this) {
+				((MappedSeedQueue) fileSeeds).reset(list, skip);
+				prescreens.reset();
+			}
+			if (claims != null) {
+				synchronized (this) {
+					seedList.clear();
+				}
+			}
+			updateFingerprint(Files.size(file), false);
+			SeedChecker.LOGGER.info("Opened %s with %s seeds, %s already used%s in %sms", file.getFileName(), list.size(), skip, list.isCompressed() ? ", compressed" : "", System.currentTimeMillis() - startTime);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * Parses the entire file and adds the seeds to the {@link #fileSeeds}, while the file is parsed
+	 * @param size The size of the file
+	 * @param skip The number of already used seeds at the start of the file
+	 * @param expectedSeed The last used seed, that is expected right before the first seed that is added
+	 * @return The number of seeds in the file
+	 * @throws IOException If the file could not be read
+	 * @throws ProgressMismatchException If the last used seed doesn't match the file anymore
+	 */
+	private long parseFull(long size, long skip, long expectedSeed) throws IOException {
+		synchronized (this) {
+			fileSeeds.clear();
+			prescreens.reset();
+		}
+		lineCount = 0;
+		long[] index = { 0 };
+		long[] parsed = { 0 };
+		boolean[] reserved = { false };
+		SeedListParser.parse(file, 0, size, true, (segment, firstLine) -> {
+			logInvalidLines(segment, firstLine);
+			lineCount = firstLine + segment.getLineCount();
+			addSegment(segment, index, skip, expectedSeed);
+			parsed[0] += segment.getParsedBytes();
+			if (!reserved[0] && index[0] > skip && segment.getParsedBytes() > 0) {
+				// The rest of the file is expected to have as many seeds per byte as the first segment that added seeds
+				reserved[0] = true;
+				((GeneratorSeedQueue) fileSeeds).reserve((long) segment.getSeedCount() * (size - parsed[0]) / segment.getParsedBytes());
+			}
+		});
+		if (index[0] < skip) {
+			throw new ProgressMismatchException();
+		}
+		return index[0];
+	}
+
+	/**
+	 * Adds the seeds and generators of a segment to the {@link #fileSeeds}, leaving out the seeds that were already used
+	 * @param segment The parsed segment
+	 * @param index The number of seeds in the file before this segment, increased by the seeds of this segment
+	 * @param skip The number of already used seeds at the start of the file
+	 * @param expectedSeed The last used seed, that is expected right before the first seed that is added
+	 * @throws ProgressMismatchException If the last used seed doesn't match the file anymore
+	 */
+	private void addSegment(ParsedSegment segment, long[] index, long skip, long expectedSeed) {
+		GeneratorSeedQueue queue = (GeneratorSeedQueue) fileSeeds;
+		segment.forEachPart((seeds, from, to) -> {
+			long start = index[0];
+			index[0] += to - from;
+			if (index[0] <= skip) {
+				if (index[0] == skip && seeds[to - 1] != expectedSeed) {
+					throw new ProgressMismatchException();
+				}
+				return;
+			}
+			int first = from + (int) Math.max(0, skip - start);
+			if (first > from && seeds[first - 1] != expectedSeed) {
+				throw new ProgressMismatchException();
+			}
+			queue.addAll(seeds, first, to - first);
+		}, generator -> {
+			long start = index[0];
+			index[0] += generator.size();
+			if (index[0] <= skip) {
+				if (index[0] == skip && generator.get(generator.size() - 1) != expectedSeed) {
+					throw new ProgressMismatchException();
+				}
+				return;
+			}
+			// Resumes in the middle of the generator, without computing the used seeds
+			long offset = Math.max(0, skip - start);
+			if (offset > 0 && generator.get(offset - 1) != expectedSeed) {
+				throw new ProgressMismatchException();
+			}
+			queue.addGenerator(generator, offset);
+		});
+	}
+
+	/**
+	 * Parses only the lines that were appended since the last load.<br>
+	 * A line without a line break at the end is left for the next load, as it might still be written
+	 * @throws IOException If the file could not be read
+	 */
+	private void loadAppended() throws IOException {
+		long size = Files.size(file);
+		long[] appended = { 0 };
+		long[] lines = { 0 };
+		long parsed = SeedListParser.parse(file, parsedBytes, size, false, (segment, firstLine) -> {
+			logInvalidLines(segment, lineCount + firstLine);
+			lines[0] = firstLine + segment.getLineCount();
+			addSegment(segment, appended, 0, 0);
+		});
+		if (parsed == 0) {
+			return;
+		}
+		lineCount += lines[0];
+		SeedChecker.LOGGER.info("Loaded %s appended seeds from %s", appended[0], file);
+		updateFingerprint(parsedBytes + parsed, true);
+	}
+
+	/**
+	 * Appends seeds to the end of the file and adds them to the seed list, without parsing the file again.<br>
+	 * The file is locked afterwards, so the file watcher recognizes the write as our own and doesn't load the file again
+	 * @param seeds The array containing the seeds
+	 * @param offset The index of the first seed in the array
+	 * @param length The number of seeds to append
+	 * @return The {@link #getPosition() position} after the appended seeds
+	 * @throws IOException If the file could not be written
+	 */
+	public long append(long[] seeds, int offset, int length) throws IOException {
+		if (length == 0) {
+			return getEndPosition();
+		}
+		if (binary) {
+			appendBinary(seeds, offset, length);
+			return getEndPosition();
+		}
+		StringBuilder builder = new StringBuilder(length * 21);
+		for (int i = offset; i < offset + length; i++) {
+			builder.append(seeds[i]).append('\n');
+		}
+
+		synchronized (loadLock) {
+			if (!Files.exists(file)) {
+				createNew();
+			}
+			// Changes by other programs are loaded first, so they are not mistaken for our own write
+			if (Files.size(file) != parsedBytes) {
+				load();
+			}
+			long size = Files.size(file);
+			boolean parsedAll = size == parsedBytes;
+			if (!parsedAll || !parsedEndsWithNewline) {
+				builder.insert(0, '\n');
+			}
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+				ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.US_ASCII));
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+
+			if (parsedAll) {
+				fileSeeds.addAll(seeds, offset, length);
+				lineCount += length;
+				updateFingerprint(Files.size(file), true);
 			} else {
-				SeedChecker.LOGGER.warn("Could not parse seed in line %s: %s", lineCount, line);
+				// The file ended with an unfinished line, which is parsed together with the appended seeds
+				loadAppended();
 			}
+			lock.scheduleAndLock(file);
+			return getEndPosition();
 		}
 	}
 
-	public void save() {
-		SeedChecker.LOGGER.info("Saving seedlist.txt");
-		List<String> out = new ArrayList<>();
-		out.add("// Paste your seeds in this file (each seed in a new line) and save it. Also supports text as seeds!");
-		for (Long seed : seedList) {
-			out.add(Long.toString(seed));
+	private void appendBinary(long[] seeds, int offset, int length) throws IOException {
+		synchronized (loadLock) {
+			if (Files.size(file) != parsedBytes) {
+				load();
+			}
+			BinarySeedList.append(file, seeds, offset, length);
+			fileSeeds.addAll(seeds, offset, length);
+			updateFingerprint(Files.size(file), true);
+			lock.scheduleAndLock(file);
 		}
+	}
 
-		lock.scheduleAndLock(file);
-		writeFile(file, out);
+	private void logInvalidLines(ParsedSegment segment, long firstLine) {
+		for (InvalidLine invalidLine : segment.getInvalidLines()) {
+			SeedChecker.LOGGER.warn("Could not parse seed in line %s: %s", firstLine + invalidLine.line(), invalidLine.content());
+		}
+		for (TextGeneratorLine textLine : segment.getTextGeneratorLines()) {
+			SeedChecker.LOGGER.warn("Line %s is not a valid generator (%s), using it as a text seed: %s", firstLine + textLine.line(), textLine.reason(), textLine.content());
+		}
 	}
 
-	private void writeFile(Path path, List<String> lines) {
+	/**
+	 * Checks if the file only grew since the last load, by comparing the checksum of all previously parsed bytes.
+	 * Reading the parsed bytes again is still a lot faster than parsing them
+	 * @return True if the content that was parsed before is unchanged and new content was appended
+	 * @throws IOException If the file could not be read
+	 */
+	private boolean isAppended() throws IOException {
+		if (parsedBytes == 0 || !parsedEndsWithNewline || !Files.exists(file)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() <= parsedBytes) {
+				return false;
+			}
+			return FileRanges.checksum(channel, 0, parsedBytes) == parsedChecksum.getValue();
+		}
+	}
+
+	/**
+	 * Stores the checksum of the parsed content, to recognize appended lines on the next load
+	 * @param size The number of parsed bytes from the start of the file
+	 * @param appended Whether the bytes that were parsed before are unchanged, so only the new bytes are added to the checksum
+	 * @throws IOException If the file could not be read
+	 */
+	private void updateFingerprint(long size, boolean appended) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// A binary seed list is never loaded incrementally, so it's seeds are not read
+			if (!binary) {
+				if (!appended) {
+					parsedChecksum.reset();
+				}
+				FileRanges.update(parsedChecksum, channel, appended ? parsedBytes : 0, size);
+			}
+			parsedBytes = size;
+			parsedEndsWithNewline = size == 0 || FileRanges.read(channel, size - 1, 1)[0] == '\n';
+		}
+	}
+
+	/**
+	 * Retrieves and removes the next seed from the seed list and advances the progress.<br>
+	 * Seeds that fail the <code>prescreens</code> are skipped, unless the seed list is shared.<br>
+	 * Every polled seed is added to the index of checked seeds, seeds that were already checked are skipped if <code>skipCheckedSeeds</code> is enabled.<br>
+	 * The progress is only stored once {@link #save()} is called
+	 * @return The next seed or an empty optional if the seed list is empty
+	 */
+	public synchronized OptionalLong poll() {
+		OptionalLong seed;
+		while ((seed = claims == null ? pollPrescreened() : pollShared()).isPresent()) {
+			consumed++;
+			lastConsumedSeed = seed.getAsLong();
+			if (checkedSeeds == null || checkedSeeds.add(seed.getAsLong()) || !SeedChecker.settings.skipCheckedSeeds()) {
+				break;
+			}
+			skippedCount++;
+			complete(seed.getAsLong());
+		}
+		return seed;
+	}
+
+	/**
+	 * Removes the given seed from the seed list and advances the progress, if it is the next seed in {@link #getUpcoming()}.<br>
+	 * Unlike {@link #poll()}, no other seed is removed, apart from the seeds in front of it that failed the prescreens.
+	 * The seed is added to the index of checked seeds
+	 * @param seed The seed that is expected next
+	 * @return False if the seed is not the next seed, in which case nothing is removed
+	 */
+	public synchronized boolean remove(long seed) {
+		OptionalLong next = getUpcoming().peek();
+		if (next.isEmpty() || next.getAsLong() != seed) {
+			return false;
+		}
+		OptionalLong polled = claims == null ? pollPrescreened() : pollShared();
+		if (polled.isEmpty()) {
+			return false;
+		}
+		consumed++;
+		lastConsumedSeed = polled.getAsLong();
+		if (checkedSeeds != null) {
+			checkedSeeds.add(lastConsumedSeed);
+		}
+		return lastConsumedSeed == seed;
+	}
+
+	/**
+	 * Polls the next seed that passed the prescreens. The seeds in front of it failed and count as consumed.<br>
+	 * Seeds that fail are not added to the index of checked seeds, as they are cheaper to screen again than to look up
+	 * @return The next seed that passed, or an empty optional if no seed passed yet
+	 */
+	private OptionalLong pollPrescreened() {
+		configurePrescreens();
+		if (!prescreens.isEnabled()) {
+			OptionalLong seed = seedList.poll();
+			if (seed.isPresent()) {
+				removedCount++;
+			}
+			return seed;
+		}
+		Survivor survivor = prescreens.poll();
+		if (survivor == null) {
+			return OptionalLong.empty();
+		}
+		long failed = survivor.position() - consumed;
+		if (failed < 0) {
+			prescreens.reset();
+			return OptionalLong.empty();
+		}
+		seedList.skip(failed);
+		consumed += failed;
+		prescreenedCount += failed;
+		removedCount += failed;
+		OptionalLong seed = seedList.poll();
+		if (seed.isPresent()) {
+			removedCount++;
+		}
+		if (seed.isPresent() && seed.getAsLong() != survivor.seed()) {
+			SeedChecker.LOGGER.warn("The seed list changed while it was prescreened, screening it again");
+			prescreens.reset();
+		}
+		return seed;
+	}
+
+	/**
+	 * @return The seeds that are polled next, in order. If prescreens are set, only the seeds that passed them so far
+	 */
+	public synchronized SeedQueue getUpcoming() {
+		if (claims != null) {
+			return seedList;
+		}
+		configurePrescreens();
+		return prescreens.isEnabled() ? prescreens.getSurvivors() : seedList;
+	}
+
+	private void configurePrescreens() {
+		prescreens.configure(prescreened ? SeedChecker.settings.prescreens() : List.of());
+	}
+
+	/**
+	 * @return Whether prescreens are set and the seed list is still being screened
+	 */
+	public synchronized boolean isPrescreening() {
+		return claims == null && prescreens.isScreening();
+	}
+
+	/**
+	 * Polls the next seed of the claimed block, claiming a new block once it is used up
+	 * @return The next seed or an empty optional if all seeds are handed out or claimed by other instances
+	 */
+	private OptionalLong pollShared() {
+		if (loading || parsedBytes == 0) {
+			return OptionalLong.empty();
+		}
+		while (true) {
+			if (!seedList.isEmpty()) {
+				long index = claims.advance(seedList.peek().getAsLong());
+				if (index != -1) {
+					OptionalLong seed = seedList.poll();
+					handedOut.put(seed.getAsLong(), index);
+					return seed;
+				}
+				seedList.clear();
+			}
+			Claim claim = claims.claim(fileSeeds, isLoadedAll());
+			if (claim == null) {
+				return OptionalLong.empty();
+			}
+			long[] block = new long[(int) (claim.to() - claim.from())];
+			seedList.addAll(block, 0, fileSeeds.peek(block, claim.from()));
+		}
+	}
+
+	/**
+	 * @return Whether all bytes of the {@link #file} were parsed
+	 */
+	private boolean isLoadedAll() {
 		try {
-			Files.write(path, lines);
+			return Files.size(file) == parsedBytes;
 		} catch (IOException e) {
 			SeedChecker.LOGGER.catching(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Marks a polled seed as done, e.g. once its world loaded or it failed the prefilter.<br>
+	 * In shared mode, seeds that were polled but not completed are handed out again if this instance crashes. Otherwise this does nothing
+	 * @param seed The polled seed
+	 */
+	public synchronized void complete(long seed) {
+		if (claims == null) {
+			return;
+		}
+		Long index = handedOut.remove(seed);
+		if (index != null) {
+			claims.complete(index);
 		}
 	}
 
-	private List<String> readFile(Path path) {
-		List<String> out = new ArrayList<>();
+	/**
+	 * @return The number of already checked seeds that were skipped since the last call
+	 */
+	public synchronized int takeSkippedCount() {
+		int count = skippedCount;
+		skippedCount = 0;
+		return count;
+	}
+
+	/**
+	 * @return The number of seeds that failed the prescreens since the last call
+	 */
+	public synchronized long takePrescreenedCount() {
+		long count = prescreenedCount;
+		prescreenedCount = 0;
+		return count;
+	}
+
+	/**
+	 * Stores the progress in the seed list in the journal and flushes the checked seeds, on a background thread
+	 */
+	public synchronized void save() {
+		if (claims == null) {
+			journal.writeAsync(new Progress(consumed, lastConsumedSeed));
+		}
+		if (checkedSeeds != null) {
+			journal.execute(checkedSeeds::flush);
+		}
+	}
+
+	/**
+	 * Rewrites the seed list with only the remaining seeds and resets the progress
+	 */
+	public void compact() {
+		if (claims != null) {
+			SeedChecker.LOGGER.info("Not compacting %s, as it is shared with other instances", file.getFileName());
+			return;
+		}
+		if (binary) {
+			// Used seeds of a binary seed list are skipped without reading them, so they are left in the file
+			return;
+		}
+		synchronized (loadLock) {
+			synchronized (this) {
+				if (consumed == 0) {
+					return;
+				}
+				SeedChecker.LOGGER.info("Compacting %s, removing %s used seeds", file.getFileName(), consumed);
+				try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+					writer.write(HEADER);
+					writer.newLine();
+					IOException[] exception = new IOException[1];
+					// Generators are written back as lines, starting at their first unused seed
+					((GeneratorSeedQueue) fileSeeds).forEachEntry(seed -> writeLine(writer, Long.toString(seed), exception), (generator, offset) -> writeLine(writer, generator.toLine(offset), exception));
+					if (exception[0] != null) {
+						throw exception[0];
+					}
+				} catch (IOException e) {
+					SeedChecker.LOGGER.catching(e);
+					return;
+				}
+				lock.scheduleAndLock(file);
+				try {
+					updateFingerprint(Files.size(file), false);
+				} catch (IOException e) {
+					SeedChecker.LOGGER.catching(e);
+				}
+				resetProgress();
+			}
+		}
+	}
+
+	private static void writeLine(BufferedWriter writer, String line, IOException[] exception) {
+		if (exception[0] == null) {
+			try {
+				writer.write(line);
+				writer.newLine();
+			} catch (IOException e) {
+				exception[0] = e;
+			}
+		}
+	}
+
+	/**
+	 * Writes the remaining seeds to a new {@link BinarySeedList}.<br>
+	 * The file is parsed again and streamed into the binary seed list segment by segment, so the seeds are not copied in memory
+	 * @param target The binary seed list to write
+	 * @param compressed Whether the seeds are compressed in blocks
+	 * @return The number of written seeds
+	 * @throws IOException If the file could not be read or written
+	 */
+	public long convertToBinary(Path target, boolean compressed) throws IOException {
+		if (binary || claims != null) {
+			throw new IOException("Only a seed list that is not shared can be converted");
+		}
+		Path tempFile = target.resolveSibling(target.getFileName() + ".tmp");
+		// A generator can stand for more seeds than fit on the disk, e.g. range 0..9223372036854775806
+		long maxSeeds = Files.getFileStore(target.toAbsolutePath().getParent()).getUsableSpace() / Long.BYTES;
+		long count;
+		synchronized (loadLock) {
+			long skip;
+			synchronized (this) {
+				skip = consumed;
+			}
+			try (BinarySeedList.Writer writer = new BinarySeedList.Writer(tempFile, compressed)) {
+				IOException[] exception = new IOException[1];
+				long[] index = { 0 };
+				SeedListParser.parse(file, 0, Files.size(file), true, (segment, firstLine) -> segment.forEachPart((seeds, from, to) -> {
+					for (int i = from; i < to; i++) {
+						writeConverted(writer, seeds[i], index, skip, exception);
+					}
+				}, generator -> {
+					// Used seeds of a generator are skipped without computing them
+					long start = Math.max(0, Math.min(generator.size(), skip - index[0]));
+					index[0] += start;
+					if (exception[0] == null && generator.size() - start > maxSeeds - writer.getCount()) {
+						exception[0] = new IOException(String.format("The generator %s has too many seeds to convert", generator.toLine(start)));
+					}
+					for (long i = start; i < generator.size() && exception[0] == null; i++) {
+						writeConverted(writer, generator.get(i), index, skip, exception);
+					}
+				}));
+				if (exception[0] != null) {
+					throw exception[0];
+				}
+				count = writer.getCount();
+			} catch (IOException | RuntimeException e) {
+				Files.deleteIfExists(tempFile);
+				throw e;
+			}
+		}
+		Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return count;
+	}
+
+	private static void writeConverted(BinarySeedList.Writer writer, long seed, long[] index, long skip, IOException[] exception) {
+		if (index[0]++ < skip || exception[0] != null) {
+			return;
+		}
 		try {
-			out = Files.readAllLines(path);
+			writer.add(seed);
 		} catch (IOException e) {
-			SeedChecker.LOGGER.catching(e);
+			exception[0] = e;
 		}
+	}
+
+	/**
+	 * Releases the claimed block of a shared seed list, so other instances can continue it right away
+	 */
+	public synchronized void close() {
+		prescreens.stop();
+		if (claims != null) {
+			claims.release();
+			seedList.clear();
+			handedOut.clear();
+		}
+	}
+
+	/**
+	 * @return The number of seeds that were not handed out yet. In shared mode, this includes the seeds of all instances
+	 */
+	public int getQueuedCount() {
+		if (claims == null) {
+			return seedList.size();
+		}
+		return (int) Math.min(Integer.MAX_VALUE, claims.countRemaining(fileSeeds.longSize()));
+	}
+
+	/**
+	 * @return The number of seeds in front of the next seed that is handed out, counted from a point that never changes while the game runs.
+	 *         In shared mode, this includes the seeds handed out by all instances
+	 */
+	public synchronized long getPosition() {
+		return claims == null ? removedCount : claims.getHandedOutCount();
+	}
+
+	/**
+	 * @return The {@link #getPosition() position} after the last seed of the seed list
+	 */
+	private synchronized long getEndPosition() {
+		return claims == null ? removedCount + seedList.longSize() : fileSeeds.longSize();
+	}
+
+	/**
+	 * @return Whether the seed list is shared with other game instances
+	 */
+	public boolean isShared() {
+		return claims != null;
+	}
+
+	/**
+	 * @return Whether the seed list is currently being loaded
+	 */
+	public boolean isLoading() {
+		return loading;
+	}
+
+	private synchronized void resetProgress() {
+		consumed = 0;
+		lastConsumedSeed = 0;
+		prescreens.reset();
+		if (claims == null) {
+			journal.writeSync(Progress.NONE);
+		}
+	}
 
-		return out;
+	private void writeFile(Path path, byte[] content) {
+		try {
+			Files.write(path, content);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
 	}
 
 	public Path getFile() {
 		return file;
 	}
+
+	/**
+	 * Thrown while loading, if the progress in the journal doesn't match the seed list anymore
+	 */
+	private static class ProgressMismatchException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
 }
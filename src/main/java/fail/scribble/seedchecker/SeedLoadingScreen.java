@@ -0,0 +1,57 @@
+package fail.scribble.seedchecker;
+
+import fail.scribble.seedchecker.timing.LoadStage;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.CommonComponents;
+import net.minecraft.network.chat.Component;
+
+/**
+ * Shows the progress of a world that is prepared in the background, until {@link SCWorldLoader} opens it.
+ * <p>
+ * The client keeps running while this screen is open, so the next seed can be requested right away.
+ *
+ * @author Scribble
+ */
+public class SeedLoadingScreen extends Screen {
+
+	private final PreparedWorld world;
+
+	public SeedLoadingScreen(PreparedWorld world) {
+		super(Component.literal("Loading seed " + world.getSeed()));
+		this.world = world;
+	}
+
+	@Override
+	protected void init() {
+		this.addRenderableWidget(Button.builder(CommonComponents.GUI_CANCEL, button -> SCWorldLoader.cancelLoading()).bounds(this.width / 2 - 100, this.height / 2 + 40, 200, 20).build());
+	}
+
+	@Override
+	public void render(GuiGraphics guiGraphics, int mouseX, int mouseY, float partialTick) {
+		super.render(guiGraphics, mouseX, mouseY, partialTick);
+		guiGraphics.drawCenteredString(this.font, this.title, this.width / 2, this.height / 2 - 30, 0xFFFFFFFF);
+		guiGraphics.drawCenteredString(this.font, getStage().getDisplayName(), this.width / 2, this.height / 2 - 10, 0xFFA0A0A0);
+
+		int skipped = SCWorldLoader.getSkippedWhileLoading();
+		if (skipped > 0) {
+			guiGraphics.drawCenteredString(this.font, String.format("Skipped %s seeds", skipped), this.width / 2, this.height / 2 + 10, 0xFFA0A0A0);
+		}
+	}
+
+	private LoadStage getStage() {
+		if (!world.getStorageAccess().isDone()) {
+			return LoadStage.DIRECTORY_CREATION;
+		}
+		if (!world.getContext().isDone()) {
+			return LoadStage.DATAPACK_LOAD;
+		}
+		return LoadStage.LEVEL_CREATION;
+	}
+
+	@Override
+	public void onClose() {
+		SCWorldLoader.cancelLoading();
+	}
+}
@@ -0,0 +1,178 @@
+package fail.scribble.seedchecker;
+
+import java.nio.file.Path;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+
+import fail.scribble.seedchecker.worldgen.SeedPreview;
+import fail.scribble.seedchecker.worldgen.SeedPreview.Preview;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.client.renderer.RenderPipelines;
+import net.minecraft.client.renderer.texture.DynamicTexture;
+import net.minecraft.network.chat.CommonComponents;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Shows a {@link SeedPreview map} of the next seed in the seed list, so seeds can be skipped without loading a world for them
+ *
+ * @author Scribble
+ */
+public class SeedPreviewScreen extends Screen {
+
+	private static final ResourceLocation TEXTURE = ResourceLocation.fromNamespaceAndPath("seedchecker", "preview");
+
+	private final Screen parent;
+
+	/**
+	 * The preview that is rendering, or null
+	 */
+	private CompletableFuture<Preview> rendering;
+
+	/**
+	 * The shown preview, or null
+	 */
+	private Preview preview;
+
+	private Component status = Component.empty();
+
+	private Button acceptButton;
+	private Button skipButton;
+
+	public SeedPreviewScreen(Screen parent) {
+		super(Component.literal("Seed preview"));
+		this.parent = parent;
+	}
+
+	@Override
+	protected void init() {
+		int y = this.height - 28;
+		acceptButton = this.addRenderableWidget(Button.builder(Component.literal("Accept"), button -> accept()).bounds(this.width / 2 - 154, y, 100, 20).build());
+		skipButton = this.addRenderableWidget(Button.builder(Component.literal("Skip"), button -> skip()).bounds(this.width / 2 - 50, y, 100, 20).build());
+		this.addRenderableWidget(Button.builder(CommonComponents.GUI_DONE, button -> onClose()).bounds(this.width / 2 + 54, y, 100, 20).build());
+		if (rendering == null && preview == null) {
+			renderNext();
+		}
+		updateButtons();
+	}
+
+	/**
+	 * Starts rendering the preview of the next seed in the seed list
+	 */
+	private void renderNext() {
+		OptionalLong seed = SeedChecker.seedFile.getUpcoming().peek();
+		if (seed.isEmpty()) {
+			status = Component.literal(SeedChecker.seedFile.isLoading() ? "The seed list is still loading" : "The seed list is empty");
+			return;
+		}
+		SeedCheckerSettings settings = SeedChecker.settings;
+		status = Component.literal("Rendering seed " + seed.getAsLong());
+		CompletableFuture<Preview> future = SCWorldLoader.createSampler(this.minecraft, settings).thenCompose(sampler -> {
+			SeedPreview seedPreview = new SeedPreview(sampler, Path.of("seedchecker/previews"), settings.worldType(), settings.previewScale());
+			return seedPreview.render(seed.getAsLong(), settings.previewRadius());
+		});
+		rendering = future;
+		future.whenCompleteAsync((result, throwable) -> {
+			if (rendering != future) {
+				if (result != null) {
+					result.image().close();
+				}
+				return;
+			}
+			rendering = null;
+			if (throwable != null) {
+				SeedChecker.LOGGER.error("Failed to render the preview of seed %s", seed.getAsLong());
+				SeedChecker.LOGGER.catching(throwable);
+				status = Component.literal("Could not render seed " + seed.getAsLong());
+				updateButtons();
+				return;
+			}
+			show(result);
+		}, this.minecraft);
+		updateButtons();
+	}
+
+	private void show(Preview result) {
+		preview = result;
+		status = Component.literal("Seed " + result.seed());
+		this.minecraft.getTextureManager().register(TEXTURE, new DynamicTexture(() -> "SeedChecker preview", result.image()));
+		updateButtons();
+	}
+
+	/**
+	 * Loads the world of the shown seed, instead of the next seed that passes the prefilter
+	 */
+	private void accept() {
+		if (preview == null) {
+			return;
+		}
+		SeedCheckerClient.requestSeed(preview.seed());
+	}
+
+	/**
+	 * Removes the shown seed from the seed list and renders the next one
+	 */
+	private void skip() {
+		if (preview == null) {
+			return;
+		}
+		if (SeedChecker.seedFile.remove(preview.seed())) {
+			SeedChecker.seedFile.complete(preview.seed());
+			SeedChecker.seedFile.save();
+		} else {
+			SeedChecker.LOGGER.warn("Seed %s is no longer the next seed in the seed list", preview.seed());
+		}
+		clearPreview();
+		renderNext();
+	}
+
+	private void clearPreview() {
+		preview = null;
+		this.minecraft.getTextureManager().release(TEXTURE);
+	}
+
+	private void updateButtons() {
+		if (acceptButton != null) {
+			acceptButton.active = preview != null;
+			skipButton.active = preview != null;
+		}
+	}
+
+	@Override
+	public void render(GuiGraphics guiGraphics, int mouseX, int mouseY, float partialTick) {
+		super.render(guiGraphics, mouseX, mouseY, partialTick);
+		guiGraphics.drawCenteredString(this.font, status, this.width / 2, 10, 0xFFFFFFFF);
+		if (preview == null) {
+			return;
+		}
+
+		int size = Math.min(this.width - 20, this.height - 64);
+		int left = (this.width - size) / 2;
+		int top = 24;
+		int imageWidth = preview.image().getWidth();
+		int imageHeight = preview.image().getHeight();
+		float pixelSize = (float) size / Math.max(imageWidth, imageHeight);
+		int width = (int) (imageWidth * pixelSize);
+		int height = (int) (imageHeight * pixelSize);
+		guiGraphics.blit(RenderPipelines.GUI_TEXTURED, TEXTURE, left, top, 0.0F, 0.0F, width, height, width, height);
+
+		int spawnX = left + (int) ((preview.spawn().getX() - preview.originX()) / (float) preview.scale() * pixelSize);
+		int spawnY = top + (int) ((preview.spawn().getZ() - preview.originZ()) / (float) preview.scale() * pixelSize);
+		guiGraphics.fill(spawnX - 2, spawnY - 2, spawnX + 3, spawnY + 3, 0xFFFF0000);
+	}
+
+	@Override
+	public void removed() {
+		rendering = null;
+		if (preview != null) {
+			clearPreview();
+		}
+	}
+
+	@Override
+	public void onClose() {
+		this.minecraft.setScreen(parent);
+	}
+}
@@ -0,0 +1,354 @@
+package fail.scribble.seedchecker;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import net.minecraft.world.level.storage.LevelStorageSource;
+import net.minecraft.world.level.storage.LevelStorageSource.LevelStorageAccess;
+
+/**
+ * Manages the worlds created by the mod as a cache with a disk budget.
+ * <p>
+ * Every world is indexed by its seed and the settings it was created with, so loading the same seed again reopens the existing world.<br>
+ * Once the worlds exceed the budget, the least recently used worlds are deleted. Pinned worlds and the world that is currently open are never deleted.
+ * <p>
+ * Measuring and deleting worlds happens on a single low priority thread, the index is stored in a json file.
+ * Searching the index waits until the index was read at startup, and a world that was {@link #reserve(long, SeedCheckerSettings) reserved}
+ * is not evicted before it is opened.
+ *
+ * @author Scribble
+ */
+public class WorldCache {
+
+	private static final Type ENTRY_LIST = new TypeToken<List<Entry>>() {
+	}.getType();
+
+	private final LevelStorageSource levelSource;
+	private final Path indexFile;
+	private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SeedChecker World Cache");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	/**
+	 * The cached worlds by folder name, in the order they were added
+	 */
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	/**
+	 * The entry of the world that is currently open, or null
+	 */
+	private Entry current;
+
+	/**
+	 * The entry of the world that is about to be opened, or null
+	 */
+	private Entry reserved;
+
+	/**
+	 * Completes once the index was read
+	 */
+	private final CompletableFuture<Void> indexRead = new CompletableFuture<>();
+
+	/**
+	 * @param levelSource The saves directory
+	 * @param indexFile The file storing the cached worlds
+	 */
+	public WorldCache(LevelStorageSource levelSource, Path indexFile) {
+		this.levelSource = levelSource;
+		this.indexFile = indexFile;
+	}
+
+	/**
+	 * Reads the index in the background, removes worlds that were deleted by hand and evicts worlds over the budget
+	 * @param budget The disk budget in bytes, 0 or less for no limit
+	 */
+	public void load(long budget) {
+		executor.execute(() -> {
+			try {
+				readIndex();
+			} finally {
+				indexRead.complete(null);
+			}
+			evict(budget);
+		});
+	}
+
+	/**
+	 * Searches a cached world. Waits until the index was read, if it is still being read at startup
+	 * @param seed The seed of the world
+	 * @param settings The current settings
+	 * @return The folder name of the cached world, or an empty optional if there is none
+	 */
+	public Optional<String> find(long seed, SeedCheckerSettings settings) {
+		indexRead.join();
+		synchronized (this) {
+			return Optional.ofNullable(findEntry(seed, settings)).map(entry -> entry.folder);
+		}
+	}
+
+	/**
+	 * Searches a cached world that is about to be opened, and keeps it from being evicted until it is {@link #open(String, long, SeedCheckerSettings) opened}
+	 * @param seed The seed of the world
+	 * @param settings The current settings
+	 * @return The folder name of the cached world, or an empty optional if there is none
+	 */
+	public Optional<String> reserve(long seed, SeedCheckerSettings settings) {
+		indexRead.join();
+		synchronized (this) {
+			reserved = findEntry(seed, settings);
+			return Optional.ofNullable(reserved).map(entry -> entry.folder);
+		}
+	}
+
+	private Entry findEntry(long seed, SeedCheckerSettings settings) {
+		String config = configKey(settings);
+		for (Entry entry : entries.values()) {
+			if (entry.seed == seed && entry.config.equals(config) && Files.isDirectory(levelSource.getBaseDir().resolve(entry.folder))) {
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Marks a world as opened, adding it to the cache if it is new
+	 * @param folder The folder name of the world
+	 * @param seed The seed of the world
+	 * @param settings The settings the world was created with
+	 */
+	public synchronized void open(String folder, long seed, SeedCheckerSettings settings) {
+		Entry entry = entries.get(folder);
+		if (entry == null) {
+			entry = new Entry(folder, seed, configKey(settings));
+			entries.put(folder, entry);
+		}
+		entry.lastUsed = System.currentTimeMillis();
+		current = entry;
+		reserved = null;
+	}
+
+	/**
+	 * Marks the current world as closed. The size of the saved world is measured and worlds over the budget are evicted in the background
+	 * @param budget The disk budget in bytes, 0 or less for no limit
+	 */
+	public synchronized void close(long budget) {
+		if (current == null) {
+			return;
+		}
+		current.lastUsed = System.currentTimeMillis();
+		current.size = -1;
+		current = null;
+		executor.execute(() -> evict(budget));
+	}
+
+	/**
+	 * Removes the current world from the cache and deletes it in the background. Has to be called after the world was closed
+	 */
+	public synchronized void discardCurrent() {
+		if (current == null) {
+			return;
+		}
+		String folder = current.folder;
+		entries.remove(folder);
+		current = null;
+		executor.execute(() -> {
+			delete(folder);
+			writeIndex();
+		});
+	}
+
+	/**
+	 * @return Whether a world created by the mod is currently open
+	 */
+	public synchronized boolean hasCurrent() {
+		return current != null;
+	}
+
+	/**
+	 * @return Whether the current world is pinned
+	 */
+	public synchronized boolean isCurrentPinned() {
+		return current != null && current.pinned;
+	}
+
+	/**
+	 * Pins or unpins the current world. Pinned worlds are never evicted or discarded
+	 * @return If the current world is now pinned
+	 */
+	public synchronized boolean togglePinned() {
+		if (current == null) {
+			return false;
+		}
+		current.pinned = !current.pinned;
+		executor.execute(this::writeIndex);
+		return current.pinned;
+	}
+
+	/**
+	 * Deletes the least recently used worlds, until the cached worlds fit into the budget
+	 * @param budget The disk budget in bytes, 0 or less for no limit
+	 */
+	private void evict(long budget) {
+		List<Entry> candidates;
+		synchronized (this) {
+			candidates = new ArrayList<>(entries.values());
+		}
+
+		long total = 0;
+		for (Entry entry : candidates) {
+			if (entry.size < 0) {
+				long size = measure(entry.folder);
+				synchronized (this) {
+					entry.size = size;
+				}
+			}
+			total += entry.size;
+		}
+
+		if (budget > 0 && total > budget) {
+			candidates.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+			for (Entry entry : candidates) {
+				if (total <= budget) {
+					break;
+				}
+				synchronized (this) {
+					if (entry.pinned || entry == current || entry == reserved) {
+						continue;
+					}
+					entries.remove(entry.folder);
+				}
+				SeedChecker.LOGGER.info("Evicting world %s of seed %s from the world cache", entry.folder, entry.seed);
+				delete(entry.folder);
+				total -= entry.size;
+			}
+		}
+		writeIndex();
+	}
+
+	private long measure(String folder) {
+		Path directory = levelSource.getBaseDir().resolve(folder);
+		if (!Files.isDirectory(directory)) {
+			return 0;
+		}
+		try (Stream<Path> files = Files.walk(directory)) {
+			return files.filter(Files::isRegularFile).mapToLong(file -> {
+				try {
+					return Files.size(file);
+				} catch (IOException e) {
+					return 0;
+				}
+			}).sum();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Deletes a world, has to be called on the {@link #executor}
+	 * @param folder The folder name of the world
+	 */
+	private void delete(String folder) {
+		if (!Files.isDirectory(levelSource.getBaseDir().resolve(folder))) {
+			return;
+		}
+		try (LevelStorageAccess access = levelSource.createAccess(folder)) {
+			access.deleteLevel();
+			SeedChecker.LOGGER.debug("Deleted world %s", folder);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not delete world %s", folder);
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	private void readIndex() {
+		if (!Files.exists(indexFile)) {
+			return;
+		}
+		List<Entry> read;
+		try {
+			read = gson.fromJson(Files.readString(indexFile, StandardCharsets.UTF_8), ENTRY_LIST);
+		} catch (IOException | JsonParseException e) {
+			SeedChecker.LOGGER.warn("Could not read %s, starting with an empty world cache", indexFile);
+			return;
+		}
+		if (read == null) {
+			return;
+		}
+		synchronized (this) {
+			for (Entry entry : read) {
+				if (entry != null && entry.folder != null && entry.config != null && Files.isDirectory(levelSource.getBaseDir().resolve(entry.folder))) {
+					entries.putIfAbsent(entry.folder, entry);
+				}
+			}
+		}
+	}
+
+	private void writeIndex() {
+		String json;
+		synchronized (this) {
+			json = gson.toJson(new ArrayList<>(entries.values()), ENTRY_LIST);
+		}
+		Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+		try {
+			Files.writeString(tempFile, json, StandardCharsets.UTF_8);
+			Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * @param settings The settings
+	 * @return The settings that change the generated world, combined into one string
+	 */
+	private static String configKey(SeedCheckerSettings settings) {
+		return String.format("%s/%s/%s/%s/%s", settings.worldType(), settings.gameMode(), settings.difficulty(), settings.hardcore(), settings.allowCommands());
+	}
+
+	/**
+	 * A world in the cache
+	 */
+	private static class Entry {
+		private String folder;
+		private long seed;
+		private String config;
+
+		/**
+		 * The size of the world in bytes, or -1 if it needs to be measured
+		 */
+		private long size = -1;
+		private long lastUsed;
+		private boolean pinned;
+
+		private Entry(String folder, long seed, String config) {
+			this.folder = folder;
+			this.seed = seed;
+			this.config = config;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package fail.scribble.seedchecker;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import fail.scribble.seedchecker.timing.ContextCacheHitEvent;
+import fail.scribble.seedchecker.timing.WorldTaskEvent;
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.worldselection.CreateWorldScreen;
+import net.minecraft.client.gui.screens.worldselection.DataPackReloadCookie;
+import net.minecraft.client.gui.screens.worldselection.WorldCreationContext;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.WorldLoader;
+import net.minecraft.server.WorldLoader.DataLoadOutput;
+import net.minecraft.server.WorldLoader.InitConfig;
+import net.minecraft.server.packs.repository.PackRepository;
+import net.minecraft.server.packs.repository.ServerPacksSource;
+import net.minecraft.world.flag.FeatureFlagSet;
+import net.minecraft.world.level.WorldDataConfiguration;
+import net.minecraft.world.level.levelgen.WorldDimensions;
+import net.minecraft.world.level.levelgen.WorldGenSettings;
+import net.minecraft.world.level.levelgen.WorldOptions;
+import net.minecraft.world.level.levelgen.presets.WorldPreset;
+
+/**
+ * Caches the loaded datapacks and registries, so they don't have to be reloaded for every seed.
+ * <p>
+ * The only thing that changes between seeds are the {@link WorldOptions}, which are applied on top of the cached {@link WorldCreationContext}.<br>
+ * The cache is reloaded once the datapacks or the world preset change.
+ *
+ * @author Scribble
+ */
+public class WorldContextCache {
+
+	/**
+	 * The key of the currently cached context
+	 */
+	private ContextKey key;
+
+	/**
+	 * The cached context. The seed in the {@link WorldOptions} of this context is meaningless
+	 */
+	private CompletableFuture<WorldCreationContext> context;
+
+	/**
+	 * Returns the world creation context with the specified seed.<br>
+	 * Loads the datapacks, if the cache is empty or if the data configuration or the preset changed.
+	 * <p>
+	 * Needs to be called from the client thread, the last step of the datapack loading runs on it.
+	 * The flight recorder event of the load begins and commits on the client thread as well, a reused context is recorded as a {@link ContextCacheHitEvent}.
+	 *
+	 * @param mc The Minecraft instance
+	 * @param worldDataConfiguration The datapacks and features to load
+	 * @param preset The world preset to create the dimensions from
+	 * @param seed The seed of the new world
+	 * @return The context of the new world
+	 */
+	public synchronized CompletableFuture<WorldCreationContext> get(Minecraft mc, WorldDataConfiguration worldDataConfiguration, ResourceKey<WorldPreset> preset, long seed) {
+		ContextKey newKey = new ContextKey(worldDataConfiguration.dataPacks().getEnabled(), worldDataConfiguration.dataPacks().getDisabled(), worldDataConfiguration.enabledFeatures(), preset);
+		if (context == null || !newKey.equals(key) || context.isCompletedExceptionally()) {
+			SeedChecker.LOGGER.info("Loading datapacks for world preset %s", preset.location());
+			key = newKey;
+			WorldTaskEvent event = WorldTaskEvent.start("WorldLoader.load", seed);
+			context = load(mc, worldDataConfiguration, preset);
+			context.whenCompleteAsync((worldCreationContext, throwable) -> event.commit(), mc);
+		} else {
+			ContextCacheHitEvent event = new ContextCacheHitEvent();
+			event.seed = seed;
+			event.pending = !context.isDone();
+			event.commit();
+		}
+		return context.thenApply(worldCreationContext -> worldCreationContext.withOptions(options -> new WorldOptions(seed, true, false)));
+	}
+
+	private CompletableFuture<WorldCreationContext> load(Minecraft mc, WorldDataConfiguration worldDataConfiguration, ResourceKey<WorldPreset> preset) {
+		PackRepository packRepository = new PackRepository(new ServerPacksSource(mc.directoryValidator()));
+		InitConfig initConfig = CreateWorldScreen.createDefaultLoadConfig(packRepository, worldDataConfiguration);
+		return WorldLoader.load(initConfig, dataLoadContext -> {
+			WorldDimensions dimensions = dataLoadContext.datapackWorldgen().lookupOrThrow(Registries.WORLD_PRESET).getOrThrow(preset).value().createWorldDimensions();
+			WorldGenSettings worldGenSettings = new WorldGenSettings(new WorldOptions(0L, true, false), dimensions);
+			return new DataLoadOutput<>(new DataPackReloadCookie(worldGenSettings, dataLoadContext.dataConfiguration()), dataLoadContext.datapackDimensions());
+		}, (closeableResourceManager, reloadableServerResources, layeredRegistryAccess, dataPackReloadCookie) -> {
+			closeableResourceManager.close();
+			return new WorldCreationContext(dataPackReloadCookie.worldGenSettings(), layeredRegistryAccess, reloadableServerResources, dataPackReloadCookie.dataConfiguration());
+		}, Util.backgroundExecutor(), mc);
+	}
+
+	/**
+	 * The values that decide if the cached context can be reused
+	 */
+	private record ContextKey(List<String> enabledPacks, List<String> disabledPacks, FeatureFlagSet enabledFeatures, ResourceKey<WorldPreset> preset) {
+	}
+}
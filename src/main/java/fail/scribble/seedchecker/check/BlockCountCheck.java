@@ -0,0 +1,113 @@
+package fail.scribble.seedchecker.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import net.minecraft.core.SectionPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+
+/**
+ * <code>blocks &lt;block&gt; &lt;chunk radius&gt; &lt;count&gt;</code>: Passes if the block occurs at least count times in the chunks in the radius around spawn.
+ * <p>
+ * The chunks are generated before counting, so the result doesn't depend on how far the world has loaded.
+ * They are kept loaded with a ticket, that is removed once the blocks are counted.
+ *
+ * @author Scribble
+ */
+public class BlockCountCheck implements SeedCheck {
+
+	private final String name;
+	private final Block block;
+	private final int chunkRadius;
+	private final int minCount;
+
+	public BlockCountCheck(String name, String block, int chunkRadius, int minCount) {
+		this.name = name;
+		ResourceLocation location;
+		try {
+			location = ResourceLocation.parse(block);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid block " + block, e);
+		}
+		this.block = BuiltInRegistries.BLOCK.getOptional(location).orElseThrow(() -> new IllegalArgumentException("Unknown block " + block));
+		this.chunkRadius = chunkRadius;
+		this.minCount = minCount;
+	}
+
+	@Override
+	public CompletableFuture<?> prepare(ServerLevel level) {
+		ServerChunkCache chunkSource = level.getChunkSource();
+		List<CompletableFuture<?>> chunks = new ArrayList<>();
+		for (ChunkPos chunk : getChunks(level)) {
+			chunkSource.addTicketWithRadius(TicketType.PLAYER_LOADING, chunk, 0);
+			chunks.add(chunkSource.getChunkFuture(chunk.x, chunk.z, ChunkStatus.FULL, true));
+		}
+		return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+	}
+
+	@Override
+	public CheckResult evaluate(ServerLevel level) {
+		ServerChunkCache chunkSource = level.getChunkSource();
+		int count = 0;
+		int missing = 0;
+		for (ChunkPos pos : getChunks(level)) {
+			LevelChunk chunk = chunkSource.getChunkNow(pos.x, pos.z);
+			chunkSource.removeTicketWithRadius(TicketType.PLAYER_LOADING, pos, 0);
+			if (chunk == null) {
+				missing++;
+				continue;
+			}
+			count += count(chunk);
+		}
+		if (count < minCount && missing > 0) {
+			return new CheckResult(false, String.format("%s, %s chunks missing", count, missing));
+		}
+		return new CheckResult(count >= minCount, Integer.toString(count));
+	}
+
+	private List<ChunkPos> getChunks(ServerLevel level) {
+		int spawnChunkX = SectionPos.blockToSectionCoord(level.getSharedSpawnPos().getX());
+		int spawnChunkZ = SectionPos.blockToSectionCoord(level.getSharedSpawnPos().getZ());
+		List<ChunkPos> chunks = new ArrayList<>();
+		for (int chunkX = spawnChunkX - chunkRadius; chunkX <= spawnChunkX + chunkRadius; chunkX++) {
+			for (int chunkZ = spawnChunkZ - chunkRadius; chunkZ <= spawnChunkZ + chunkRadius; chunkZ++) {
+				chunks.add(new ChunkPos(chunkX, chunkZ));
+			}
+		}
+		return chunks;
+	}
+
+	private int count(LevelChunk chunk) {
+		int count = 0;
+		for (LevelChunkSection section : chunk.getSections()) {
+			if (section.hasOnlyAir() || !section.maybeHas(state -> state.is(block))) {
+				continue;
+			}
+			for (int y = 0; y < 16; y++) {
+				for (int z = 0; z < 16; z++) {
+					for (int x = 0; x < 16; x++) {
+						if (section.getBlockState(x, y, z).is(block)) {
+							count++;
+						}
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,97 @@
+package fail.scribble.seedchecker.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * A condition a loaded world has to meet, to be shown to the player.
+ * <p>
+ * Checks are written in the config as a list separated by <code>;</code>, e.g.
+ * <pre>
+ * spawn_biome #minecraft:is_forest; structure #minecraft:village 500; blocks minecraft:diamond_ore 4 3
+ * </pre>
+ * Checks are evaluated on the server thread, once the world is loaded.
+ *
+ * @author Scribble
+ */
+public interface SeedCheck {
+
+	/**
+	 * Prepares the level before {@link #evaluate(ServerLevel)} is called, e.g. by generating chunks. Called on the server thread
+	 * @param level The overworld of the loaded seed
+	 * @return A future that completes once the check can be evaluated
+	 */
+	public default CompletableFuture<?> prepare(ServerLevel level) {
+		return CompletableFuture.completedFuture(null);
+	}
+
+	/**
+	 * @param level The overworld of the loaded seed
+	 * @return Whether the world passes this check and the measured value
+	 */
+	public CheckResult evaluate(ServerLevel level);
+
+	/**
+	 * @return The check as it was written in the config
+	 */
+	public String getName();
+
+	/**
+	 * Parses a list of checks separated by <code>;</code>. Empty entries are ignored
+	 * @param value The list of checks
+	 * @return The parsed checks
+	 * @throws IllegalArgumentException If a check is invalid
+	 */
+	public static List<SeedCheck> parseList(String value) {
+		List<SeedCheck> out = new ArrayList<>();
+		for (String entry : value.split(";")) {
+			if (!entry.isBlank()) {
+				out.add(parse(entry.trim()));
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @param value A single check
+	 * @return The parsed check
+	 * @throws IllegalArgumentException If the check is invalid
+	 */
+	public static SeedCheck parse(String value) {
+		String[] args = value.split("\\s+");
+		try {
+			switch (args[0]) {
+				case "spawn_biome":
+					expectArgs(value, args, 2);
+					return new SpawnBiomeCheck(value, args[1]);
+				case "structure":
+					expectArgs(value, args, 3);
+					return new StructureCheck(value, args[1], Integer.parseInt(args[2]));
+				case "blocks":
+					expectArgs(value, args, 4);
+					return new BlockCountCheck(value, args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+				default:
+					throw new IllegalArgumentException(String.format("Unknown check %s", value));
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid number in check %s", value), e);
+		}
+	}
+
+	private static void expectArgs(String value, String[] args, int count) {
+		if (args.length != count) {
+			throw new IllegalArgumentException(String.format("Check %s needs %s arguments", value, count - 1));
+		}
+	}
+
+	/**
+	 * The result of a check
+	 * @param passed Whether the world passed the check
+	 * @param value The measured value, shown to the player and written to the verdicts
+	 */
+	public static record CheckResult(boolean passed, String value) {
+	}
+}
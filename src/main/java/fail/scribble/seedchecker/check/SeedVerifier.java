@@ -0,0 +1,83 @@
+package fail.scribble.seedchecker.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.check.SeedCheck.CheckResult;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Evaluates the {@link SeedCheck checks} of a loaded seed on the server thread, so the render thread keeps running while the world is checked.
+ *
+ * @author Scribble
+ */
+public class SeedVerifier {
+
+	/**
+	 * Prepares and then evaluates all checks against the overworld of the server
+	 * @param server The server that loaded the seed
+	 * @param seed The loaded seed
+	 * @param checks The checks to evaluate
+	 * @return The verdict, completed on the server thread
+	 */
+	public static CompletableFuture<Verdict> verify(MinecraftServer server, long seed, List<SeedCheck> checks) {
+		return CompletableFuture.supplyAsync(server::overworld, server).thenCompose(level -> verify(server, level, seed, checks));
+	}
+
+	/**
+	 * Prepares and then evaluates all checks against a level of the server
+	 * @param server The server of the level
+	 * @param level The level that is checked
+	 * @param seed The seed of the level
+	 * @param checks The checks to evaluate
+	 * @return The verdict, completed on the server thread
+	 */
+	public static CompletableFuture<Verdict> verify(MinecraftServer server, ServerLevel level, long seed, List<SeedCheck> checks) {
+		return CompletableFuture.supplyAsync(() -> {
+			List<CompletableFuture<?>> prepared = new ArrayList<>();
+			for (SeedCheck check : checks) {
+				prepared.add(check.prepare(level));
+			}
+			return CompletableFuture.allOf(prepared.toArray(CompletableFuture[]::new));
+		}, server).thenCompose(prepared -> prepared).handleAsync((prepared, prepareThrowable) -> {
+			if (prepareThrowable != null) {
+				SeedChecker.LOGGER.error("Failed to prepare the checks for seed %s", seed);
+				SeedChecker.LOGGER.catching(prepareThrowable);
+			}
+			List<NamedResult> results = new ArrayList<>();
+			boolean passed = true;
+			for (SeedCheck check : checks) {
+				CheckResult result;
+				try {
+					result = check.evaluate(level);
+				} catch (RuntimeException e) {
+					SeedChecker.LOGGER.error("Failed to evaluate check %s for seed %s", check.getName(), seed);
+					SeedChecker.LOGGER.catching(e);
+					result = new CheckResult(false, "error");
+				}
+				results.add(new NamedResult(check.getName(), result));
+				passed &= result.passed();
+			}
+			return new Verdict(seed, passed, results);
+		}, server);
+	}
+
+	/**
+	 * The result of all checks of a seed
+	 * @param seed The checked seed
+	 * @param passed Whether the seed passed all checks
+	 * @param results The results of the single checks, in the order of the config
+	 */
+	public static record Verdict(long seed, boolean passed, List<NamedResult> results) {
+	}
+
+	/**
+	 * @param check The name of the check
+	 * @param result The result of the check
+	 */
+	public static record NamedResult(String check, CheckResult result) {
+	}
+}
@@ -0,0 +1,40 @@
+package fail.scribble.seedchecker.check;
+
+import java.util.List;
+
+import fail.scribble.seedchecker.worldgen.BiomeMatcher;
+import net.minecraft.core.Holder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.biome.Biome;
+
+/**
+ * <code>spawn_biome &lt;biomes&gt;</code>: Passes if the biome at the world spawn matches one of the comma separated biomes or biome tags
+ *
+ * @author Scribble
+ */
+public class SpawnBiomeCheck implements SeedCheck {
+
+	private final String name;
+	private final List<BiomeMatcher> biomes;
+
+	public SpawnBiomeCheck(String name, String biomes) {
+		this.name = name;
+		this.biomes = BiomeMatcher.parseList(biomes);
+	}
+
+	@Override
+	public CheckResult evaluate(ServerLevel level) {
+		Holder<Biome> biome = level.getBiome(level.getSharedSpawnPos());
+		for (BiomeMatcher matcher : biomes) {
+			if (matcher.test(biome)) {
+				return new CheckResult(true, biome.getRegisteredName());
+			}
+		}
+		return new CheckResult(false, biome.getRegisteredName());
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
@@ -0,0 +1,83 @@
+package fail.scribble.seedchecker.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.mojang.datafixers.util.Pair;
+
+import fail.scribble.seedchecker.worldgen.StructureMatcher;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderSet;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
+
+/**
+ * <code>structure &lt;structure&gt; &lt;distance&gt;</code>: Passes if the structure or structure tag is within the distance in blocks from the world spawn
+ *
+ * @author Scribble
+ */
+public class StructureCheck implements SeedCheck {
+
+	private final String name;
+	private final StructureMatcher structure;
+	private final int maxDistance;
+
+	public StructureCheck(String name, String structure, int maxDistance) {
+		this.name = name;
+		this.structure = StructureMatcher.parse(structure);
+		this.maxDistance = maxDistance;
+	}
+
+	@Override
+	public CheckResult evaluate(ServerLevel level) {
+		List<Holder.Reference<Structure>> structures = level.registryAccess().lookupOrThrow(Registries.STRUCTURE).listElements().filter(structure).toList();
+		if (structures.isEmpty()) {
+			return new CheckResult(false, "unknown structure");
+		}
+
+		// The search radius of random spread placements counts regions, not chunks, so structures are searched in groups of the same radius
+		Map<Integer, List<Holder<Structure>>> byRadius = new TreeMap<>();
+		for (Holder<Structure> holder : structures) {
+			byRadius.computeIfAbsent(getSearchRadius(level, holder), radius -> new ArrayList<>()).add(holder);
+		}
+
+		BlockPos spawn = level.getSharedSpawnPos();
+		int nearestDistance = Integer.MAX_VALUE;
+		for (Map.Entry<Integer, List<Holder<Structure>>> entry : byRadius.entrySet()) {
+			Pair<BlockPos, Holder<Structure>> nearest = level.getChunkSource().getGenerator().findNearestMapStructure(level, HolderSet.direct(entry.getValue()), spawn, entry.getKey(), false);
+			if (nearest != null) {
+				BlockPos pos = nearest.getFirst();
+				nearestDistance = Math.min(nearestDistance, (int) Math.sqrt(spawn.distToLowCornerSqr(pos.getX(), spawn.getY(), pos.getZ())));
+			}
+		}
+		if (nearestDistance == Integer.MAX_VALUE) {
+			return new CheckResult(false, "none");
+		}
+		return new CheckResult(nearestDistance <= maxDistance, Integer.toString(nearestDistance));
+	}
+
+	/**
+	 * @return The number of regions around spawn that cover the {@link #maxDistance}, for the smallest spacing of the structure's placements
+	 */
+	private int getSearchRadius(ServerLevel level, Holder<Structure> structure) {
+		int chunks = Math.ceilDiv(maxDistance, 16);
+		int radius = 1;
+		for (StructurePlacement placement : level.getChunkSource().getGeneratorState().getPlacementsForStructure(structure)) {
+			if (placement instanceof RandomSpreadStructurePlacement randomSpread) {
+				radius = Math.max(radius, Math.ceilDiv(chunks, randomSpread.spacing()) + 1);
+			}
+		}
+		return radius;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
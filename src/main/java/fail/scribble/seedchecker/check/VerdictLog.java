@@ -0,0 +1,75 @@
+package fail.scribble.seedchecker.check;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.check.SeedVerifier.NamedResult;
+import fail.scribble.seedchecker.check.SeedVerifier.Verdict;
+import net.minecraft.Util;
+
+/**
+ * Appends the {@link Verdict verdicts} of checked seeds to a csv file, with one row per check
+ *
+ * @author Scribble
+ */
+public class VerdictLog {
+
+	private static final String HEADER = "time,seed,verdict,check,check_passed,value\n";
+
+	private final Path file;
+
+	public VerdictLog(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Appends the verdict on a background thread
+	 * @param verdict The verdict of the checked seed
+	 */
+	public void record(Verdict verdict) {
+		String rows = toRows(verdict);
+		CompletableFuture.runAsync(() -> append(rows), Util.ioPool());
+	}
+
+	private synchronized void append(String rows) {
+		try {
+			if (!Files.exists(file)) {
+				Files.createDirectories(file.getParent());
+				Files.writeString(file, HEADER, StandardCharsets.UTF_8);
+			}
+			Files.writeString(file, rows, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	private static String toRows(Verdict verdict) {
+		String time = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+		StringBuilder builder = new StringBuilder();
+		for (NamedResult result : verdict.results()) {
+			//@formatter:off
+			builder.append(time).append(',')
+				.append(verdict.seed()).append(',')
+				.append(verdict.passed() ? "pass" : "fail").append(',')
+				.append(quote(result.check())).append(',')
+				.append(result.result().passed()).append(',')
+				.append(quote(result.result().value())).append('\n');
+			//@formatter:on
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Quotes a value, as checks can contain commas
+	 */
+	private static String quote(String value) {
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -38,9 +38,10 @@ public abstract class AbstractDataFile {
 	protected final String comment;
 
 	/**
-	 * The properties of this data file.
+	 * The properties of this data file.<br>
+	 * Only ever replaced as a whole after a file was read successfully, so other threads never see a partially loaded file
 	 */
-	protected Properties properties;
+	protected volatile Properties properties;
 
 	/**
 	 * Creates an abstract data file and creates it's directory if it doesn't exist
@@ -231,7 +232,18 @@ public abstract class AbstractDataFile {
 			return;
 		}
 
-		properties = json.fromJson(in, Properties.class);
+		Properties newProp;
+		try {
+			newProp = json.fromJson(in, Properties.class);
+		} catch (JsonParseException | IllegalStateException e) {
+			MCTCommon.LOGGER.error("The {} file could not be read, keeping the previous values: {}", name, e.getMessage());
+			return;
+		}
+		if (newProp == null) {
+			MCTCommon.LOGGER.error("The {} file is empty, keeping the previous values", name);
+			return;
+		}
+		properties = newProp;
 	}
 
 	protected String readFile(Path file) throws IOException {
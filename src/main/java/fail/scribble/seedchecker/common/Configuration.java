@@ -40,12 +40,11 @@ public class Configuration extends AbstractDataFile {
 			}
 
 			loadFromJson(file);
+			return;
 		}
 
-		if (properties == null || !Files.exists(file)) {
-			properties = generateDefault();
-			saveToJson();
-		}
+		properties = generateDefault();
+		saveToJson();
 	}
 
 	@Override
@@ -0,0 +1,21 @@
+package fail.scribble.seedchecker.mixin;
+
+import java.util.Map;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.storage.LevelStorageSource.LevelStorageAccess;
+
+@Mixin(MinecraftServer.class)
+public interface AccessorMinecraftServer {
+	@Accessor
+	public Map<ResourceKey<Level>, ServerLevel> getLevels();
+
+	@Accessor
+	public LevelStorageAccess getStorageSource();
+}
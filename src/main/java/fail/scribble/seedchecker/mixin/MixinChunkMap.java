@@ -0,0 +1,31 @@
+package fail.scribble.seedchecker.mixin;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.worldgen.BatchLevel;
+import net.minecraft.server.level.ChunkMap;
+import net.minecraft.server.level.ServerLevel;
+
+/**
+ * Skips saving the chunks when the level is closed, while the world is {@link SeedChecker#skipSaving discarded} or if the level is a {@link BatchLevel}
+ */
+@Mixin(ChunkMap.class)
+public class MixinChunkMap {
+
+	@Shadow
+	@Final
+	ServerLevel level;
+
+	@Inject(method = "saveAllChunks", at = @At(value = "HEAD"), cancellable = true)
+	public void inject_saveAllChunks(boolean flush, CallbackInfo ci) {
+		if (SeedChecker.skipSaving || BatchLevel.isBatchLevel(level.dimension())) {
+			ci.cancel();
+		}
+	}
+}
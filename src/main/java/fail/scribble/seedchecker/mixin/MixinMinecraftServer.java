@@ -0,0 +1,23 @@
+package fail.scribble.seedchecker.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Skips saving the levels and level.dat while the world is {@link SeedChecker#skipSaving discarded}
+ */
+@Mixin(MinecraftServer.class)
+public class MixinMinecraftServer {
+
+	@Inject(method = "saveAllChunks", at = @At(value = "HEAD"), cancellable = true)
+	public void inject_saveAllChunks(boolean suppressLog, boolean flush, boolean force, CallbackInfoReturnable<Boolean> cir) {
+		if (SeedChecker.skipSaving) {
+			cir.setReturnValue(true);
+		}
+	}
+}
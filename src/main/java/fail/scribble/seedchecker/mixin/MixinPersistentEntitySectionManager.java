@@ -0,0 +1,23 @@
+package fail.scribble.seedchecker.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.world.level.entity.PersistentEntitySectionManager;
+
+/**
+ * Skips saving the entities when the level is closed, while the world is {@link SeedChecker#skipSaving discarded}
+ */
+@Mixin(PersistentEntitySectionManager.class)
+public class MixinPersistentEntitySectionManager {
+
+	@Inject(method = "saveAll", at = @At(value = "HEAD"), cancellable = true)
+	public void inject_saveAll(CallbackInfo ci) {
+		if (SeedChecker.skipSaving) {
+			ci.cancel();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package fail.scribble.seedchecker.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.players.PlayerList;
+
+/**
+ * Skips saving the player data, while the world is {@link SeedChecker#skipSaving discarded}
+ */
+@Mixin(PlayerList.class)
+public class MixinPlayerList {
+
+	@Inject(method = "saveAll", at = @At(value = "HEAD"), cancellable = true)
+	public void inject_saveAll(CallbackInfo ci) {
+		if (SeedChecker.skipSaving) {
+			ci.cancel();
+		}
+	}
+
+	@Inject(method = "save", at = @At(value = "HEAD"), cancellable = true)
+	public void inject_save(ServerPlayer player, CallbackInfo ci) {
+		if (SeedChecker.skipSaving) {
+			ci.cancel();
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package fail.scribble.seedchecker.mixin;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+import fail.scribble.seedchecker.worldgen.BatchLevel;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.levelgen.WorldOptions;
+
+/**
+ * Uses the seed of a {@link BatchLevel} instead of the seed of the world, while the level is created and whenever the generation asks for the seed
+ */
+@Mixin(ServerLevel.class)
+public class MixinServerLevel {
+
+	@Redirect(method = { "<init>", "getSeed" }, at = @At(value = "INVOKE", target = "Lnet/minecraft/world/level/levelgen/WorldOptions;seed()J"))
+	public long redirect_seed(WorldOptions options) {
+		return BatchLevel.getSeed(((ServerLevel) (Object) this).dimension(), options.seed());
+	}
+}
@@ -6,6 +6,7 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.SeedPreviewScreen;
 import net.minecraft.client.gui.components.Button;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.gui.screens.TitleScreen;
@@ -23,5 +24,8 @@ public class MixinTitleScreen extends Screen {
 		this.addRenderableWidget(Button.builder(Component.literal("Open seed file"), button -> {
 			SeedChecker.openFile();
 		}).build());
+		this.addRenderableWidget(Button.builder(Component.literal("Preview seeds"), button -> {
+			this.minecraft.setScreen(new SeedPreviewScreen(this));
+		}).pos(150, 0).build());
 	}
 }
@@ -0,0 +1,78 @@
+package fail.scribble.seedchecker.prescreen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A check that only depends on the arithmetic of the seed, so it can be evaluated for millions of seeds per second without any world generation.
+ * <p>
+ * Prescreens are evaluated in bulk by the {@link PrescreenEngine} when seeds are polled from the seed list, seeds that fail are skipped.
+ *
+ * @author Scribble
+ */
+public interface Prescreen {
+
+	/**
+	 * @param seed The world seed
+	 * @return Whether the seed passes
+	 */
+	public boolean test(long seed);
+
+	/**
+	 * @return The string this prescreen was parsed from
+	 */
+	public String getName();
+
+	/**
+	 * Parses a list of prescreens separated by <code>;</code>. Empty entries are ignored
+	 * @param value The list of prescreens
+	 * @return The parsed prescreens
+	 * @throws IllegalArgumentException If a prescreen is invalid
+	 */
+	public static List<Prescreen> parseList(String value) {
+		List<Prescreen> out = new ArrayList<>();
+		for (String entry : value.split(";")) {
+			if (!entry.isBlank()) {
+				out.add(parse(entry.trim()));
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * @param value A single prescreen
+	 * @return The parsed prescreen
+	 * @throws IllegalArgumentException If the prescreen is invalid
+	 */
+	public static Prescreen parse(String value) {
+		String[] args = value.split("\\s+");
+		try {
+			switch (args[0]) {
+				case "slime_chunk":
+					expectArgs(value, args, 3);
+					return new SlimeChunkPrescreen(value, Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+				case "structure_region":
+					expectArgs(value, args, 7);
+					//@formatter:off
+					return new RegionPrescreen(value,
+							Integer.parseInt(args[1]),
+							Integer.parseInt(args[2]),
+							Integer.parseInt(args[3]),
+							Integer.parseInt(args[4]),
+							Integer.parseInt(args[5]),
+							Integer.parseInt(args[6]));
+					//@formatter:on
+				default:
+					throw new IllegalArgumentException(String.format("Unknown prescreen %s", value));
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(String.format("Invalid number in prescreen %s", value), e);
+		}
+	}
+
+	private static void expectArgs(String value, String[] args, int count) {
+		if (args.length != count) {
+			throw new IllegalArgumentException(String.format("Prescreen %s needs %s arguments", value, count - 1));
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package fail.scribble.seedchecker.prescreen;
+
+import java.util.List;
+
+import fail.scribble.seedchecker.SeedChecker;
+
+/**
+ * Evaluates a list of {@link Prescreen}s over batches of seeds, one seed after another.
+ * <p>
+ * {@link #create(List)} returns the <code>VectorPrescreenEngine</code> instead, if the <code>jdk.incubator.vector</code> module was added to the JVM with
+ * <code>--add-modules jdk.incubator.vector</code>. Both engines return the same results.<br>
+ * The vector engine is compiled in its own source set, so only that source set needs the incubator module, and it is loaded by name.
+ *
+ * @author Scribble
+ */
+public class PrescreenEngine {
+
+	/**
+	 * The number of seeds that are taken from the seed list at once
+	 */
+	public static final int BATCH_SIZE = 4096;
+
+	private static final String VECTOR_MODULE = "jdk.incubator.vector";
+	private static final String VECTOR_ENGINE = "fail.scribble.seedchecker.prescreen.VectorPrescreenEngine";
+
+	protected final List<Prescreen> prescreens;
+
+	public PrescreenEngine(List<Prescreen> prescreens) {
+		this.prescreens = List.copyOf(prescreens);
+	}
+
+	/**
+	 * @param prescreens The prescreens a seed has to pass
+	 * @return The vector engine if the Vector API is available, otherwise the scalar engine
+	 */
+	public static PrescreenEngine create(List<Prescreen> prescreens) {
+		if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+			try {
+				PrescreenEngine engine = Class.forName(VECTOR_ENGINE).asSubclass(PrescreenEngine.class).getConstructor(List.class).newInstance(prescreens);
+				SeedChecker.LOGGER.info("Prescreening seeds with the Vector API, %s seeds at a time", engine.lanes());
+				return engine;
+			} catch (ReflectiveOperationException | LinkageError e) {
+				SeedChecker.LOGGER.warn("Could not load the Vector API, prescreening seeds one at a time");
+				SeedChecker.LOGGER.catching(e);
+			}
+		} else {
+			SeedChecker.LOGGER.info("Prescreening seeds one at a time. Add the JVM argument --add-modules %s to use the Vector API", VECTOR_MODULE);
+		}
+		return new PrescreenEngine(prescreens);
+	}
+
+	/**
+	 * @return The number of seeds that are evaluated at once
+	 */
+	public int lanes() {
+		return 1;
+	}
+
+	/**
+	 * @param seeds The batch of seeds
+	 * @param from The index of the first seed that is screened
+	 * @param to The index after the last seed that is screened
+	 * @return The index of the first seed that passes all prescreens, or -1 if no seed passes
+	 */
+	public int firstPassing(long[] seeds, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (test(seeds[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param seed The seed
+	 * @return Whether the seed passes all prescreens
+	 */
+	public boolean test(long seed) {
+		for (Prescreen prescreen : prescreens) {
+			if (!prescreen.test(seed)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public List<Prescreen> getPrescreens() {
+		return prescreens;
+	}
+}
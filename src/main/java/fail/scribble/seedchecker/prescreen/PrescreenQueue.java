@@ -0,0 +1,240 @@
+package fail.scribble.seedchecker.prescreen;
+
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.seedlist.LongSeedQueue;
+import fail.scribble.seedchecker.seedlist.SeedQueue;
+
+/**
+ * Screens a seed queue ahead of its first seed on a background thread, and collects the seeds that pass the {@link Prescreen}s in their own queue.
+ * <p>
+ * The source queue is only read, seeds are removed from it by the owner once a survivor is {@link #poll() polled}.
+ * Every survivor remembers its position in the source, counted from the start of the seed list, so the owner knows how many seeds in front of it failed.<br>
+ * The worker stops once {@link #TARGET_SURVIVORS} survivors are waiting, and continues when they are polled.
+ * <p>
+ * All state is guarded by the lock of the owner, which is also held while the source queue is changed.
+ * If the source changes other than by polling, the owner has to call {@link #reset()}.
+ *
+ * @author Scribble
+ */
+public class PrescreenQueue {
+
+	/**
+	 * The number of survivors that are collected ahead of the first seed
+	 */
+	private static final int TARGET_SURVIVORS = 256;
+
+	/**
+	 * The time the worker waits before looking for new seeds, after it reached the end of the source
+	 */
+	private static final long IDLE_WAIT = 1000;
+
+	private final Object lock;
+	private final SeedQueue source;
+
+	/**
+	 * The position of the first seed in the source
+	 */
+	private final LongSupplier head;
+
+	private final LongSeedQueue survivors = new LongSeedQueue();
+
+	/**
+	 * The positions of the {@link #survivors}, in the same order
+	 */
+	private final LongSeedQueue positions = new LongSeedQueue();
+
+	/**
+	 * The prescreens the engine was created from, empty if screening is disabled
+	 */
+	private List<Prescreen> prescreens = List.of();
+	private PrescreenEngine engine;
+
+	/**
+	 * The position of the first seed that was not screened yet
+	 */
+	private long frontier;
+
+	/**
+	 * Incremented on every reset, so a batch that was screened before is dropped
+	 */
+	private int epoch;
+
+	/**
+	 * Whether the worker screened every seed in the source
+	 */
+	private boolean exhausted;
+
+	private Thread thread;
+	private boolean stopped;
+
+	/**
+	 * @param lock The lock that guards the source
+	 * @param source The queue that is screened
+	 * @param head The position of the first seed in the source, only called while holding the lock
+	 */
+	public PrescreenQueue(Object lock, SeedQueue source, LongSupplier head) {
+		this.lock = lock;
+		this.source = source;
+		this.head = head;
+	}
+
+	/**
+	 * Changes the prescreens, dropping all survivors if they are different. Has to be called while holding the lock
+	 * @param prescreens The prescreens, empty to disable screening
+	 */
+	public void configure(List<Prescreen> prescreens) {
+		if (this.prescreens.equals(prescreens)) {
+			return;
+		}
+		this.prescreens = prescreens;
+		engine = prescreens.isEmpty() ? null : PrescreenEngine.create(prescreens);
+		reset();
+		if (engine != null && thread == null && !stopped) {
+			thread = new Thread(this::run, "SeedChecker Prescreen");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * @return Whether seeds are screened. Has to be called while holding the lock
+	 */
+	public boolean isEnabled() {
+		return engine != null;
+	}
+
+	/**
+	 * @return Whether there are seeds in the source that were not screened yet. Has to be called while holding the lock
+	 */
+	public boolean isScreening() {
+		return engine != null && !exhausted;
+	}
+
+	/**
+	 * Drops all survivors and screens the source again from its first seed. Has to be called while holding the lock
+	 */
+	public void reset() {
+		survivors.clear();
+		positions.clear();
+		frontier = head.getAsLong();
+		exhausted = false;
+		epoch++;
+		lock.notifyAll();
+	}
+
+	/**
+	 * @return The survivors that were not polled yet, only to be read
+	 */
+	public SeedQueue getSurvivors() {
+		return survivors;
+	}
+
+	/**
+	 * Removes the first survivor. Has to be called while holding the lock
+	 * @return The first survivor, or null if no survivor is waiting
+	 */
+	public Survivor poll() {
+		if (survivors.isEmpty()) {
+			return null;
+		}
+		Survivor survivor = new Survivor(survivors.poll().getAsLong(), positions.poll().getAsLong());
+		lock.notifyAll();
+		return survivor;
+	}
+
+	/**
+	 * Stops the worker
+	 */
+	public void stop() {
+		synchronized (lock) {
+			stopped = true;
+			lock.notifyAll();
+		}
+	}
+
+	private void run() {
+		long[] batch = new long[PrescreenEngine.BATCH_SIZE];
+		Batch next;
+		while ((next = nextBatch(batch)) != null) {
+			LongSeedQueue passed = new LongSeedQueue();
+			int index = -1;
+			try {
+				while ((index = next.engine().firstPassing(batch, index + 1, next.length())) != -1) {
+					passed.add(index);
+				}
+			} catch (RuntimeException e) {
+				SeedChecker.LOGGER.error("Failed to prescreen seeds, seeds are no longer screened until the prescreens change");
+				SeedChecker.LOGGER.catching(e);
+				synchronized (lock) {
+					engine = null;
+					reset();
+				}
+				continue;
+			}
+			synchronized (lock) {
+				if (epoch != next.epoch()) {
+					continue;
+				}
+				for (long passedIndex : passed.toArray()) {
+					survivors.add(batch[(int) passedIndex]);
+					positions.add(next.start() + passedIndex);
+				}
+				frontier = next.start() + next.length();
+			}
+		}
+	}
+
+	/**
+	 * Waits until more survivors are needed and copies the next seeds from the source
+	 * @return The copied batch, or null if the worker is stopped
+	 */
+	private Batch nextBatch(long[] batch) {
+		synchronized (lock) {
+			try {
+				while (!stopped) {
+					if (engine == null || survivors.size() >= TARGET_SURVIVORS) {
+						lock.wait();
+						continue;
+					}
+					long offset = frontier - head.getAsLong();
+					if (offset < 0) {
+						// Seeds were removed that were not screened yet
+						reset();
+						continue;
+					}
+					int length = source.peek(batch, offset);
+					if (length == 0) {
+						exhausted = true;
+						lock.wait(IDLE_WAIT);
+						continue;
+					}
+					exhausted = false;
+					return new Batch(epoch, engine, frontier, length);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * A seed that passed all prescreens
+	 * @param seed The seed
+	 * @param position The position of the seed in the source, counted from the start of the seed list
+	 */
+	public static record Survivor(long seed, long position) {
+	}
+
+	/**
+	 * @param epoch The epoch the batch was copied in
+	 * @param engine The engine to screen the batch with
+	 * @param start The position of the first seed of the batch
+	 * @param length The number of seeds in the batch
+	 */
+	private static record Batch(int epoch, PrescreenEngine engine, long start, int length) {
+	}
+}
@@ -0,0 +1,87 @@
+package fail.scribble.seedchecker.prescreen;
+
+import java.util.Objects;
+
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadType;
+
+/**
+ * Passes seeds where the structure attempt of a region is close to the corner of the region, as computed by a {@link RandomSpreadStructurePlacement}
+ * with a linear spread.
+ * <p>
+ * This only checks the position of the attempt. Whether the structure actually generates there depends on the biome and the terrain
+ * @param name The string this prescreen was parsed from
+ * @param salt The salt of the structure set, e.g. 10387312 for villages
+ * @param spacing The size of a region in chunks
+ * @param separation The minimum distance in chunks between attempts of neighbouring regions
+ * @param regionX The x coordinate of the region
+ * @param regionZ The z coordinate of the region
+ * @param maxOffset The maximum offset in chunks of the attempt from the corner of the region, on both axes
+ * @param placement The placement that computes the attempt, created once from the other values
+ *
+ * @author Scribble
+ */
+public record RegionPrescreen(String name, int salt, int spacing, int separation, int regionX, int regionZ, int maxOffset, RandomSpreadStructurePlacement placement) implements Prescreen {
+
+	public RegionPrescreen(String name, int salt, int spacing, int separation, int regionX, int regionZ, int maxOffset) {
+		this(name, salt, spacing, separation, regionX, regionZ, maxOffset, createPlacement(name, salt, spacing, separation, maxOffset));
+	}
+
+	private static RandomSpreadStructurePlacement createPlacement(String name, int salt, int spacing, int separation, int maxOffset) {
+		if (spacing <= separation || separation < 0) {
+			throw new IllegalArgumentException(String.format("The spacing has to be larger than the separation in prescreen %s", name));
+		}
+		if (maxOffset < 0) {
+			throw new IllegalArgumentException(String.format("The offset can not be negative in prescreen %s", name));
+		}
+		return new RandomSpreadStructurePlacement(spacing, separation, RandomSpreadType.LINEAR, salt);
+	}
+
+	@Override
+	public boolean test(long seed) {
+		ChunkPos chunk = placement.getPotentialStructureChunk(seed, regionX * spacing, regionZ * spacing);
+		return chunk.x - regionX * spacing <= maxOffset && chunk.z - regionZ * spacing <= maxOffset;
+	}
+
+	/**
+	 * @return The value that {@link net.minecraft.world.level.levelgen.WorldgenRandom#setLargeFeatureWithSalt(long, int, int, int)} adds to the seed
+	 */
+	public long addend() {
+		return regionX * 341873128712L + regionZ * 132897987541L + salt;
+	}
+
+	/**
+	 * @return The bound of the random offset in chunks
+	 */
+	public int bound() {
+		return spacing - separation;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Compares the parsed values, as the placement does not implement equals
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		//@formatter:off
+		return obj instanceof RegionPrescreen other
+				&& name.equals(other.name)
+				&& salt == other.salt
+				&& spacing == other.spacing
+				&& separation == other.separation
+				&& regionX == other.regionX
+				&& regionZ == other.regionZ
+				&& maxOffset == other.maxOffset;
+		//@formatter:on
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, salt, spacing, separation, regionX, regionZ, maxOffset);
+	}
+}
@@ -0,0 +1,36 @@
+package fail.scribble.seedchecker.prescreen;
+
+import net.minecraft.world.level.levelgen.WorldgenRandom;
+
+/**
+ * Passes seeds where slimes can spawn in a chunk, regardless of the biome
+ * @param name The string this prescreen was parsed from
+ * @param chunkX The x coordinate of the chunk
+ * @param chunkZ The z coordinate of the chunk
+ *
+ * @author Scribble
+ */
+public record SlimeChunkPrescreen(String name, int chunkX, int chunkZ) implements Prescreen {
+
+	/**
+	 * The salt of slime chunks in {@link net.minecraft.world.entity.monster.Slime#checkSlimeSpawnRules}
+	 */
+	public static final long SALT = 987234911L;
+
+	@Override
+	public boolean test(long seed) {
+		return WorldgenRandom.seedSlimeChunk(chunkX, chunkZ, seed, SALT).nextInt(10) == 0;
+	}
+
+	/**
+	 * @return The value that {@link WorldgenRandom#seedSlimeChunk(int, int, long, long)} adds to the seed, before it is xored with the {@link #SALT}
+	 */
+	public long addend() {
+		return (long) (chunkX * chunkX * 4987142) + (long) (chunkX * 5947611) + (long) (chunkZ * chunkZ) * 4392871L + (long) (chunkZ * 389711);
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+}
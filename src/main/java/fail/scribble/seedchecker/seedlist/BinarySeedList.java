@@ -0,0 +1,367 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import fail.scribble.seedchecker.SeedChecker;
+
+/**
+ * A seed list stored as packed little endian longs, read through memory mapped buffers without parsing.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes:
+ * <pre>
+ * 8 bytes  magic "SCSEEDS1"
+ * 4 bytes  flags, {@link #FLAG_COMPRESSED}
+ * 4 bytes  seeds per block, if compressed
+ * 8 bytes  number of seeds
+ * 8 bytes  position of the block index, if compressed
+ * </pre>
+ * Uncompressed seeds follow directly after the header.<br>
+ * Compressed seeds are stored in blocks. Every block stores the difference to the previous seed, compressed with deflate,
+ * so seeds from ranges or sorted lists shrink to a fraction. Blocks that don't get smaller are stored as they are.
+ * The block index at the end of the file stores the position of every block.
+ *
+ * @author Scribble
+ */
+public class BinarySeedList {
+
+	public static final long MAGIC = 0x3153_4445_4553_4353L;
+	public static final int HEADER_SIZE = 32;
+	public static final int FLAG_COMPRESSED = 1;
+
+	private static final int BLOCK_SEEDS = 64 * 1024;
+
+	/**
+	 * The number of longs in one mapped chunk, as a single mapping is limited to 2 GB
+	 */
+	private static final int CHUNK_SHIFT = 27;
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	private final FileChannel channel;
+	private final long count;
+	private final boolean compressed;
+
+	/**
+	 * The mapped seeds, if uncompressed
+	 */
+	private final LongBuffer[] chunks;
+
+	/**
+	 * The positions of the blocks, if compressed
+	 */
+	private final long[] blockPositions;
+	private final int blockSeeds;
+
+	/**
+	 * The last decompressed block
+	 */
+	private long[] cachedBlock;
+	private int cachedBlockIndex = -1;
+
+	private BinarySeedList(FileChannel channel, long count, boolean compressed, LongBuffer[] chunks, long[] blockPositions, int blockSeeds) {
+		this.channel = channel;
+		this.count = count;
+		this.compressed = compressed;
+		this.chunks = chunks;
+		this.blockPositions = blockPositions;
+		this.blockSeeds = blockSeeds;
+	}
+
+	/**
+	 * Opens a binary seed list. Only the header and the block index are read, the seeds are read once they are accessed
+	 * @param file The binary seed list
+	 * @return The opened seed list
+	 * @throws IOException If the file could not be read or is not a binary seed list
+	 */
+	public static BinarySeedList open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+			if (header.getLong() != MAGIC) {
+				throw new IOException(file + " is not a binary seed list");
+			}
+			int flags = header.getInt();
+			int blockSeeds = header.getInt();
+			long count = header.getLong();
+			long indexPosition = header.getLong();
+
+			if ((flags & FLAG_COMPRESSED) == 0) {
+				if (channel.size() < HEADER_SIZE + count * Long.BYTES) {
+					throw new IOException(file + " is shorter than its header");
+				}
+				int chunkCount = (int) ((count + CHUNK_MASK) >>> CHUNK_SHIFT);
+				LongBuffer[] chunks = new LongBuffer[chunkCount];
+				for (int i = 0; i < chunkCount; i++) {
+					long first = (long) i << CHUNK_SHIFT;
+					long length = Math.min(count - first, 1L << CHUNK_SHIFT);
+					chunks[i] = channel.map(MapMode.READ_ONLY, HEADER_SIZE + first * Long.BYTES, length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				}
+				channel.close();
+				return new BinarySeedList(null, count, false, chunks, null, 0);
+			}
+
+			int blockCount = (int) ((count + blockSeeds - 1) / blockSeeds);
+			LongBuffer index = readFully(channel, indexPosition, blockCount * Long.BYTES).asLongBuffer();
+			long[] blockPositions = new long[blockCount];
+			index.get(blockPositions);
+			return new BinarySeedList(channel, count, true, null, blockPositions, blockSeeds);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return The number of seeds in the list
+	 */
+	public long size() {
+		return count;
+	}
+
+	public boolean isCompressed() {
+		return compressed;
+	}
+
+	/**
+	 * @param index The index of the seed
+	 * @return The seed
+	 * @throws IOException If a compressed block could not be read
+	 */
+	public synchronized long get(long index) throws IOException {
+		if (!compressed) {
+			return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+		}
+		int block = (int) (index / blockSeeds);
+		if (block != cachedBlockIndex) {
+			cachedBlock = readBlock(block);
+			cachedBlockIndex = block;
+		}
+		return cachedBlock[(int) (index % blockSeeds)];
+	}
+
+	private long[] readBlock(int block) throws IOException {
+		ByteBuffer blockHeader = readFully(channel, blockPositions[block], 8);
+		int length = blockHeader.getInt();
+		int seedCount = blockHeader.getInt();
+		ByteBuffer data = readFully(channel, blockPositions[block] + 8, length);
+
+		byte[] raw = new byte[seedCount * Long.BYTES];
+		if (length == raw.length) {
+			data.get(raw);
+		} else {
+			Inflater inflater = new Inflater();
+			try {
+				inflater.setInput(data);
+				int inflated = 0;
+				while (inflated < raw.length && !inflater.finished()) {
+					inflated += inflater.inflate(raw, inflated, raw.length - inflated);
+					if (inflater.needsInput() && inflated < raw.length) {
+						throw new IOException("Compressed block " + block + " is truncated");
+					}
+				}
+			} catch (DataFormatException e) {
+				throw new IOException("Compressed block " + block + " is invalid", e);
+			} finally {
+				inflater.end();
+			}
+		}
+
+		LongBuffer deltas = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		long[] seeds = new long[seedCount];
+		long previous = 0;
+		for (int i = 0; i < seedCount; i++) {
+			previous += deltas.get(i);
+			seeds[i] = previous;
+		}
+		return seeds;
+	}
+
+	/**
+	 * Closes the file of a compressed seed list. Mapped seeds stay readable until they are garbage collected
+	 */
+	public void close() {
+		if (channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * Appends seeds to an uncompressed binary seed list and updates the number of seeds in the header
+	 * @param file The binary seed list
+	 * @param seeds The array containing the seeds
+	 * @param offset The index of the first seed in the array
+	 * @param length The number of seeds to append
+	 * @throws IOException If the file could not be written or is compressed
+	 */
+	public static void append(Path file, long[] seeds, int offset, int length) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+			if (header.getLong() != MAGIC || (header.getInt() & FLAG_COMPRESSED) != 0) {
+				throw new IOException("Seeds can only be appended to uncompressed binary seed lists");
+			}
+			long count = header.getLong(16);
+
+			ByteBuffer data = ByteBuffer.allocate(length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			data.asLongBuffer().put(seeds, offset, length);
+			writeFully(channel, HEADER_SIZE + count * Long.BYTES, data);
+
+			ByteBuffer newCount = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(count + length).flip();
+			writeFully(channel, 16, newCount);
+			channel.force(false);
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) == -1) {
+				throw new IOException("Unexpected end of the binary seed list");
+			}
+		}
+		return buffer.flip();
+	}
+
+	private static void writeFully(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+	/**
+	 * Writes a new binary seed list, one seed at a time
+	 */
+	public static class Writer implements Closeable {
+
+		private final FileChannel channel;
+		private final boolean compressed;
+		private long count;
+		private long position = HEADER_SIZE;
+
+		private final ByteBuffer buffer;
+		private final long[] block;
+		private int blockSize;
+		private final Deflater deflater;
+		private long[] blockPositions = new long[16];
+		private int blockCount;
+
+		/**
+		 * @param file The file to write, replaced if it exists
+		 * @param compressed Whether the seeds are compressed in blocks
+		 * @throws IOException If the file could not be opened
+		 */
+		public Writer(Path file, boolean compressed) throws IOException {
+			this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			this.compressed = compressed;
+			this.buffer = ByteBuffer.allocate(BLOCK_SEEDS * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			this.block = compressed ? new long[BLOCK_SEEDS] : null;
+			this.deflater = compressed ? new Deflater(Deflater.BEST_SPEED) : null;
+		}
+
+		public void add(long seed) throws IOException {
+			count++;
+			if (compressed) {
+				block[blockSize++] = seed;
+				if (blockSize == BLOCK_SEEDS) {
+					writeBlock();
+				}
+				return;
+			}
+			buffer.putLong(seed);
+			if (!buffer.hasRemaining()) {
+				flushBuffer();
+			}
+		}
+
+		private void flushBuffer() throws IOException {
+			buffer.flip();
+			writeFully(channel, position, buffer);
+			position += buffer.limit();
+			buffer.clear();
+		}
+
+		private void writeBlock() throws IOException {
+			if (blockSize == 0) {
+				return;
+			}
+			long previous = 0;
+			for (int i = 0; i < blockSize; i++) {
+				buffer.putLong(block[i] - previous);
+				previous = block[i];
+			}
+			buffer.flip();
+
+			byte[] compressedData = new byte[buffer.limit() + 64];
+			deflater.reset();
+			deflater.setInput(buffer.array(), 0, buffer.limit());
+			deflater.finish();
+			int length = 0;
+			while (!deflater.finished() && length < compressedData.length) {
+				length += deflater.deflate(compressedData, length, compressedData.length - length);
+			}
+			ByteBuffer data = deflater.finished() && length < buffer.limit() ? ByteBuffer.wrap(compressedData, 0, length) : buffer;
+
+			if (blockCount == blockPositions.length) {
+				blockPositions = Arrays.copyOf(blockPositions, blockCount * 2);
+			}
+			blockPositions[blockCount++] = position;
+
+			ByteBuffer blockHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(data.remaining()).putInt(blockSize).flip();
+			writeFully(channel, position, blockHeader);
+			position += 8;
+			int dataLength = data.remaining();
+			writeFully(channel, position, data);
+			position += dataLength;
+
+			buffer.clear();
+			blockSize = 0;
+		}
+
+		/**
+		 * Writes the remaining seeds, the block index and the header
+		 */
+		@Override
+		public void close() throws IOException {
+			try {
+				long indexPosition = 0;
+				if (compressed) {
+					writeBlock();
+					indexPosition = position;
+					ByteBuffer index = ByteBuffer.allocate(blockCount * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+					index.asLongBuffer().put(blockPositions, 0, blockCount);
+					writeFully(channel, position, index);
+					deflater.end();
+				} else {
+					flushBuffer();
+				}
+
+				// The header is written last, so an interrupted write is never mistaken for a valid seed list
+				ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				header.putLong(MAGIC).putInt(compressed ? FLAG_COMPRESSED : 0).putInt(compressed ? BLOCK_SEEDS : 0).putLong(count).putLong(indexPosition).flip();
+				writeFully(channel, 0, header);
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		}
+
+		public long getCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,688 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import fail.scribble.seedchecker.SeedChecker;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+/**
+ * A persistent set of seeds that were already checked, so seeds that appear in multiple seed lists are only loaded once.
+ * <p>
+ * Merged seeds are stored in runs, each a sorted long array in <code>checked-&lt;first&gt;-&lt;last&gt;.idx</code>, with a bloom filter in
+ * <code>checked-&lt;first&gt;-&lt;last&gt;.bloom</code> in front of it. Both files are memory mapped, so only the pages that are touched are resident.
+ * Most seeds were never checked and are rejected by the bloom filters, without reading the sorted arrays at all.
+ * <p>
+ * New seeds are kept in memory and appended to <code>checked.log</code>, which is replayed on startup.
+ * Once {@link #MERGE_THRESHOLD} new seeds are collected, they are written as a new run on a background thread.<br>
+ * The new run is merged with the newest runs that are at most {@link #TIER_FACTOR} times as large, so the runs grow in size tiers
+ * and every seed is only rewritten a logarithmic number of times.
+ * <p>
+ * Every merge writes new files instead of changing the mapped ones, as mapped files can't be replaced on every platform.
+ * The file names contain the range of merges a run covers, runs covered by a newer run are deleted once they are no longer mapped, at the latest on the next start.
+ * <p>
+ * Only one game instance can write the index at a time. Other instances read the merged seeds, but only remember the seeds they checked themselves until they are closed.
+ *
+ * @author Scribble
+ */
+public class CheckedSeedIndex {
+
+	private static final long MAGIC = 0x5343_4944_5831_0001L;
+	private static final int HEADER_SIZE = 16;
+
+	/**
+	 * The number of new seeds that are kept in memory, before they are merged into the sorted array
+	 */
+	private static final int MERGE_THRESHOLD = 1 << 20;
+
+	/**
+	 * A run is merged with the new seeds, if it has at most this many times the seeds
+	 */
+	private static final int TIER_FACTOR = 2;
+
+	/**
+	 * The number of longs in one mapped chunk of the sorted array, as a single mapping is limited to 2 GB
+	 */
+	private static final int CHUNK_SHIFT = 27;
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	private static final int BLOOM_HASHES = 7;
+	private static final int BLOOM_BITS_PER_SEED = 10;
+	private static final long MIN_BLOOM_BYTES = 1L << 20;
+	private static final long MAX_BLOOM_BYTES = 1L << 30;
+
+	/**
+	 * Matches the files of a run. Runs of older versions only contain a single number
+	 */
+	private static final Pattern RUN_FILE = Pattern.compile("checked-(\\d+)(?:-(\\d+))?\\.(idx|bloom)");
+
+	private final Path directory;
+	private final Path logFile;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SeedChecker Seed Index");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	/**
+	 * The merged seeds, the newest run last. Replaced as a whole after every merge
+	 */
+	private volatile List<Run> runs = List.of();
+
+	/**
+	 * The seeds that were added since the last merge
+	 */
+	private final LongOpenHashSet pending = new LongOpenHashSet();
+
+	/**
+	 * Holds the lock, that makes sure only one game instance writes the index
+	 */
+	private FileChannel lockChannel;
+
+	private FileChannel log;
+	private final ByteBuffer logBuffer = ByteBuffer.allocate(Long.BYTES);
+	private boolean merging;
+
+	/**
+	 * Opens the index and replays the seeds that were not merged yet
+	 * @param directory The directory containing the index files
+	 */
+	public CheckedSeedIndex(Path directory) {
+		this.directory = directory;
+		this.logFile = directory.resolve("checked.log");
+		try {
+			Files.createDirectories(directory);
+			lockChannel = FileChannel.open(directory.resolve("checked.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+			if (lockChannel.tryLock() == null) {
+				// Another instance writes the index, the merged seeds are only read
+				SeedChecker.LOGGER.warn("The checked seed index is used by another instance, seeds checked by this instance are not stored");
+				runs = openRuns(false);
+				return;
+			}
+			runs = openRuns(true);
+			replayLog();
+			synchronized (pending) {
+				log = openLog();
+				scheduleMerge();
+			}
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not open the checked seed index, already checked seeds will not be skipped");
+			SeedChecker.LOGGER.catching(e);
+		}
+		SeedChecker.LOGGER.info("Opened the checked seed index with %s seeds", size());
+	}
+
+	/**
+	 * @param seed The seed
+	 * @return Whether the seed was already checked
+	 */
+	public boolean contains(long seed) {
+		synchronized (pending) {
+			return pending.contains(seed) || containsMerged(seed);
+		}
+	}
+
+	/**
+	 * Marks a seed as checked
+	 * @param seed The seed
+	 * @return True if the seed was not checked before
+	 */
+	public boolean add(long seed) {
+		synchronized (pending) {
+			if (containsMerged(seed) || !pending.add(seed)) {
+				return false;
+			}
+			if (log != null) {
+				try {
+					logBuffer.clear();
+					logBuffer.putLong(seed).flip();
+					log.write(logBuffer);
+				} catch (IOException e) {
+					SeedChecker.LOGGER.catching(e);
+				}
+			}
+			scheduleMerge();
+		}
+		return true;
+	}
+
+	/**
+	 * @return The number of checked seeds
+	 */
+	public long size() {
+		synchronized (pending) {
+			long count = pending.size();
+			for (Run run : runs) {
+				count += run.count;
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Writes the seeds that were not merged yet to disk and waits until they are written
+	 */
+	public void flush() {
+		FileChannel channel;
+		synchronized (pending) {
+			channel = log;
+		}
+		if (channel == null) {
+			return;
+		}
+		// Forced outside of the lock, so adding seeds doesn't wait for the disk
+		try {
+			channel.force(false);
+		} catch (ClosedChannelException e) {
+			// The log was replaced by a merge, the next flush forces the new log
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	private boolean containsMerged(long seed) {
+		for (Run run : runs) {
+			if (run.contains(seed)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Starts a merge, once enough seeds are pending. Has to be called while holding the lock on {@link #pending}
+	 */
+	private void scheduleMerge() {
+		if (pending.size() >= MERGE_THRESHOLD && !merging && log != null) {
+			merging = true;
+			executor.execute(this::merge);
+		}
+	}
+
+	/**
+	 * Writes the pending seeds as a new run, merged with the newest runs of a similar size
+	 */
+	private void merge() {
+		long[] batch;
+		synchronized (pending) {
+			batch = pending.toLongArray();
+		}
+		Arrays.sort(batch);
+		List<Run> previous = runs;
+		long startTime = System.currentTimeMillis();
+
+		// Merges newer runs first, as they are the smallest
+		int keep = previous.size();
+		long mergedCount = batch.length;
+		while (keep > 0 && previous.get(keep - 1).count <= mergedCount * TIER_FACTOR) {
+			keep--;
+			mergedCount += previous.get(keep).count;
+		}
+		List<Run> inputs = previous.subList(keep, previous.size());
+		long last = previous.isEmpty() ? 1 : previous.get(previous.size() - 1).last + 1;
+		long first = inputs.isEmpty() ? last : inputs.get(0).first;
+
+		try {
+			Path idxFile = idxFile(first, last);
+			long count = writeMerged(inputs, batch, idxFile);
+			Path bloomFile = bloomFile(first, last);
+			long bloomBytes = bloomSize(count);
+			writeBloom(idxFile, count, bloomFile, bloomBytes);
+
+			// The header is written after the bloom filter, so a crash never leaves a valid sorted array without a complete filter
+			writeHeader(idxFile, count);
+
+			Run merged = Run.open(first, last, idxFile, bloomFile, bloomBytes);
+			List<Run> updated = new ArrayList<>(previous.subList(0, keep));
+			updated.add(merged);
+			synchronized (pending) {
+				runs = List.copyOf(updated);
+				for (long seed : batch) {
+					pending.remove(seed);
+				}
+				rewriteLog();
+			}
+			deleteCoveredRuns(runs);
+			SeedChecker.LOGGER.info("Merged %s seeds with %s runs into the checked seed index in %sms, %s runs in total", batch.length, inputs.size(), System.currentTimeMillis() - startTime, updated.size());
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not merge the checked seed index");
+			SeedChecker.LOGGER.catching(e);
+		} finally {
+			synchronized (pending) {
+				merging = false;
+			}
+		}
+	}
+
+	/**
+	 * Writes the sorted union of the runs and the batch without duplicates. The header is left empty, until {@link #writeHeader(Path, long)}
+	 * @return The number of seeds in the written file
+	 */
+	private long writeMerged(List<Run> inputs, long[] batch, Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			channel.position(HEADER_SIZE);
+
+			// The position in each input run, the batch is the last input
+			long[] positions = new long[inputs.size() + 1];
+			long count = 0;
+			long last = 0;
+			while (true) {
+				int next = -1;
+				long seed = 0;
+				for (int input = 0; input < positions.length; input++) {
+					long size = input < inputs.size() ? inputs.get(input).count : batch.length;
+					if (positions[input] == size) {
+						continue;
+					}
+					long value = input < inputs.size() ? inputs.get(input).get(positions[input]) : batch[(int) positions[input]];
+					if (next == -1 || value < seed) {
+						next = input;
+						seed = value;
+					}
+				}
+				if (next == -1) {
+					break;
+				}
+				positions[next]++;
+				if (count > 0 && seed == last) {
+					continue;
+				}
+				if (!buffer.hasRemaining()) {
+					buffer.flip();
+					writeFully(channel, buffer);
+					buffer.clear();
+				}
+				buffer.putLong(seed);
+				last = seed;
+				count++;
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+			channel.force(false);
+			return count;
+		}
+	}
+
+	/**
+	 * Writes the header of a sorted array, marking it as complete
+	 */
+	private static void writeHeader(Path idxFile, long count) throws IOException {
+		try (FileChannel channel = FileChannel.open(idxFile, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putLong(MAGIC).putLong(count).flip();
+			channel.position(0);
+			writeFully(channel, header);
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Builds a new bloom filter from all seeds of a sorted array
+	 */
+	private static void writeBloom(Path idxFile, long count, Path bloomFile, long bloomBytes) throws IOException {
+		Run source = Run.openIdx(0, 0, idxFile, count);
+		try (FileChannel channel = FileChannel.open(bloomFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			MappedByteBuffer bloom = channel.map(MapMode.READ_WRITE, 0, bloomBytes);
+			for (long i = 0; i < source.count; i++) {
+				setBloom(bloom, source.get(i));
+			}
+			bloom.force();
+			writeMarker(channel, bloomBytes);
+		}
+	}
+
+	/**
+	 * Appends the marker after the bits of a bloom filter, once all bits are written
+	 */
+	private static void writeMarker(FileChannel channel, long bloomBytes) throws IOException {
+		ByteBuffer marker = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		marker.putLong(MAGIC).flip();
+		channel.position(bloomBytes);
+		writeFully(channel, marker);
+		channel.force(true);
+	}
+
+	/**
+	 * @return Whether the bloom filter has the expected size and was written completely
+	 */
+	private static boolean isBloomComplete(Path bloomFile, long bloomBytes) throws IOException {
+		if (!Files.exists(bloomFile)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(bloomFile, StandardOpenOption.READ)) {
+			if (channel.size() != bloomBytes + Long.BYTES) {
+				return false;
+			}
+			ByteBuffer marker = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (marker.hasRemaining() && channel.read(marker, bloomBytes + marker.position()) != -1) {
+			}
+			return marker.flip().getLong() == MAGIC;
+		}
+	}
+
+	/**
+	 * Opens the complete runs, that are not covered by a newer run
+	 * @param writable Whether this instance owns the index. If true, covered runs are deleted and missing bloom filters are rebuilt
+	 * @return The runs, the newest run last
+	 */
+	private List<Run> openRuns(boolean writable) throws IOException {
+		List<long[]> complete = new ArrayList<>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "checked-*.idx")) {
+			for (Path file : files) {
+				Matcher matcher = RUN_FILE.matcher(file.getFileName().toString());
+				if (!matcher.matches()) {
+					continue;
+				}
+				long first = Long.parseLong(matcher.group(1));
+				long last = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : first;
+				long count = readCount(file);
+				if (count >= 0) {
+					complete.add(new long[] { first, last, count });
+				}
+			}
+		}
+
+		// Runs that end later and cover more merges win, runs overlapping them were merged into them
+		complete.sort(Comparator.<long[]>comparingLong(run -> -run[1]).thenComparingLong(run -> run[0]));
+		List<Run> out = new ArrayList<>();
+		for (long[] candidate : complete) {
+			if (out.stream().anyMatch(run -> candidate[0] <= run.last && run.first <= candidate[1])) {
+				continue;
+			}
+			Path idxFile = findFile(candidate[0], candidate[1], "idx");
+			Path bloomFile = findFile(candidate[0], candidate[1], "bloom");
+			long bloomBytes = bloomSize(candidate[2]);
+			if (!isBloomComplete(bloomFile, bloomBytes)) {
+				if (!writable) {
+					// Without the filter, every lookup searches the sorted array
+					out.add(Run.openIdx(candidate[0], candidate[1], idxFile, candidate[2]));
+					continue;
+				}
+				SeedChecker.LOGGER.warn("Rebuilding the bloom filter of the checked seed index");
+				writeBloom(idxFile, candidate[2], bloomFile, bloomBytes);
+			}
+			out.add(Run.open(candidate[0], candidate[1], idxFile, bloomFile, bloomBytes));
+		}
+		out.sort(Comparator.comparingLong(run -> run.first));
+		if (writable) {
+			deleteCoveredRuns(out);
+		}
+		return List.copyOf(out);
+	}
+
+	/**
+	 * @return The number of seeds in a sorted array, or -1 if the file is incomplete
+	 */
+	private static long readCount(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				return -1;
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header, header.position()) != -1) {
+			}
+			header.flip();
+			if (header.getLong() != MAGIC) {
+				return -1;
+			}
+			long count = header.getLong();
+			return channel.size() == HEADER_SIZE + count * Long.BYTES ? count : -1;
+		}
+	}
+
+	private void replayLog() throws IOException {
+		if (!Files.exists(logFile)) {
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+			while (channel.read(buffer) != -1) {
+				buffer.flip();
+				while (buffer.remaining() >= Long.BYTES) {
+					long seed = buffer.getLong();
+					if (!containsMerged(seed)) {
+						pending.add(seed);
+					}
+				}
+				buffer.compact();
+			}
+		}
+	}
+
+	/**
+	 * Opens the log for appending. A seed that was only partially written before a crash is cut off, so the following seeds stay aligned
+	 */
+	private FileChannel openLog() throws IOException {
+		try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			long size = channel.size();
+			if (size % Long.BYTES != 0) {
+				SeedChecker.LOGGER.warn("Removing %s bytes of an incomplete seed from the checked seed log", size % Long.BYTES);
+				channel.truncate(size & ~(Long.BYTES - 1L));
+				channel.force(false);
+			}
+		}
+		return FileChannel.open(logFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+	}
+
+	/**
+	 * Replaces the log with the seeds that are still pending. Has to be called while holding the lock on {@link #pending}
+	 */
+	private void rewriteLog() throws IOException {
+		log.close();
+		Path logTemp = temp(logFile);
+		try (FileChannel channel = FileChannel.open(logTemp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer buffer = ByteBuffer.allocate(pending.size() * Long.BYTES);
+			for (LongIterator iterator = pending.iterator(); iterator.hasNext();) {
+				buffer.putLong(iterator.nextLong());
+			}
+			buffer.flip();
+			writeFully(channel, buffer);
+			channel.force(false);
+		}
+		Files.move(logTemp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log = openLog();
+	}
+
+	/**
+	 * Deletes the files of all runs except the given ones. Files that are still mapped might not be deletable and are left for the next start
+	 */
+	private void deleteCoveredRuns(List<Run> keep) {
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "checked-*")) {
+			for (Path file : files) {
+				Matcher matcher = RUN_FILE.matcher(file.getFileName().toString());
+				if (!matcher.matches()) {
+					continue;
+				}
+				long first = Long.parseLong(matcher.group(1));
+				long last = matcher.group(2) != null ? Long.parseLong(matcher.group(2)) : first;
+				if (keep.stream().noneMatch(run -> run.first == first && run.last == last)) {
+					try {
+						Files.deleteIfExists(file);
+					} catch (IOException e) {
+						SeedChecker.LOGGER.debug("Could not delete %s yet", file);
+					}
+				}
+			}
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * @return The existing file of a run, preferring the old name of runs with a single merge
+	 */
+	private Path findFile(long first, long last, String extension) {
+		Path legacy = directory.resolve("checked-" + first + "." + extension);
+		if (first == last && Files.exists(legacy)) {
+			return legacy;
+		}
+		return directory.resolve(String.format("checked-%s-%s.%s", first, last, extension));
+	}
+
+	private Path idxFile(long first, long last) {
+		return directory.resolve(String.format("checked-%s-%s.idx", first, last));
+	}
+
+	private Path bloomFile(long first, long last) {
+		return directory.resolve(String.format("checked-%s-%s.bloom", first, last));
+	}
+
+	private static Path temp(Path file) {
+		return file.resolveSibling(file.getFileName() + ".tmp");
+	}
+
+	/**
+	 * @param count The number of seeds
+	 * @return The size of the bloom filter in bytes, a power of two with at least {@link #BLOOM_BITS_PER_SEED} bits per seed
+	 */
+	private static long bloomSize(long count) {
+		long bytes = count * BLOOM_BITS_PER_SEED / 8;
+		long size = MIN_BLOOM_BYTES;
+		while (size < bytes && size < MAX_BLOOM_BYTES) {
+			size <<= 1;
+		}
+		return size;
+	}
+
+	private static void setBloom(ByteBuffer bloom, long seed) {
+		long mask = bloom.capacity() * 8L - 1;
+		long h1 = mix(seed);
+		long h2 = mix(seed ^ 0x9E3779B97F4A7C15L) | 1;
+		for (int i = 0; i < BLOOM_HASHES; i++) {
+			long bit = (h1 + i * h2) & mask;
+			int index = (int) (bit >>> 3);
+			bloom.put(index, (byte) (bloom.get(index) | (1 << (bit & 7))));
+		}
+	}
+
+	private static boolean testBloom(ByteBuffer bloom, long seed) {
+		long mask = bloom.capacity() * 8L - 1;
+		long h1 = mix(seed);
+		long h2 = mix(seed ^ 0x9E3779B97F4A7C15L) | 1;
+		for (int i = 0; i < BLOOM_HASHES; i++) {
+			long bit = (h1 + i * h2) & mask;
+			if ((bloom.get((int) (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The finalizer of MurmurHash3, spreading the bits of the seed
+	 */
+	private static long mix(long value) {
+		value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+		value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+		return value ^ (value >>> 33);
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * A merged, read only run of the index
+	 */
+	private static class Run {
+
+		/**
+		 * The first merge this run contains
+		 */
+		private final long first;
+
+		/**
+		 * The last merge this run contains
+		 */
+		private final long last;
+		private final long count;
+		private final LongBuffer[] chunks;
+
+		/**
+		 * The bloom filter, or null if the run is searched without one
+		 */
+		private final ByteBuffer bloom;
+
+		private Run(long first, long last, long count, LongBuffer[] chunks, ByteBuffer bloom) {
+			this.first = first;
+			this.last = last;
+			this.count = count;
+			this.chunks = chunks;
+			this.bloom = bloom;
+		}
+
+		private static Run open(long first, long last, Path idxFile, Path bloomFile, long bloomBytes) throws IOException {
+			long count = readCount(idxFile);
+			if (count < 0) {
+				throw new IOException("Incomplete checked seed index " + idxFile);
+			}
+			Run idx = openIdx(first, last, idxFile, count);
+			try (FileChannel channel = FileChannel.open(bloomFile, StandardOpenOption.READ)) {
+				ByteBuffer bloom = channel.map(MapMode.READ_ONLY, 0, bloomBytes);
+				return new Run(first, last, count, idx.chunks, bloom);
+			}
+		}
+
+		private static Run openIdx(long first, long last, Path idxFile, long count) throws IOException {
+			int chunkCount = (int) ((count + CHUNK_MASK) >>> CHUNK_SHIFT);
+			LongBuffer[] chunks = new LongBuffer[chunkCount];
+			try (FileChannel channel = FileChannel.open(idxFile, StandardOpenOption.READ)) {
+				for (int i = 0; i < chunkCount; i++) {
+					long start = (long) i << CHUNK_SHIFT;
+					long length = Math.min(count - start, 1L << CHUNK_SHIFT);
+					chunks[i] = channel.map(MapMode.READ_ONLY, HEADER_SIZE + start * Long.BYTES, length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+				}
+			}
+			return new Run(first, last, count, chunks, null);
+		}
+
+		private long get(long index) {
+			return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+		}
+
+		private boolean contains(long seed) {
+			if (count == 0 || (bloom != null && !testBloom(bloom, seed))) {
+				return false;
+			}
+			long low = 0;
+			long high = count - 1;
+			while (low <= high) {
+				long middle = (low + high) >>> 1;
+				long value = get(middle);
+				if (value < seed) {
+					low = middle + 1;
+				} else if (value > seed) {
+					high = middle - 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
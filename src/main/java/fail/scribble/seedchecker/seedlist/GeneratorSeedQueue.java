@@ -0,0 +1,300 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link SeedQueue} that holds {@link SeedGenerator}s next to plain seeds.
+ * <p>
+ * Plain seeds are stored in {@link LongSeedQueue}s, generators only store how many of their seeds were polled.
+ * The seeds of a generator are computed once they are polled, so a range of a billion seeds takes up no memory.
+ *
+ * @author Scribble
+ */
+public class GeneratorSeedQueue implements SeedQueue {
+
+	/**
+	 * The entries in order, starting at {@link #first}. Removed entries are only cleared once they make up half of the list
+	 */
+	private final ArrayList<Entry> entries = new ArrayList<>();
+	private int first;
+
+	/**
+	 * The position of the first seed in the queue, counted since the queue was last cleared.
+	 * Every entry stores the position of its first seed, so a seed is found by a binary search over the entries
+	 */
+	private long position;
+
+	/**
+	 * The number of seeds in all entries
+	 */
+	private long size;
+
+	@Override
+	public synchronized void add(long seed) {
+		tailSeeds().add(seed);
+		size++;
+	}
+
+	@Override
+	public synchronized void addAll(long[] seeds, int offset, int length) {
+		if (length == 0) {
+			return;
+		}
+		tailSeeds().addAll(seeds, offset, length);
+		size += length;
+	}
+
+	/**
+	 * Makes room for plain seeds that are added to the end of the queue next, so the buffer is not copied while it grows.
+	 * Does nothing if the queue doesn't end with plain seeds
+	 * @param count The number of plain seeds that are expected
+	 */
+	public synchronized void reserve(long count) {
+		Entry tail = entries.size() > first ? entries.get(entries.size() - 1) : null;
+		if (tail != null && tail.seeds != null) {
+			tail.seeds.ensureCapacity((int) Math.min(LongSeedQueue.MAX_CAPACITY, tail.seeds.size() + count));
+		}
+	}
+
+	/**
+	 * Adds the seeds of a generator to the end of the queue
+	 * @param generator The generator
+	 * @param offset The number of seeds of the generator that were already used
+	 */
+	public synchronized void addGenerator(SeedGenerator generator, long offset) {
+		if (offset >= generator.size()) {
+			return;
+		}
+		entries.add(new Entry(null, generator, offset, position + size));
+		size += generator.size() - offset;
+	}
+
+	@Override
+	public synchronized OptionalLong poll() {
+		if (size == 0) {
+			return OptionalLong.empty();
+		}
+		Entry entry = entries.get(first);
+		long seed;
+		if (entry.seeds != null) {
+			seed = entry.seeds.poll().getAsLong();
+		} else {
+			seed = entry.generator.get(entry.offset++);
+		}
+		entry.start++;
+		if (entry.remaining() == 0) {
+			removeFirst();
+		}
+		position++;
+		size--;
+		return OptionalLong.of(seed);
+	}
+
+	@Override
+	public OptionalLong peek() {
+		return peek(0);
+	}
+
+	@Override
+	public synchronized OptionalLong peek(long index) {
+		if (index < 0 || index >= size) {
+			return OptionalLong.empty();
+		}
+		long seedPosition = position + index;
+		Entry entry = entries.get(find(seedPosition));
+		return OptionalLong.of(entry.get(seedPosition - entry.start));
+	}
+
+	@Override
+	public synchronized int peek(long[] out, long offset) {
+		if (offset < 0 || offset >= size) {
+			return 0;
+		}
+		int count = 0;
+		long seedPosition = position + offset;
+		for (int i = find(seedPosition); i < entries.size() && count < out.length; i++) {
+			Entry entry = entries.get(i);
+			long skip = seedPosition - entry.start;
+			int length = (int) Math.min(out.length - count, entry.remaining() - skip);
+			for (int j = 0; j < length; j++) {
+				out[count + j] = entry.get(skip + j);
+			}
+			count += length;
+			seedPosition += length;
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized void skip(long count) {
+		long remaining = Math.min(count, size);
+		size -= remaining;
+		position += remaining;
+		while (remaining > 0) {
+			Entry entry = entries.get(first);
+			long skipped = Math.min(remaining, entry.remaining());
+			if (entry.seeds != null) {
+				entry.seeds.skip(skipped);
+			} else {
+				entry.offset += skipped;
+			}
+			entry.start += skipped;
+			if (entry.remaining() == 0) {
+				removeFirst();
+			}
+			remaining -= skipped;
+		}
+	}
+
+	/**
+	 * @return The number of seeds in the queue, at most {@link Integer#MAX_VALUE}. Use {@link #longSize()} for the exact number
+	 */
+	@Override
+	public synchronized int size() {
+		return (int) Math.min(Integer.MAX_VALUE, size);
+	}
+
+	@Override
+	public synchronized long longSize() {
+		return size;
+	}
+
+	@Override
+	public synchronized void clear() {
+		entries.clear();
+		first = 0;
+		position = 0;
+		size = 0;
+	}
+
+	/**
+	 * Expands every generator, which can take forever for large ranges. Use {@link #forEachEntry(LongConsumer, GeneratorConsumer)} instead where possible
+	 */
+	@Override
+	public void forEach(LongConsumer consumer) {
+		forEachEntry(consumer, (generator, offset) -> {
+			for (long i = offset; i < generator.size(); i++) {
+				consumer.accept(generator.get(i));
+			}
+		});
+	}
+
+	/**
+	 * Iterates over a snapshot of the queue in order, without expanding the generators
+	 * @param seeds The consumer accepting each plain seed
+	 * @param generators The consumer accepting each generator with the number of its seeds that were already used
+	 */
+	public void forEachEntry(LongConsumer seeds, GeneratorConsumer generators) {
+		List<Object> snapshot = new ArrayList<>();
+		List<Long> offsets = new ArrayList<>();
+		synchronized (this) {
+			for (Entry entry : entries.subList(first, entries.size())) {
+				snapshot.add(entry.seeds != null ? entry.seeds.toArray() : entry.generator);
+				offsets.add(entry.offset);
+			}
+		}
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.get(i) instanceof long[] array) {
+				for (long seed : array) {
+					seeds.accept(seed);
+				}
+			} else {
+				generators.accept((SeedGenerator) snapshot.get(i), offsets.get(i));
+			}
+		}
+	}
+
+	/**
+	 * @return The plain seeds at the end of the queue, that new seeds are added to
+	 */
+	private LongSeedQueue tailSeeds() {
+		Entry tail = entries.size() > first ? entries.get(entries.size() - 1) : null;
+		if (tail == null || tail.seeds == null) {
+			tail = new Entry(new LongSeedQueue(), null, 0, position + size);
+			entries.add(tail);
+		}
+		return tail.seeds;
+	}
+
+	private void removeFirst() {
+		entries.set(first++, null);
+		if (first == entries.size()) {
+			entries.clear();
+			first = 0;
+		} else if (first > entries.size() / 2) {
+			entries.subList(0, first).clear();
+			first = 0;
+		}
+	}
+
+	/**
+	 * @param seedPosition The position of a seed in the queue
+	 * @return The index of the entry containing the seed
+	 */
+	private int find(long seedPosition) {
+		int low = first;
+		int high = entries.size() - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (entries.get(middle).start <= seedPosition) {
+				low = middle;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return low;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("GeneratorSeedQueue[size=%s, entries=%s]", longSize(), entries.size() - first);
+	}
+
+	@FunctionalInterface
+	public static interface GeneratorConsumer {
+		/**
+		 * @param generator The generator
+		 * @param offset The number of seeds of the generator that were already used
+		 */
+		public void accept(SeedGenerator generator, long offset);
+	}
+
+	/**
+	 * Either plain seeds or a generator
+	 */
+	private static class Entry {
+		private final LongSeedQueue seeds;
+		private final SeedGenerator generator;
+
+		/**
+		 * The number of seeds of the {@link #generator} that were polled
+		 */
+		private long offset;
+
+		/**
+		 * The position of the first remaining seed of this entry in the queue
+		 */
+		private long start;
+
+		private Entry(LongSeedQueue seeds, SeedGenerator generator, long offset, long start) {
+			this.seeds = seeds;
+			this.generator = generator;
+			this.offset = offset;
+			this.start = start;
+		}
+
+		private long remaining() {
+			return seeds != null ? seeds.size() : generator.size() - offset;
+		}
+
+		/**
+		 * @param index The index of the seed, counted from the first remaining seed of this entry
+		 */
+		private long get(long index) {
+			return seeds != null ? seeds.peek(index).getAsLong() : generator.get(offset + index);
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link SeedQueue} backed by a growing ring buffer of primitive longs.
+ * <p>
+ * Uses 8 bytes per seed, compared to ~40 bytes for a boxed {@link Long} in a linked queue.
+ * The buffer shrinks again once most of its seeds were removed.
+ *
+ * @author Scribble
+ */
+public class LongSeedQueue implements SeedQueue {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The largest array that can be safely allocated
+	 */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	private long[] buffer;
+
+	/**
+	 * The index of the first seed in the {@link #buffer}
+	 */
+	private int head;
+
+	private int size;
+
+	/**
+	 * The number of seeds that were removed since the buffer was last resized.
+	 * The buffer is only shrunk after large removals, so a buffer that was {@link #ensureCapacity(int) sized ahead} of the seeds is kept
+	 */
+	private int removedSinceResize;
+
+	public LongSeedQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public LongSeedQueue(int initialCapacity) {
+		this.buffer = new long[Math.max(initialCapacity, 1)];
+	}
+
+	@Override
+	public synchronized void add(long seed) {
+		ensureCapacity(size + 1);
+		buffer[slot(size)] = seed;
+		size++;
+	}
+
+	@Override
+	public synchronized void addAll(long[] seeds, int offset, int length) {
+		ensureCapacity(size + length);
+		int tail = slot(size);
+		int firstPart = Math.min(length, buffer.length - tail);
+		System.arraycopy(seeds, offset, buffer, tail, firstPart);
+		System.arraycopy(seeds, offset + firstPart, buffer, 0, length - firstPart);
+		size += length;
+	}
+
+	@Override
+	public synchronized OptionalLong poll() {
+		if (size == 0) {
+			return OptionalLong.empty();
+		}
+		long seed = buffer[head];
+		head = slot(1);
+		size--;
+		removed(1);
+		return OptionalLong.of(seed);
+	}
+
+	@Override
+	public synchronized void skip(long count) {
+		int skipped = (int) Math.max(0, Math.min(count, size));
+		head = slot(skipped);
+		size -= skipped;
+		removed(skipped);
+	}
+
+	@Override
+	public OptionalLong peek() {
+		return peek(0);
+	}
+
+	@Override
+	public synchronized OptionalLong peek(long index) {
+		if (index < 0 || index >= size) {
+			return OptionalLong.empty();
+		}
+		return OptionalLong.of(buffer[slot(index)]);
+	}
+
+	@Override
+	public synchronized int size() {
+		return size;
+	}
+
+	@Override
+	public synchronized void clear() {
+		head = 0;
+		size = 0;
+		removedSinceResize = 0;
+		if (buffer.length > DEFAULT_CAPACITY) {
+			buffer = new long[DEFAULT_CAPACITY];
+		}
+	}
+
+	@Override
+	public void forEach(LongConsumer consumer) {
+		long[] snapshot;
+		synchronized (this) {
+			snapshot = toArray();
+		}
+		for (long seed : snapshot) {
+			consumer.accept(seed);
+		}
+	}
+
+	/**
+	 * @return A copy of the queue in order
+	 */
+	public synchronized long[] toArray() {
+		long[] out = new long[size];
+		int firstPart = Math.min(size, buffer.length - head);
+		System.arraycopy(buffer, head, out, 0, firstPart);
+		System.arraycopy(buffer, 0, out, firstPart, size - firstPart);
+		return out;
+	}
+
+	/**
+	 * Grows the buffer, so that it can hold at least the specified amount of seeds.<br>
+	 * Growing by 50% keeps the overhead low for very large seed lists. If the number of seeds is known ahead, call this once,
+	 * so the buffer is not copied while it grows
+	 * @param capacity The number of seeds the queue should be able to hold
+	 */
+	public synchronized void ensureCapacity(int capacity) {
+		if (capacity < 0 || capacity > MAX_CAPACITY) {
+			throw new IllegalStateException("The seed queue can not hold more than " + MAX_CAPACITY + " seeds");
+		}
+		if (capacity <= buffer.length) {
+			return;
+		}
+		resize((int) Math.min(MAX_CAPACITY, Math.max(capacity, (long) buffer.length + (buffer.length >> 1))));
+	}
+
+	/**
+	 * Shrinks the buffer to twice the remaining seeds, once more than half of the buffer was removed and less than a quarter is in use
+	 * @param count The number of seeds that were removed
+	 */
+	private void removed(int count) {
+		removedSinceResize += count;
+		if (buffer.length > DEFAULT_CAPACITY && size < buffer.length / 4 && removedSinceResize > buffer.length / 2) {
+			resize(Math.max(DEFAULT_CAPACITY, size * 2));
+		}
+	}
+
+	private void resize(int capacity) {
+		long[] newBuffer = new long[capacity];
+		int firstPart = Math.min(size, buffer.length - head);
+		System.arraycopy(buffer, head, newBuffer, 0, firstPart);
+		System.arraycopy(buffer, 0, newBuffer, firstPart, size - firstPart);
+		buffer = newBuffer;
+		head = 0;
+		removedSinceResize = 0;
+	}
+
+	/**
+	 * @param offset The position in the queue, at most the length of the buffer
+	 * @return The index of that position in the {@link #buffer}. Calculated in long, as the sum overflows an int for large buffers
+	 */
+	private int slot(long offset) {
+		long slot = head + offset;
+		return (int) (slot >= buffer.length ? slot - buffer.length : slot);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("LongSeedQueue[size=%s, capacity=%s]", size(), buffer.length);
+	}
+}
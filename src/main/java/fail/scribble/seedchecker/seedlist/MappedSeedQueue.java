@@ -0,0 +1,164 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link SeedQueue} reading its seeds from a {@link BinarySeedList}, without copying them to the heap.
+ * <p>
+ * Polling only advances the position in the list. Seeds that are added afterwards are kept in a {@link LongSeedQueue} after the end of the list.
+ *
+ * @author Scribble
+ */
+public class MappedSeedQueue implements SeedQueue {
+
+	private BinarySeedList list;
+
+	/**
+	 * The index of the next seed in the {@link #list}
+	 */
+	private long head;
+
+	/**
+	 * Seeds that were added after the end of the {@link #list}
+	 */
+	private final LongSeedQueue tail = new LongSeedQueue();
+
+	/**
+	 * Replaces the content of the queue
+	 * @param list The seed list
+	 * @param skip The number of seeds at the start of the list that are skipped
+	 */
+	public synchronized void reset(BinarySeedList list, long skip) {
+		if (this.list != null) {
+			this.list.close();
+		}
+		this.list = list;
+		this.head = Math.min(skip, list.size());
+		tail.clear();
+	}
+
+	@Override
+	public void add(long seed) {
+		tail.add(seed);
+	}
+
+	@Override
+	public void addAll(long[] seeds, int offset, int length) {
+		tail.addAll(seeds, offset, length);
+	}
+
+	@Override
+	public synchronized OptionalLong poll() {
+		if (remainingInList() > 0) {
+			return OptionalLong.of(get(head++));
+		}
+		return tail.poll();
+	}
+
+	@Override
+	public OptionalLong peek() {
+		return peek(0);
+	}
+
+	@Override
+	public synchronized OptionalLong peek(long index) {
+		if (index < 0) {
+			return OptionalLong.empty();
+		}
+		long remaining = remainingInList();
+		if (index < remaining) {
+			return OptionalLong.of(get(head + index));
+		}
+		return tail.peek(index - remaining);
+	}
+
+	@Override
+	public synchronized int peek(long[] out, long offset) {
+		long remaining = remainingInList();
+		int count = 0;
+		while (count < out.length && offset + count < remaining) {
+			out[count] = get(head + offset + count);
+			count++;
+		}
+		if (count < out.length) {
+			long tailOffset = offset + count - remaining;
+			while (count < out.length) {
+				OptionalLong seed = tail.peek(tailOffset++);
+				if (seed.isEmpty()) {
+					break;
+				}
+				out[count++] = seed.getAsLong();
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public synchronized void skip(long count) {
+		long skipped = Math.min(count, remainingInList());
+		head += skipped;
+		tail.skip(count - skipped);
+	}
+
+	@Override
+	public synchronized int size() {
+		return (int) Math.min(Integer.MAX_VALUE, longSize());
+	}
+
+	@Override
+	public synchronized long longSize() {
+		return remainingInList() + tail.size();
+	}
+
+	@Override
+	public synchronized void clear() {
+		if (list != null) {
+			head = list.size();
+		}
+		tail.clear();
+	}
+
+	@Override
+	public void forEach(LongConsumer consumer) {
+		BinarySeedList snapshot;
+		long from;
+		long[] tailSnapshot;
+		synchronized (this) {
+			snapshot = list;
+			from = head;
+			tailSnapshot = tail.toArray();
+		}
+		if (snapshot != null) {
+			for (long index = from; index < snapshot.size(); index++) {
+				consumer.accept(read(snapshot, index));
+			}
+		}
+		for (long seed : tailSnapshot) {
+			consumer.accept(seed);
+		}
+	}
+
+	private long remainingInList() {
+		return list == null ? 0 : list.size() - head;
+	}
+
+	private long get(long index) {
+		return read(list, index);
+	}
+
+	private static long read(BinarySeedList list, long index) {
+		try {
+			return list.get(index);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MappedSeedQueue[size=%s]", size());
+	}
+}
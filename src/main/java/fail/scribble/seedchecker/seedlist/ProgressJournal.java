@@ -0,0 +1,144 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import fail.scribble.seedchecker.SeedChecker;
+
+/**
+ * Stores how many seeds of the seed list were already consumed, so the seed list itself doesn't need to be rewritten after every seed.
+ * <p>
+ * Writes happen on a background thread and are coalesced, only the latest progress is written.<br>
+ * The file is written to a temporary file first, synced to disk and then moved in place, so a crash never leaves a torn journal behind.
+ *
+ * @author Scribble
+ */
+public class ProgressJournal {
+
+	private final Path file;
+	private final Path tempFile;
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SeedChecker Journal");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * The progress that still needs to be written, or null if there is nothing to write
+	 */
+	private final AtomicReference<Progress> pending = new AtomicReference<>();
+
+	private Future<?> lastWrite;
+
+	public ProgressJournal(Path file) {
+		this.file = file;
+		this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+	}
+
+	/**
+	 * Reads the progress from the journal file
+	 * @return The stored progress, or {@link Progress#NONE} if the file doesn't exist or is invalid
+	 */
+	public Progress read() {
+		if (!Files.exists(file)) {
+			return Progress.NONE;
+		}
+		try {
+			List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+			long consumed = Long.parseLong(lines.get(0).trim());
+			long lastSeed = Long.parseLong(lines.get(1).trim());
+			return new Progress(consumed, lastSeed);
+		} catch (IOException | RuntimeException e) {
+			SeedChecker.LOGGER.warn("Could not read %s, starting from the beginning of the seed list", file);
+			return Progress.NONE;
+		}
+	}
+
+	/**
+	 * Schedules the progress to be written on the journal thread.<br>
+	 * If a write is still pending, it is replaced by this progress
+	 * @param progress The progress to write
+	 */
+	public synchronized void writeAsync(Progress progress) {
+		if (pending.getAndSet(progress) == null) {
+			lastWrite = executor.submit(() -> {
+				Progress toWrite = pending.getAndSet(null);
+				if (toWrite != null) {
+					write(toWrite);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Runs a task on the journal thread, after the writes that are already scheduled
+	 * @param task The task, e.g. flushing other files that belong to the progress
+	 */
+	public void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+	/**
+	 * Writes the progress and waits until it is on disk
+	 * @param progress The progress to write
+	 */
+	public void writeSync(Progress progress) {
+		writeAsync(progress);
+		flush();
+	}
+
+	/**
+	 * Waits until all scheduled writes are finished
+	 */
+	public void flush() {
+		Future<?> future;
+		synchronized (this) {
+			future = lastWrite;
+		}
+		if (future == null) {
+			return;
+		}
+		try {
+			future.get();
+		} catch (Exception e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	private void write(Progress progress) {
+		byte[] content = String.format("%s\n%s\n", progress.consumed(), progress.lastSeed()).getBytes(StandardCharsets.UTF_8);
+		try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel.write(ByteBuffer.wrap(content));
+			channel.force(true);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return;
+		}
+		try {
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * The progress in the seed list
+	 * @param consumed The number of seeds from the start of the seed list, that were already used
+	 * @param lastSeed The last seed that was used, to verify that the seed list didn't change
+	 */
+	public static record Progress(long consumed, long lastSeed) {
+		public static final Progress NONE = new Progress(0, 0);
+	}
+}
@@ -0,0 +1,137 @@
+package fail.scribble.seedchecker.seedlist;
+
+/**
+ * A line in the seed list that stands for many seeds, which are only computed once they are polled.
+ * <p>
+ * Supported lines:
+ * <ul>
+ * <li><code>range &lt;from&gt;..&lt;to&gt;</code>: Every seed from <code>from</code> to <code>to</code>, both included</li>
+ * <li><code>structure &lt;structure seed&gt; [from &lt;upper bits&gt;]</code>: All 65536 seeds sharing the lower 48 bits with the structure seed,
+ * optionally starting at the given upper 16 bits</li>
+ * </ul>
+ *
+ * @author Scribble
+ */
+public interface SeedGenerator {
+
+	/**
+	 * @return The number of seeds of this generator
+	 */
+	public long size();
+
+	/**
+	 * @param index The index of the seed, between 0 and {@link #size()}
+	 * @return The seed at this index
+	 */
+	public long get(long index);
+
+	/**
+	 * @param offset The number of seeds that were already used
+	 * @return The line in the seed list, that generates the remaining seeds
+	 */
+	public String toLine(long offset);
+
+	/**
+	 * @param line The trimmed line
+	 * @return Whether the line should be parsed with {@link #parse(String)}
+	 */
+	public static boolean isGeneratorLine(String line) {
+		return line.startsWith("range ") || line.startsWith("structure ");
+	}
+
+	/**
+	 * @param line The trimmed line
+	 * @return The generator
+	 * @throws IllegalArgumentException If the line is not a valid generator
+	 */
+	public static SeedGenerator parse(String line) {
+		String[] split = line.split("\\s+");
+		try {
+			if (split[0].equals("range") && split.length == 2) {
+				int separator = split[1].indexOf("..");
+				if (separator == -1) {
+					throw new IllegalArgumentException("Expected range <from>..<to>");
+				}
+				return new Range(Long.parseLong(split[1].substring(0, separator)), Long.parseLong(split[1].substring(separator + 2)));
+			}
+			if (split[0].equals("structure") && split.length == 2) {
+				return new StructureSeed(Long.parseLong(split[1]), 0);
+			}
+			if (split[0].equals("structure") && split.length == 4 && split[2].equals("from")) {
+				return new StructureSeed(Long.parseLong(split[1]), Integer.parseInt(split[3]));
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number in " + line, e);
+		}
+		throw new IllegalArgumentException("Expected range <from>..<to> or structure <structure seed>");
+	}
+
+	/**
+	 * A contiguous range of seeds
+	 * @param from The first seed
+	 * @param to The last seed
+	 */
+	public static record Range(long from, long to) implements SeedGenerator {
+
+		public Range {
+			if (to < from) {
+				throw new IllegalArgumentException(String.format("The range %s..%s is empty", from, to));
+			}
+			try {
+				Math.addExact(Math.subtractExact(to, from), 1);
+			} catch (ArithmeticException e) {
+				throw new IllegalArgumentException(String.format("The range %s..%s is too large", from, to));
+			}
+		}
+
+		@Override
+		public long size() {
+			return to - from + 1;
+		}
+
+		@Override
+		public long get(long index) {
+			return from + index;
+		}
+
+		@Override
+		public String toLine(long offset) {
+			return String.format("range %s..%s", from + offset, to);
+		}
+	}
+
+	/**
+	 * All world seeds of a 48 bit structure seed, that only differ in the upper 16 bits
+	 * @param structureSeed The structure seed
+	 * @param firstUpperBits The upper 16 bits of the first seed
+	 */
+	public static record StructureSeed(long structureSeed, int firstUpperBits) implements SeedGenerator {
+
+		private static final int VARIANTS = 1 << 16;
+
+		public StructureSeed {
+			if (structureSeed < 0 || structureSeed >= 1L << 48) {
+				throw new IllegalArgumentException(String.format("The structure seed %s has more than 48 bits", structureSeed));
+			}
+			if (firstUpperBits < 0 || firstUpperBits >= VARIANTS) {
+				throw new IllegalArgumentException(String.format("The upper bits %s are not between 0 and %s", firstUpperBits, VARIANTS - 1));
+			}
+		}
+
+		@Override
+		public long size() {
+			return VARIANTS - firstUpperBits;
+		}
+
+		@Override
+		public long get(long index) {
+			return (firstUpperBits + index) << 48 | structureSeed;
+		}
+
+		@Override
+		public String toLine(long offset) {
+			long upperBits = firstUpperBits + offset;
+			return upperBits == 0 ? "structure " + structureSeed : String.format("structure %s from %s", structureSeed, upperBits);
+		}
+	}
+}
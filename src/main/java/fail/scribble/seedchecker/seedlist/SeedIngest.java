@@ -0,0 +1,288 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.SeedFile;
+import fail.scribble.seedchecker.seedlist.SeedListParser.InvalidLine;
+import fail.scribble.seedchecker.seedlist.SeedListParser.ParsedSegment;
+import fail.scribble.seedchecker.seedlist.SeedListParser.TextGeneratorLine;
+
+/**
+ * Accepts seeds from seed finders over a TCP socket on localhost, so they don't have to write to the seed list themselves.
+ * <p>
+ * By default, seeds are sent as lines, the same as in the seed list. A connection that starts with the bytes <code>SCB1</code>
+ * sends seeds as 8 byte big endian longs instead.<br>
+ * Received seeds are appended to the seed list and added to the queue right away.
+ * While more than the maximum number of received seeds were not used yet, no more data is read from the socket,
+ * so the finder is slowed down by the socket buffer instead of filling the memory. Seeds that were in the seed list before don't count towards the limit.
+ *
+ * @author Scribble
+ */
+public class SeedIngest {
+
+	private static final byte[] BINARY_MAGIC = "SCB1".getBytes(StandardCharsets.US_ASCII);
+
+	/**
+	 * The size of the buffer a connection is read with
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * How long the connection waits before checking the queue again, while the queue is full
+	 */
+	private static final long BACKPRESSURE_WAIT = 50;
+
+	private final Supplier<SeedFile> seedFile;
+	private final int port;
+
+	/**
+	 * The maximum number of received seeds that were not used yet, before no more seeds are read
+	 */
+	private final IntSupplier maxQueued;
+
+	/**
+	 * The received seeds that were not used yet, in the order they were appended. Guarded by itself
+	 */
+	private final Deque<Appended> appended = new ArrayDeque<>();
+
+	/**
+	 * The seed list the {@link #appended} seeds belong to
+	 */
+	private SeedFile appendedTo;
+
+	private ServerSocket serverSocket;
+
+	/**
+	 * The open connections, closed when the ingest is stopped
+	 */
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param seedFile The seed list receiving the seeds. A supplier, as the seed list is replaced when it is converted
+	 * @param port The port on localhost
+	 * @param maxQueued The maximum number of received seeds that were not used yet, 0 or less for no limit
+	 */
+	public SeedIngest(Supplier<SeedFile> seedFile, int port, IntSupplier maxQueued) {
+		this.seedFile = seedFile;
+		this.port = port;
+		this.maxQueued = maxQueued;
+	}
+
+	/**
+	 * Starts listening for connections on a background thread
+	 * @throws IOException If the port could not be opened
+	 */
+	public void start() throws IOException {
+		serverSocket = new ServerSocket();
+		serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		SeedChecker.LOGGER.info("Accepting seeds on %s", serverSocket.getLocalSocketAddress());
+
+		Thread thread = new Thread(this::accept, "SeedChecker Ingest");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops accepting seeds and closes all open connections. Seeds that were already received stay in the seed list
+	 */
+	public void stop() {
+		if (serverSocket == null) {
+			return;
+		}
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+		for (Socket socket : connections) {
+			try {
+				socket.close();
+			} catch (IOException e) {
+				SeedChecker.LOGGER.catching(e);
+			}
+		}
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.add(socket);
+				Thread thread = new Thread(() -> receive(socket), "SeedChecker Ingest " + socket.getRemoteSocketAddress());
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) {
+				if (!serverSocket.isClosed()) {
+					SeedChecker.LOGGER.catching(e);
+				}
+			}
+		}
+	}
+
+	private void receive(Socket socket) {
+		long received = 0;
+		try (socket; InputStream input = socket.getInputStream()) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int length = input.readNBytes(buffer, 0, BINARY_MAGIC.length);
+			if (length == BINARY_MAGIC.length && Arrays.equals(buffer, 0, length, BINARY_MAGIC, 0, length)) {
+				received = receiveBinary(input, buffer);
+			} else {
+				received = receiveLines(input, buffer, length);
+			}
+		} catch (IOException | InterruptedException e) {
+			if (!serverSocket.isClosed()) {
+				SeedChecker.LOGGER.error("Seed ingest from %s failed", socket.getRemoteSocketAddress());
+				SeedChecker.LOGGER.catching(e);
+			}
+		} finally {
+			connections.remove(socket);
+		}
+		SeedChecker.LOGGER.info("Received %s seeds from %s", received, socket.getRemoteSocketAddress());
+	}
+
+	/**
+	 * Reads seeds as 8 byte big endian longs.
+	 * Seeds are added as soon as they are read, the bytes of an incomplete seed are kept until the rest arrives
+	 * @return The number of received seeds
+	 */
+	private long receiveBinary(InputStream input, byte[] buffer) throws IOException, InterruptedException {
+		long received = 0;
+		long[] seeds = new long[BUFFER_SIZE / Long.BYTES];
+		int filled = 0;
+		int read;
+		while ((read = input.read(buffer, filled, BUFFER_SIZE - filled)) != -1) {
+			filled += read;
+			ByteBuffer data = ByteBuffer.wrap(buffer, 0, filled);
+			int count = 0;
+			while (data.remaining() >= Long.BYTES) {
+				seeds[count++] = data.getLong();
+			}
+			add(seeds, count);
+			received += count;
+
+			int leftover = data.remaining();
+			System.arraycopy(buffer, data.position(), buffer, 0, leftover);
+			filled = leftover;
+		}
+		if (filled > 0) {
+			SeedChecker.LOGGER.warn("Ignoring %s trailing bytes of an incomplete seed", filled);
+		}
+		return received;
+	}
+
+	/**
+	 * Reads seeds as lines, parsed the same as the seed list
+	 * @param filled The number of bytes that were already read into the buffer
+	 * @return The number of received seeds
+	 */
+	private long receiveLines(InputStream input, byte[] buffer, int filled) throws IOException, InterruptedException {
+		long received = 0;
+		boolean end = false;
+		while (!end) {
+			int read = input.read(buffer, filled, buffer.length - filled);
+			end = read == -1;
+			if (!end) {
+				filled += read;
+			}
+
+			int lineEnd = filled;
+			while (!end && lineEnd > 0 && buffer[lineEnd - 1] != '\n') {
+				lineEnd--;
+			}
+			if (lineEnd == 0 && !end) {
+				if (filled == buffer.length) {
+					throw new IOException("Line is longer than " + buffer.length + " bytes");
+				}
+				continue;
+			}
+
+			ParsedSegment segment = SeedListParser.parse(buffer, 0, lineEnd, end);
+			for (InvalidLine invalidLine : segment.getInvalidLines()) {
+				SeedChecker.LOGGER.warn("Could not parse received seed: %s", invalidLine.content());
+			}
+			for (TextGeneratorLine textLine : segment.getTextGeneratorLines()) {
+				SeedChecker.LOGGER.warn("Received line is not a valid generator (%s), using it as a text seed: %s", textLine.reason(), textLine.content());
+			}
+			for (SeedGenerator generator : segment.getGenerators()) {
+				SeedChecker.LOGGER.warn("Ignoring received generator %s, generators are only read from the seed list", generator.toLine(0));
+			}
+			add(segment.getSeeds(), segment.getSeedCount());
+			received += segment.getSeedCount();
+
+			System.arraycopy(buffer, lineEnd, buffer, 0, filled - lineEnd);
+			filled -= lineEnd;
+		}
+		return received;
+	}
+
+	/**
+	 * Waits until the received seeds that were not used yet are below the limit and appends the seeds to the seed list
+	 */
+	private void add(long[] seeds, int count) throws IOException, InterruptedException {
+		if (count == 0) {
+			return;
+		}
+		while (!serverSocket.isClosed()) {
+			int max = maxQueued.getAsInt();
+			if (max <= 0 || countUnused() < max) {
+				break;
+			}
+			Thread.sleep(BACKPRESSURE_WAIT);
+		}
+		SeedFile file = seedFile.get();
+		long end = file.append(seeds, 0, count);
+		synchronized (appended) {
+			if (appendedTo != file) {
+				appended.clear();
+				appendedTo = file;
+			}
+			appended.add(new Appended(end, count));
+		}
+	}
+
+	/**
+	 * @return The number of received seeds that were not handed out yet
+	 */
+	private long countUnused() {
+		SeedFile file = seedFile.get();
+		long position = file.getPosition();
+		synchronized (appended) {
+			if (appendedTo != file) {
+				// The seed list was replaced, e.g. because it was converted
+				appended.clear();
+				return 0;
+			}
+			while (!appended.isEmpty() && appended.peekFirst().end() <= position) {
+				appended.removeFirst();
+			}
+			long unused = 0;
+			for (Appended seeds : appended) {
+				unused += Math.min(seeds.count(), seeds.end() - position);
+			}
+			return unused;
+		}
+	}
+
+	/**
+	 * Seeds that were appended to the seed list
+	 * @param end The {@link SeedFile#getPosition() position} after the appended seeds
+	 * @param count The number of appended seeds
+	 */
+	private static record Appended(long end, int count) {
+	}
+}
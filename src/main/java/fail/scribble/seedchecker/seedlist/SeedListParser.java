@@ -0,0 +1,367 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import fail.scribble.seedchecker.util.FileRanges;
+import net.minecraft.world.level.levelgen.WorldOptions;
+
+/**
+ * Parses seed lists in parallel.
+ * <p>
+ * The file is split into segments on line boundaries, each segment is memory mapped and parsed on the {@link ForkJoinPool#commonPool() fork join pool}.<br>
+ * Segments are handed to the consumer in order, as soon as they are parsed, so the first seeds are available before the whole file is parsed.
+ * <p>
+ * Numeric seeds are parsed directly from the bytes, only text seeds are converted to strings and passed to {@link WorldOptions#parseSeed(String)}.<br>
+ * Lines starting with <code>range</code> or <code>structure</code> are parsed as {@link SeedGenerator}s.
+ * If they are not valid generators, they are text seeds, like they were before generators were supported.
+ *
+ * @author Scribble
+ */
+public class SeedListParser {
+
+	/**
+	 * The size of one segment in bytes
+	 */
+	private static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+	/**
+	 * The number of bytes that are read at once, while searching for the end of a line
+	 */
+	private static final int SEARCH_SIZE = 64 * 1024;
+
+	/**
+	 * How many segments can be parsed ahead of the consumer
+	 */
+	private static final int MAX_SEGMENTS_AHEAD = ForkJoinPool.getCommonPoolParallelism() * 2 + 1;
+
+	/**
+	 * Parses a file in parallel
+	 * @param file The file to parse
+	 * @param from The position of the first line
+	 * @param to The position after the last byte to parse
+	 * @param includeLastLine Whether a last line that doesn't end with a line break should be parsed
+	 * @param consumer The consumer accepting the segments in order
+	 * @return The number of parsed bytes
+	 * @throws IOException If the file could not be read
+	 */
+	public static long parse(Path file, long from, long to, boolean includeLastLine, SegmentConsumer consumer) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ArrayDeque<CompletableFuture<ParsedSegment>> pending = new ArrayDeque<>();
+			long segmentStart = from;
+			long parsed = 0;
+			long firstLine = 0;
+
+			while (segmentStart < to || !pending.isEmpty()) {
+				while (segmentStart < to && pending.size() < MAX_SEGMENTS_AHEAD) {
+					long segmentEnd = findSegmentEnd(channel, segmentStart, to);
+					boolean last = segmentEnd == to;
+					pending.add(submit(channel, segmentStart, segmentEnd, last && includeLastLine));
+					segmentStart = segmentEnd;
+				}
+
+				ParsedSegment segment;
+				try {
+					segment = pending.poll().join();
+				} catch (CompletionException e) {
+					pending.forEach(future -> future.cancel(false));
+					if (e.getCause() instanceof IOException ioException) {
+						throw ioException;
+					}
+					throw e;
+				}
+				try {
+					consumer.accept(segment, firstLine);
+				} catch (RuntimeException e) {
+					pending.forEach(future -> future.cancel(false));
+					throw e;
+				}
+				firstLine += segment.getLineCount();
+				parsed += segment.getParsedBytes();
+			}
+			return parsed;
+		}
+	}
+
+	/**
+	 * Parses the lines in a byte array on the current thread
+	 * @param data The content of the seed list
+	 * @param from The index of the first byte of the first line
+	 * @param to The index after the last byte to parse
+	 * @param includeLastLine Whether a last line that doesn't end with a line break should be parsed
+	 * @return The parsed segment
+	 */
+	public static ParsedSegment parse(byte[] data, int from, int to, boolean includeLastLine) {
+		return parse(ByteBuffer.wrap(data), from, to, includeLastLine);
+	}
+
+	private static CompletableFuture<ParsedSegment> submit(FileChannel channel, long start, long end, boolean includeLastLine) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				ByteBuffer buffer = channel.map(MapMode.READ_ONLY, start, end - start);
+				return parse(buffer, 0, buffer.limit(), includeLastLine);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Finds the end of a segment, so that the segment ends after a line break
+	 * @param channel The file channel
+	 * @param start The start of the segment
+	 * @param to The end of the range to parse
+	 * @return The position after the line break, or the end of the range
+	 * @throws IOException If the file could not be read
+	 */
+	private static long findSegmentEnd(FileChannel channel, long start, long to) throws IOException {
+		long position = start + SEGMENT_SIZE;
+		while (position < to) {
+			int length = (int) Math.min(SEARCH_SIZE, to - position);
+			byte[] search = FileRanges.read(channel, position, length);
+			for (int i = 0; i < length; i++) {
+				if (search[i] == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += length;
+		}
+		return to;
+	}
+
+	private static ParsedSegment parse(ByteBuffer data, int from, int to, boolean includeLastLine) {
+		ParsedSegment segment = new ParsedSegment((to - from) / 8);
+		int lineStart = from;
+		for (int i = from; i < to; i++) {
+			if (data.get(i) == '\n') {
+				parseLine(data, lineStart, i, segment);
+				lineStart = i + 1;
+			}
+		}
+		if (includeLastLine && lineStart < to) {
+			parseLine(data, lineStart, to, segment);
+			lineStart = to;
+		}
+		segment.parsedBytes = lineStart - from;
+		return segment;
+	}
+
+	private static void parseLine(ByteBuffer data, int start, int end, ParsedSegment segment) {
+		segment.lineCount++;
+		if (end > start && data.get(end - 1) == '\r') {
+			end--;
+		}
+		if (end - start >= 2 && data.get(start) == '/' && data.get(start + 1) == '/') {
+			return;
+		}
+
+		// Same trimming as String#trim
+		int trimmedStart = start;
+		int trimmedEnd = end;
+		while (trimmedStart < trimmedEnd && (data.get(trimmedStart) & 0xFF) <= ' ') {
+			trimmedStart++;
+		}
+		while (trimmedEnd > trimmedStart && (data.get(trimmedEnd - 1) & 0xFF) <= ' ') {
+			trimmedEnd--;
+		}
+
+		OptionalLong number = parseNumber(data, trimmedStart, trimmedEnd);
+		if (number.isPresent()) {
+			segment.add(number.getAsLong());
+			return;
+		}
+
+		byte[] bytes = new byte[end - start];
+		data.get(start, bytes);
+		String line = new String(bytes, StandardCharsets.UTF_8);
+		String trimmed = line.trim();
+		if (SeedGenerator.isGeneratorLine(trimmed)) {
+			try {
+				segment.addGenerator(SeedGenerator.parse(trimmed));
+				return;
+			} catch (IllegalArgumentException e) {
+				segment.textGeneratorLines.add(new TextGeneratorLine(segment.lineCount, line, e.getMessage()));
+			}
+		}
+		OptionalLong opt = WorldOptions.parseSeed(line);
+		if (opt.isPresent()) {
+			segment.add(opt.getAsLong());
+		} else {
+			segment.invalidLines.add(new InvalidLine(segment.lineCount, line));
+		}
+	}
+
+	/**
+	 * Parses a number with at most 18 digits directly from the bytes.<br>
+	 * Longer numbers and text are left to {@link WorldOptions#parseSeed(String)}
+	 * @return The number or an empty optional if the line is not a short number
+	 */
+	private static OptionalLong parseNumber(ByteBuffer data, int start, int end) {
+		if (start == end) {
+			return OptionalLong.empty();
+		}
+		int i = start;
+		byte sign = data.get(i);
+		boolean negative = sign == '-';
+		if (negative || sign == '+') {
+			i++;
+		}
+		int digits = end - i;
+		if (digits == 0 || digits > 18) {
+			return OptionalLong.empty();
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = data.get(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return OptionalLong.empty();
+			}
+			value = value * 10 + digit;
+		}
+		return OptionalLong.of(negative ? -value : value);
+	}
+
+	/**
+	 * Accepts parsed segments in the order of the file
+	 */
+	@FunctionalInterface
+	public static interface SegmentConsumer {
+		/**
+		 * @param segment The parsed segment
+		 * @param firstLine The number of lines before this segment
+		 */
+		public void accept(ParsedSegment segment, long firstLine);
+	}
+
+	/**
+	 * The seeds of a part of the seed list
+	 */
+	public static class ParsedSegment {
+		private long[] seeds;
+		private int seedCount;
+		private int lineCount;
+		private int parsedBytes;
+		private final List<InvalidLine> invalidLines = new ArrayList<>();
+		private final List<TextGeneratorLine> textGeneratorLines = new ArrayList<>();
+
+		/**
+		 * The generators in this segment, each one following {@link #generatorPositions the seeds before it}
+		 */
+		private final List<SeedGenerator> generators = new ArrayList<>();
+		private final List<Integer> generatorPositions = new ArrayList<>();
+
+		private ParsedSegment(int expectedSeeds) {
+			this.seeds = new long[Math.max(expectedSeeds, 16)];
+		}
+
+		private void add(long seed) {
+			if (seedCount == seeds.length) {
+				seeds = Arrays.copyOf(seeds, seeds.length * 2);
+			}
+			seeds[seedCount++] = seed;
+		}
+
+		private void addGenerator(SeedGenerator generator) {
+			generators.add(generator);
+			generatorPositions.add(seedCount);
+		}
+
+		/**
+		 * Iterates over the plain seeds and the generators in the order of the file
+		 * @param seeds The consumer accepting consecutive plain seeds
+		 * @param generators The consumer accepting each generator
+		 */
+		public void forEachPart(SeedRunConsumer seeds, Consumer<SeedGenerator> generators) {
+			int from = 0;
+			for (int i = 0; i < this.generators.size(); i++) {
+				int position = generatorPositions.get(i);
+				if (position > from) {
+					seeds.accept(this.seeds, from, position);
+					from = position;
+				}
+				generators.accept(this.generators.get(i));
+			}
+			if (seedCount > from) {
+				seeds.accept(this.seeds, from, seedCount);
+			}
+		}
+
+		/**
+		 * @return The array containing the plain seeds. Only the first {@link #getSeedCount()} entries are valid
+		 */
+		public long[] getSeeds() {
+			return seeds;
+		}
+
+		/**
+		 * @return The number of plain seeds, not including the seeds of the {@link #getGenerators() generators}
+		 */
+		public int getSeedCount() {
+			return seedCount;
+		}
+
+		public List<SeedGenerator> getGenerators() {
+			return generators;
+		}
+
+		public int getLineCount() {
+			return lineCount;
+		}
+
+		public int getParsedBytes() {
+			return parsedBytes;
+		}
+
+		public List<InvalidLine> getInvalidLines() {
+			return invalidLines;
+		}
+
+		/**
+		 * @return The lines that look like generators but are not valid, which were added as text seeds
+		 */
+		public List<TextGeneratorLine> getTextGeneratorLines() {
+			return textGeneratorLines;
+		}
+	}
+
+	@FunctionalInterface
+	public static interface SeedRunConsumer {
+		/**
+		 * @param seeds The array containing the seeds
+		 * @param from The index of the first seed
+		 * @param to The index after the last seed
+		 */
+		public void accept(long[] seeds, int from, int to);
+	}
+
+	/**
+	 * A line that could not be parsed
+	 * @param line The line number inside the segment, starting at 1
+	 * @param content The content of the line
+	 */
+	public static record InvalidLine(int line, String content) {
+	}
+
+	/**
+	 * A line that starts like a {@link SeedGenerator} but is not a valid one, which is used as a text seed instead
+	 * @param line The line number inside the segment, starting at 1
+	 * @param content The content of the line
+	 * @param reason Why the line is not a valid generator
+	 */
+	public static record TextGeneratorLine(int line, String content, String reason) {
+	}
+}
@@ -0,0 +1,98 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.util.OptionalLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A thread safe first-in-first-out queue of seeds, storing seeds as primitive longs
+ *
+ * @author Scribble
+ */
+public interface SeedQueue {
+
+	/**
+	 * Adds a seed to the end of the queue
+	 * @param seed The seed to add
+	 */
+	public void add(long seed);
+
+	/**
+	 * Adds multiple seeds to the end of the queue
+	 * @param seeds The array containing the seeds
+	 * @param offset The index of the first seed in the array
+	 * @param length The number of seeds to add
+	 */
+	public void addAll(long[] seeds, int offset, int length);
+
+	/**
+	 * Retrieves and removes the first seed in the queue
+	 * @return The first seed or an empty optional if the queue is empty
+	 */
+	public OptionalLong poll();
+
+	/**
+	 * Retrieves the first seed in the queue without removing it
+	 * @return The first seed or an empty optional if the queue is empty
+	 */
+	public OptionalLong peek();
+
+	/**
+	 * Retrieves a seed further down the queue without removing it
+	 * @param index The position in the queue, 0 being the first seed
+	 * @return The seed at that position or an empty optional if the queue is shorter than that
+	 */
+	public OptionalLong peek(long index);
+
+	/**
+	 * Copies seeds further down the queue without removing them
+	 * @param out The array the seeds are copied to, starting at index 0
+	 * @param offset The position in the queue of the first copied seed, 0 being the first seed
+	 * @return The number of copied seeds, at most the length of the array
+	 */
+	public default int peek(long[] out, long offset) {
+		int count = 0;
+		OptionalLong seed;
+		while (count < out.length && (seed = peek(offset + count)).isPresent()) {
+			out[count++] = seed.getAsLong();
+		}
+		return count;
+	}
+
+	/**
+	 * Removes the first seeds in the queue
+	 * @param count The number of seeds to remove
+	 */
+	public default void skip(long count) {
+		long skipped = 0;
+		while (skipped < count && poll().isPresent()) {
+			skipped++;
+		}
+	}
+
+	/**
+	 * @return The number of seeds in the queue, at most {@link Integer#MAX_VALUE}. Use {@link #longSize()} for the exact number
+	 */
+	public int size();
+
+	/**
+	 * @return The exact number of seeds in the queue
+	 */
+	public default long longSize() {
+		return size();
+	}
+
+	public default boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Removes all seeds from the queue
+	 */
+	public void clear();
+
+	/**
+	 * Iterates over a snapshot of the queue in order
+	 * @param consumer The consumer accepting each seed
+	 */
+	public void forEach(LongConsumer consumer);
+}
@@ -0,0 +1,405 @@
+package fail.scribble.seedchecker.seedlist;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import fail.scribble.seedchecker.SeedChecker;
+
+/**
+ * Hands out blocks of a seed list to multiple game instances, that share the same seed list.
+ * <p>
+ * The seed list is split into blocks of {@link #BLOCK_SIZE} seeds. For every block, a memory mapped claim table stores the instance that owns it,
+ * when the owner was last alive, how many seeds of the block were handed out and how many of them were {@link #complete(long) completed}.
+ * Every change to the table happens while holding an exclusive {@link FileLock} on the table, so two instances never claim the same block.
+ * <p>
+ * The owner refreshes the heartbeat of its blocks every {@link #HEARTBEAT_INTERVAL} seconds. A block stays owned until all seeds that were handed out are completed.
+ * If an instance crashes, its blocks expire after {@link #EXPIRY} and are handed out to the next instance, starting at the first seed that was not completed.
+ * <p>
+ * The header stores the first block that is not completed and the first block that was never handed out,
+ * so claiming a block only looks at the blocks in between, instead of every block of the seed list.
+ * <p>
+ * The header also stores the last seed that was handed out, at the end of the handed out part of the seed list.
+ * Appending seeds to the seed list keeps the claims. If that seed is no longer at its index, the seed list changed in front of it and all claims are reset.
+ *
+ * @author Scribble
+ */
+public class SharedClaims {
+
+	public static final int BLOCK_SIZE = 32;
+
+	private static final long MAGIC = 0x5343_434C_4149_4D03L;
+	private static final int HEADER_SIZE = 56;
+	private static final int ENTRY_SIZE = 32;
+
+	private static final int HEADER_MAGIC = 0;
+	private static final int HEADER_BLOCK_SIZE = 8;
+	private static final int HEADER_HANDED_OUT = 16;
+	private static final int HEADER_LAST_SEED = 24;
+	private static final int HEADER_FIRST_UNFINISHED = 32;
+	private static final int HEADER_FIRST_UNTOUCHED = 40;
+	private static final int HEADER_COMPLETED = 48;
+
+	private static final int ENTRY_OWNER = 0;
+	private static final int ENTRY_HEARTBEAT = 8;
+	private static final int ENTRY_HANDED_OUT = 16;
+	private static final int ENTRY_COMPLETED = 24;
+
+	private static final long HEARTBEAT_INTERVAL = 10;
+	private static final long EXPIRY = TimeUnit.SECONDS.toMillis(60);
+
+	private final Path file;
+	private final FileChannel channel;
+	private MappedByteBuffer table;
+
+	/**
+	 * The id of this instance in the claim table. Never 0, which marks a free block
+	 */
+	private final long instanceId;
+
+	/**
+	 * The block that is currently handed out by this instance, or -1
+	 */
+	private long current = -1;
+
+	/**
+	 * The seeds that were handed out by this instance, but not completed yet. Maps the block to a bit mask of the seeds in the block
+	 */
+	private final Map<Long, Integer> pending = new HashMap<>();
+
+	private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "SeedChecker Claims");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * @param file The claim table, shared by all instances
+	 * @throws IOException If the table could not be opened
+	 */
+	public SharedClaims(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long id;
+		do {
+			id = ThreadLocalRandom.current().nextLong();
+		} while (id == 0);
+		this.instanceId = id;
+		map(0);
+		heartbeat.scheduleAtFixedRate(this::beat, HEARTBEAT_INTERVAL, HEARTBEAT_INTERVAL, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Claims the next block with seeds that were not handed out. The previously claimed block is released once its seeds are completed
+	 * @param seeds The entire seed list, used to check that the seeds that were handed out are unchanged. If not, all claims are reset
+	 * @param loadedAll Whether the seeds contain the entire file. If not, a seed list that is shorter than the handed out part is not mistaken for a changed one
+	 * @return The claimed range of seed indices, or null if all seeds are handed out or claimed by other instances
+	 */
+	public synchronized Claim claim(SeedQueue seeds, boolean loadedAll) {
+		long total = seeds.longSize();
+		try (FileLock lock = channel.lock()) {
+			map(blockCount(total));
+			if (table.getLong(HEADER_MAGIC) != MAGIC) {
+				reset();
+			}
+			long handedOutSeeds = table.getLong(HEADER_HANDED_OUT);
+			if (handedOutSeeds > total && !loadedAll) {
+				// Another instance already loaded appended seeds, that are not loaded by this instance yet
+				return null;
+			}
+			OptionalLong lastSeed = handedOutSeeds == 0 ? OptionalLong.empty() : seeds.peek(handedOutSeeds - 1);
+			if (handedOutSeeds > 0 && (lastSeed.isEmpty() || lastSeed.getAsLong() != table.getLong(HEADER_LAST_SEED))) {
+				SeedChecker.LOGGER.info("The shared seed list changed before the last handed out seed, resetting all claims in %s", file.getFileName());
+				reset();
+			}
+			releaseCurrent();
+
+			long now = System.currentTimeMillis();
+			long blocks = blockCount(total);
+			long firstUnfinished = table.getLong(HEADER_FIRST_UNFINISHED);
+			long firstUntouched = table.getLong(HEADER_FIRST_UNTOUCHED);
+			boolean finishedSoFar = true;
+			for (long block = firstUnfinished; block < Math.min(firstUntouched, blocks); block++) {
+				int entry = entry(block);
+				if (table.getLong(entry + ENTRY_COMPLETED) >= BLOCK_SIZE) {
+					if (finishedSoFar) {
+						table.putLong(HEADER_FIRST_UNFINISHED, block + 1);
+					}
+					continue;
+				}
+				finishedSoFar = false;
+
+				long owner = table.getLong(entry + ENTRY_OWNER);
+				boolean expired = owner != 0 && owner != instanceId && now - table.getLong(entry + ENTRY_HEARTBEAT) >= EXPIRY;
+				if (owner != 0 && owner != instanceId && !expired) {
+					continue;
+				}
+				long handedOut = table.getLong(entry + ENTRY_HANDED_OUT);
+				long completed = table.getLong(entry + ENTRY_COMPLETED);
+				if (owner != instanceId && handedOut > completed) {
+					// The seeds of a crashed or closed instance that were not completed are handed out again
+					if (expired) {
+						SeedChecker.LOGGER.info("Taking over expired block %s of the shared seed list", block);
+					}
+					handedOut = completed;
+					table.putLong(entry + ENTRY_HANDED_OUT, handedOut);
+				}
+				long start = block * BLOCK_SIZE;
+				if (handedOut >= BLOCK_SIZE || start + handedOut >= total) {
+					continue;
+				}
+				return take(block, handedOut, total, now);
+			}
+
+			if (firstUntouched < blocks) {
+				table.putLong(HEADER_FIRST_UNTOUCHED, firstUntouched + 1);
+				return take(firstUntouched, 0, total, now);
+			}
+			return null;
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return null;
+		}
+	}
+
+	private Claim take(long block, long handedOut, long total, long now) {
+		int entry = entry(block);
+		table.putLong(entry + ENTRY_OWNER, instanceId);
+		table.putLong(entry + ENTRY_HEARTBEAT, now);
+		current = block;
+		long start = block * BLOCK_SIZE;
+		return new Claim(block, start + handedOut, Math.min(start + BLOCK_SIZE, total));
+	}
+
+	/**
+	 * Counts the seeds that were not completed yet by any instance
+	 * @param total The number of seeds in the seed list
+	 * @return The number of remaining seeds
+	 */
+	public synchronized long countRemaining(long total) {
+		try (FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+			if (table.getLong(HEADER_MAGIC) != MAGIC) {
+				return total;
+			}
+			return Math.max(0, total - table.getLong(HEADER_COMPLETED));
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return 0;
+		}
+	}
+
+	/**
+	 * @return The index after the last seed that was handed out by any instance
+	 */
+	public synchronized long getHandedOutCount() {
+		try (FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+			if (table.getLong(HEADER_MAGIC) != MAGIC) {
+				return 0;
+			}
+			return table.getLong(HEADER_HANDED_OUT);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return 0;
+		}
+	}
+
+	/**
+	 * Records that the next seed of the current block was handed out
+	 * @param seed The seed that is handed out, stored if it is the last handed out seed of the seed list
+	 * @return The index of the seed in the seed list, or -1 if the block is no longer owned by this instance,
+	 *         because it expired and was taken over or the claims were reset
+	 */
+	public synchronized long advance(long seed) {
+		if (current == -1) {
+			return -1;
+		}
+		try (FileLock lock = channel.lock()) {
+			int entry = entry(current);
+			if (!isOwned(current)) {
+				SeedChecker.LOGGER.warn("Lost the claim on block %s of the shared seed list", current);
+				pending.remove(current);
+				current = -1;
+				return -1;
+			}
+			long handedOut = table.getLong(entry + ENTRY_HANDED_OUT);
+			table.putLong(entry + ENTRY_HEARTBEAT, System.currentTimeMillis());
+			table.putLong(entry + ENTRY_HANDED_OUT, handedOut + 1);
+			pending.merge(current, 1 << handedOut, (a, b) -> a | b);
+			long index = current * BLOCK_SIZE + handedOut;
+			if (index >= table.getLong(HEADER_HANDED_OUT)) {
+				table.putLong(HEADER_HANDED_OUT, index + 1);
+				table.putLong(HEADER_LAST_SEED, seed);
+			}
+			return index;
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return -1;
+		}
+	}
+
+	/**
+	 * Records that a seed that was handed out by this instance is done, e.g. because its world loaded.
+	 * Only the seeds in front of the first seed that is not completed count as completed in the table, so a crashed instance can't skip a seed
+	 * @param index The index that was returned by {@link #advance()}
+	 */
+	public synchronized void complete(long index) {
+		long block = index / BLOCK_SIZE;
+		Integer mask = pending.get(block);
+		if (mask == null) {
+			return;
+		}
+		mask &= ~(1 << (int) (index % BLOCK_SIZE));
+		try (FileLock lock = channel.lock()) {
+			if (!isOwned(block)) {
+				pending.remove(block);
+				return;
+			}
+			int entry = entry(block);
+			long completed = mask == 0 ? table.getLong(entry + ENTRY_HANDED_OUT) : Integer.numberOfTrailingZeros(mask);
+			long previous = table.getLong(entry + ENTRY_COMPLETED);
+			if (completed > previous) {
+				table.putLong(entry + ENTRY_COMPLETED, completed);
+				table.putLong(HEADER_COMPLETED, table.getLong(HEADER_COMPLETED) + completed - previous);
+			}
+			if (mask != 0) {
+				pending.put(block, mask);
+			} else {
+				pending.remove(block);
+				if (block != current) {
+					table.putLong(entry + ENTRY_OWNER, 0);
+				}
+			}
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * Releases all blocks of this instance, so other instances can continue them right away.
+	 * Seeds that were handed out but not completed are handed out again
+	 */
+	public synchronized void release() {
+		try (FileLock lock = channel.lock()) {
+			releaseCurrent();
+			for (long block : pending.keySet()) {
+				if (isOwned(block)) {
+					table.putLong(entry(block) + ENTRY_OWNER, 0);
+				}
+			}
+			pending.clear();
+			table.force();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * Stops handing out the current block. It stays owned while seeds of it are pending
+	 */
+	private void releaseCurrent() {
+		if (current == -1) {
+			return;
+		}
+		if (isOwned(current) && !pending.containsKey(current)) {
+			table.putLong(entry(current) + ENTRY_OWNER, 0);
+		}
+		current = -1;
+	}
+
+	private synchronized void beat() {
+		if (current == -1 && pending.isEmpty()) {
+			return;
+		}
+		try (FileLock lock = channel.lock()) {
+			long now = System.currentTimeMillis();
+			if (isOwned(current)) {
+				table.putLong(entry(current) + ENTRY_HEARTBEAT, now);
+			}
+			for (Iterator<Long> iterator = pending.keySet().iterator(); iterator.hasNext();) {
+				long block = iterator.next();
+				if (isOwned(block)) {
+					table.putLong(entry(block) + ENTRY_HEARTBEAT, now);
+				} else {
+					iterator.remove();
+				}
+			}
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * @return Whether the block is in the table and owned by this instance. Has to be called while holding the file lock
+	 */
+	private boolean isOwned(long block) {
+		if (block == -1) {
+			return false;
+		}
+		int entry = entry(block);
+		return entry + ENTRY_SIZE <= table.capacity() && table.getLong(entry + ENTRY_OWNER) == instanceId;
+	}
+
+	/**
+	 * Clears all claims. Has to be called while holding the file lock
+	 */
+	private void reset() {
+		for (int i = HEADER_SIZE; i < table.capacity(); i += Long.BYTES) {
+			table.putLong(i, 0);
+		}
+		table.putLong(HEADER_MAGIC, MAGIC);
+		table.putLong(HEADER_BLOCK_SIZE, BLOCK_SIZE);
+		table.putLong(HEADER_HANDED_OUT, 0);
+		table.putLong(HEADER_LAST_SEED, 0);
+		table.putLong(HEADER_FIRST_UNFINISHED, 0);
+		table.putLong(HEADER_FIRST_UNTOUCHED, 0);
+		table.putLong(HEADER_COMPLETED, 0);
+		current = -1;
+		pending.clear();
+	}
+
+	/**
+	 * Maps the table, so it can hold at least the given number of blocks. The file is never shrunk, as other instances might have mapped it
+	 */
+	private void map(long blocks) throws IOException {
+		long size = Math.max(channel.size(), HEADER_SIZE + blocks * ENTRY_SIZE);
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("The shared seed list is too large for the claim table");
+		}
+		if (table == null || table.capacity() < size) {
+			// Grow in steps, so the table isn't remapped for every appended block
+			long capacity = Math.min(Integer.MAX_VALUE, Math.max(size, table == null ? size : table.capacity() * 2L));
+			table = channel.map(MapMode.READ_WRITE, 0, capacity);
+			table.order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	private static long blockCount(long total) {
+		return (total + BLOCK_SIZE - 1) / BLOCK_SIZE;
+	}
+
+	private static int entry(long block) {
+		return (int) (HEADER_SIZE + block * ENTRY_SIZE);
+	}
+
+	/**
+	 * A claimed range of the seed list
+	 * @param block The index of the block
+	 * @param from The index of the first seed that was not handed out yet
+	 * @param to The index after the last seed of the block, that is currently in the seed list
+	 */
+	public static record Claim(long block, long from, long to) {
+	}
+}
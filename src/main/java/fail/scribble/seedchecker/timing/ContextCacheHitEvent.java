@@ -0,0 +1,26 @@
+package fail.scribble.seedchecker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event marking that the datapacks of a seed were taken from the cache instead of being loaded
+ *
+ * @author Scribble
+ */
+@Name("seedchecker.ContextCacheHit")
+@Label("Context Cache Hit")
+@Category("SeedChecker")
+@Description("The datapacks and registries of a seed were reused from the cache")
+public class ContextCacheHitEvent extends Event {
+
+	@Label("Seed")
+	public long seed;
+
+	@Label("Pending")
+	@Description("Whether the cached datapacks were still loading")
+	public boolean pending;
+}
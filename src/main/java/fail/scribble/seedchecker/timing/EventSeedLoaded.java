@@ -0,0 +1,18 @@
+package fail.scribble.seedchecker.timing;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.api.event.EventFactory;
+
+/**
+ * Fired on the client thread, once the first frame of a new seed was rendered
+ *
+ * @author Scribble
+ */
+public interface EventSeedLoaded {
+	public static Event<EventSeedLoaded> EVENT = EventFactory.createArrayBacked(EventSeedLoaded.class, (listeners) -> (timings) -> {
+		for (EventSeedLoaded listener : listeners)
+			listener.onSeedLoaded(timings);
+	});
+
+	public void onSeedLoaded(LoadTimings timings);
+}
@@ -0,0 +1,26 @@
+package fail.scribble.seedchecker.timing;
+
+/**
+ * The stages of loading a new seed. Each stage is measured from the end of the previous one.
+ * The previous world is only left once the new world is prepared, so {@link #DISCONNECT} happens after {@link #DATAPACK_LOAD}
+ *
+ * @author Scribble
+ */
+public enum LoadStage {
+	DISCONNECT("Disconnect and save"),
+	DIRECTORY_CREATION("Directory creation"),
+	DATAPACK_LOAD("Datapack load"),
+	LEVEL_CREATION("Level creation"),
+	SPAWN_CHUNKS("Spawn chunks"),
+	FIRST_FRAME("First frame");
+
+	private final String displayName;
+
+	private LoadStage(String displayName) {
+		this.displayName = displayName;
+	}
+
+	public String getDisplayName() {
+		return displayName;
+	}
+}
@@ -0,0 +1,25 @@
+package fail.scribble.seedchecker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning one {@link LoadStage} of loading a seed
+ *
+ * @author Scribble
+ */
+@Name("seedchecker.LoadStage")
+@Label("Seed Load Stage")
+@Category("SeedChecker")
+@Description("A stage of loading a new seed, as seen from the client thread")
+public class LoadStageEvent extends Event {
+
+	@Label("Seed")
+	public long seed;
+
+	@Label("Stage")
+	public String stage;
+}
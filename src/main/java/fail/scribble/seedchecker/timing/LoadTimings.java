@@ -0,0 +1,150 @@
+package fail.scribble.seedchecker.timing;
+
+import java.util.Arrays;
+
+import fail.scribble.seedchecker.SeedChecker;
+
+/**
+ * Measures how long each {@link LoadStage} of loading a seed takes.
+ * <p>
+ * Stages are marked once they are finished, the duration of a stage is the time since the previous mark.<br>
+ * The integrated server marks its stages on the server thread, so only one load is tracked at a time in {@link #current}.
+ * <p>
+ * Every stage is also committed as a {@link LoadStageEvent} and the entire load as a {@link SeedLoadEvent}, to be inspected in a flight recording.
+ *
+ * @author Scribble
+ */
+public class LoadTimings {
+
+	private static final LoadStage[] STAGES = LoadStage.values();
+
+	/**
+	 * The load that is currently in progress, or null if no seed is loading
+	 */
+	private static volatile LoadTimings current;
+
+	private final long seed;
+	private final long startTime;
+	private long lastMark;
+
+	/**
+	 * The duration of each stage in nanoseconds, or -1 if the stage was not marked
+	 */
+	private final long[] durations = new long[STAGES.length];
+
+	private final SeedLoadEvent loadEvent = new SeedLoadEvent();
+	private LoadStageEvent stageEvent = new LoadStageEvent();
+
+	private LoadTimings(long seed) {
+		this.seed = seed;
+		this.startTime = System.nanoTime();
+		this.lastMark = startTime;
+		Arrays.fill(durations, -1);
+		loadEvent.begin();
+		stageEvent.begin();
+	}
+
+	/**
+	 * Starts measuring a new load, replacing any unfinished load
+	 * @param seed The seed that is loaded
+	 * @return The new timings
+	 */
+	public static LoadTimings start(long seed) {
+		LoadTimings timings = new LoadTimings(seed);
+		current = timings;
+		return timings;
+	}
+
+	/**
+	 * Stops measuring the current load without firing {@link EventSeedLoaded}
+	 */
+	public static void cancel() {
+		current = null;
+	}
+
+	/**
+	 * @return The load that is currently in progress, or null
+	 */
+	public static LoadTimings current() {
+		return current;
+	}
+
+	/**
+	 * Marks a stage of the current load as finished, if a seed is loading
+	 * @param stage The finished stage
+	 */
+	public static void markCurrent(LoadStage stage) {
+		LoadTimings timings = current;
+		if (timings != null) {
+			timings.mark(stage);
+		}
+	}
+
+	/**
+	 * Marks a stage as finished. Marking the last stage finishes the load and fires {@link EventSeedLoaded}
+	 * @param stage The finished stage
+	 */
+	public void mark(LoadStage stage) {
+		synchronized (this) {
+			if (durations[stage.ordinal()] != -1) {
+				return;
+			}
+			long now = System.nanoTime();
+			durations[stage.ordinal()] = now - lastMark;
+			lastMark = now;
+
+			stageEvent.seed = seed;
+			stageEvent.stage = stage.getDisplayName();
+			stageEvent.commit();
+			stageEvent = new LoadStageEvent();
+			stageEvent.begin();
+		}
+		if (stage == STAGES[STAGES.length - 1] && current == this) {
+			current = null;
+			loadEvent.seed = seed;
+			loadEvent.commit();
+			SeedChecker.LOGGER.info("Loaded seed %s in %.1fms (%s)", seed, toMillis(getTotal()), this);
+			EventSeedLoaded.EVENT.invoker().onSeedLoaded(this);
+		}
+	}
+
+	public synchronized boolean isMarked(LoadStage stage) {
+		return durations[stage.ordinal()] != -1;
+	}
+
+	/**
+	 * @param stage The stage
+	 * @return The duration of the stage in nanoseconds, or -1 if the stage was not marked
+	 */
+	public synchronized long getDuration(LoadStage stage) {
+		return durations[stage.ordinal()];
+	}
+
+	/**
+	 * @return The time between the start and the last mark in nanoseconds
+	 */
+	public synchronized long getTotal() {
+		return lastMark - startTime;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public static double toMillis(long nanos) {
+		return nanos / 1_000_000D;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder builder = new StringBuilder();
+		for (LoadStage stage : STAGES) {
+			if (builder.length() > 0) {
+				builder.append(", ");
+			}
+			long duration = durations[stage.ordinal()];
+			builder.append(String.format("%s: %s", stage.getDisplayName(), duration == -1 ? "-" : String.format("%.1fms", toMillis(duration))));
+		}
+		return builder.toString();
+	}
+}
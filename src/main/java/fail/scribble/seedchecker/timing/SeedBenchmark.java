@@ -0,0 +1,205 @@
+package fail.scribble.seedchecker.timing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Random;
+
+import fail.scribble.seedchecker.SCWorldLoader;
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.SeedChecker.SeedCheckerConfigOptions;
+import fail.scribble.seedchecker.SeedFile;
+import net.minecraft.ChatFormatting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.chat.Component;
+
+/**
+ * Loads a fixed corpus of seeds one after another and reports how long each {@link LoadStage} took and how many seeds can be checked per hour.
+ * <p>
+ * The corpus is generated once from a fixed random seed, so the numbers of different runs and mod versions can be compared.<br>
+ * Seeds are loaded through a separate {@link SeedFile}, the progress of the actual seed list is not touched.
+ * The corpus is not prescreened, so every seed is loaded regardless of the config. The options that differ from the default are written to the results
+ *
+ * @author Scribble
+ */
+public class SeedBenchmark {
+
+	/**
+	 * The number of seeds in a newly generated corpus
+	 */
+	private static final int CORPUS_SIZE = 20;
+
+	/**
+	 * The seed of the random generating the corpus
+	 */
+	private static final long CORPUS_RANDOM_SEED = 0L;
+
+	private final Path corpusFile;
+	private final Path resultFile;
+
+	private SeedFile corpus;
+	private final List<LoadTimings> results = new ArrayList<>();
+
+	private boolean running;
+
+	/**
+	 * Whether the next seed should be loaded on the next game loop
+	 */
+	private boolean loadNext;
+
+	private long startTime;
+	private long endTime;
+
+	/**
+	 * @param corpusFile The seed list containing the corpus, is generated if it doesn't exist
+	 * @param resultFile The file the results are appended to
+	 */
+	public SeedBenchmark(Path corpusFile, Path resultFile) {
+		this.corpusFile = corpusFile;
+		this.resultFile = resultFile;
+	}
+
+	/**
+	 * Starts the benchmark on the next game loop
+	 * @return False if the benchmark is already running or the corpus could not be created
+	 */
+	public boolean start() {
+		if (running) {
+			return false;
+		}
+		try {
+			createCorpus();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+			return false;
+		}
+		SeedChecker.LOGGER.info("Starting benchmark with %s", corpusFile);
+		corpus = new SeedFile(corpusFile, corpusFile.resolveSibling(corpusFile.getFileName() + ".progress"), null, null, false);
+		results.clear();
+		startTime = 0;
+		running = true;
+		loadNext = true;
+		return true;
+	}
+
+	/**
+	 * Stops the benchmark after the current seed and reports the seeds that were loaded so far
+	 * @return False if the benchmark is not running
+	 */
+	public boolean stop() {
+		if (!running) {
+			return false;
+		}
+		running = false;
+		loadNext = false;
+		report(Minecraft.getInstance());
+		return true;
+	}
+
+	public void onGameLoop(Minecraft mc) {
+		if (!running || !loadNext || corpus.isLoading()) {
+			return;
+		}
+		loadNext = false;
+
+		OptionalLong seed = corpus.poll();
+		if (seed.isEmpty()) {
+			stop();
+			return;
+		}
+		if (startTime == 0) {
+			startTime = System.nanoTime();
+		}
+		SCWorldLoader.loadWorld(seed.getAsLong());
+		corpus.seedList.peek().ifPresent(SCWorldLoader::prefetch);
+	}
+
+	public void onSeedLoaded(LoadTimings timings) {
+		if (!running) {
+			return;
+		}
+		results.add(timings);
+		endTime = System.nanoTime();
+		loadNext = true;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void createCorpus() throws IOException {
+		if (Files.exists(corpusFile)) {
+			return;
+		}
+		SeedChecker.LOGGER.info("Creating benchmark corpus %s", corpusFile);
+		Random random = new Random(CORPUS_RANDOM_SEED);
+		StringBuilder builder = new StringBuilder("// The seeds loaded by the benchmark. Delete this file to generate the default corpus again\n");
+		for (int i = 0; i < CORPUS_SIZE; i++) {
+			builder.append(random.nextLong()).append('\n');
+		}
+		Files.createDirectories(corpusFile.getParent());
+		Files.writeString(corpusFile, builder, StandardCharsets.UTF_8);
+	}
+
+	private void report(Minecraft mc) {
+		if (results.isEmpty()) {
+			SeedChecker.LOGGER.warn("Benchmark stopped before a seed was loaded");
+			return;
+		}
+		double hours = (endTime - startTime) / 3_600_000_000_000D;
+		double seedsPerHour = results.size() / hours;
+
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("Benchmark %s, %s seeds from %s", LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME), results.size(), corpusFile.getFileName()));
+		lines.add(String.format("Settings: %s", describeSettings()));
+		lines.add(String.format("Seeds per hour: %.1f", seedsPerHour));
+		for (LoadStage stage : LoadStage.values()) {
+			long total = 0;
+			long max = 0;
+			int count = 0;
+			for (LoadTimings timings : results) {
+				long duration = timings.getDuration(stage);
+				if (duration != -1) {
+					total += duration;
+					max = Math.max(max, duration);
+					count++;
+				}
+			}
+			double average = count == 0 ? 0 : LoadTimings.toMillis(total) / count;
+			lines.add(String.format("%s: average %.1fms, max %.1fms", stage.getDisplayName(), average, LoadTimings.toMillis(max)));
+		}
+		lines.add("");
+
+		lines.forEach(SeedChecker.LOGGER::info);
+		try {
+			Files.write(resultFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+
+		if (mc.gui != null) {
+			mc.gui.getChat().addMessage(Component.literal(String.format("Benchmark finished: %.1f seeds per hour over %s seeds, see %s", seedsPerHour, results.size(), resultFile)).withStyle(ChatFormatting.WHITE));
+		}
+	}
+
+	/**
+	 * @return The config options that differ from their default, so results of different configs can be told apart
+	 */
+	private static String describeSettings() {
+		List<String> changed = new ArrayList<>();
+		for (SeedCheckerConfigOptions option : SeedCheckerConfigOptions.values()) {
+			String value = SeedChecker.config.get(option);
+			if (!value.equals(option.getDefaultValue())) {
+				changed.add(option.getConfigKey() + "=" + value);
+			}
+		}
+		return changed.isEmpty() ? "default" : String.join(", ", changed);
+	}
+}
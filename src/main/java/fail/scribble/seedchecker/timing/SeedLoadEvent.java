@@ -0,0 +1,22 @@
+package fail.scribble.seedchecker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning the entire load of a seed, until the player is in the world
+ *
+ * @author Scribble
+ */
+@Name("seedchecker.SeedLoad")
+@Label("Seed Load")
+@Category("SeedChecker")
+@Description("Loading a new seed, from pressing the key until the first frame in the world")
+public class SeedLoadEvent extends Event {
+
+	@Label("Seed")
+	public long seed;
+}
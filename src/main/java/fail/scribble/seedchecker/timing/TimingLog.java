@@ -0,0 +1,97 @@
+package fail.scribble.seedchecker.timing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.Util;
+
+/**
+ * Appends the {@link LoadTimings} of every loaded seed to a csv file.
+ * <p>
+ * Once the file grows larger than {@link #MAX_SIZE}, it is rolled over to <code>timings.1.csv</code>, <code>timings.2.csv</code> and so on,
+ * keeping at most {@link #MAX_BACKUPS} old files.
+ *
+ * @author Scribble
+ */
+public class TimingLog {
+
+	private static final long MAX_SIZE = 1024 * 1024;
+	private static final int MAX_BACKUPS = 3;
+
+	private final Path file;
+
+	public TimingLog(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * Appends the timings on a background thread
+	 * @param timings The timings of the loaded seed
+	 */
+	public void onSeedLoaded(LoadTimings timings) {
+		String row = toRow(timings);
+		CompletableFuture.runAsync(() -> append(row), Util.ioPool());
+	}
+
+	private synchronized void append(String row) {
+		try {
+			if (Files.exists(file) && Files.size(file) > MAX_SIZE) {
+				roll();
+			}
+			if (!Files.exists(file)) {
+				Files.createDirectories(file.getParent());
+				Files.writeString(file, createHeader(), StandardCharsets.UTF_8);
+			}
+			Files.writeString(file, row, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	private void roll() throws IOException {
+		for (int i = MAX_BACKUPS - 1; i >= 1; i--) {
+			Path backup = getBackup(i);
+			if (Files.exists(backup)) {
+				Files.move(backup, getBackup(i + 1), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		Files.move(file, getBackup(1), StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	private Path getBackup(int index) {
+		String fileName = file.getFileName().toString();
+		int extension = fileName.lastIndexOf('.');
+		String backupName = extension == -1 ? fileName + "." + index : fileName.substring(0, extension) + "." + index + fileName.substring(extension);
+		return file.resolveSibling(backupName);
+	}
+
+	private static String createHeader() {
+		StringBuilder builder = new StringBuilder("time,seed");
+		for (LoadStage stage : LoadStage.values()) {
+			builder.append(',').append(stage.name().toLowerCase(Locale.ROOT)).append("_ms");
+		}
+		return builder.append(",total_ms\n").toString();
+	}
+
+	private static String toRow(LoadTimings timings) {
+		StringBuilder builder = new StringBuilder();
+		builder.append(LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)).append(',').append(timings.getSeed());
+		for (LoadStage stage : LoadStage.values()) {
+			long duration = timings.getDuration(stage);
+			builder.append(',');
+			if (duration != -1) {
+				builder.append(String.format(Locale.ROOT, "%.2f", LoadTimings.toMillis(duration)));
+			}
+		}
+		return builder.append(String.format(Locale.ROOT, ",%.2f\n", LoadTimings.toMillis(timings.getTotal()))).toString();
+	}
+}
@@ -0,0 +1,39 @@
+package fail.scribble.seedchecker.timing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event spanning a single step of preparing or creating the world of a seed
+ *
+ * @author Scribble
+ */
+@Name("seedchecker.WorldTask")
+@Label("World Task")
+@Category("SeedChecker")
+@Description("A single step of preparing or creating the world of a seed")
+public class WorldTaskEvent extends Event {
+
+	@Label("Seed")
+	public long seed;
+
+	@Label("Task")
+	public String task;
+
+	/**
+	 * Creates and begins a new event
+	 * @param task The name of the task
+	 * @param seed The seed the task is done for
+	 * @return The started event, commit it once the task is finished
+	 */
+	public static WorldTaskEvent start(String task, long seed) {
+		WorldTaskEvent event = new WorldTaskEvent();
+		event.task = task;
+		event.seed = seed;
+		event.begin();
+		return event;
+	}
+}
@@ -0,0 +1,89 @@
+package fail.scribble.seedchecker.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Helper methods for reading parts of a file, without reading the entire file
+ *
+ * @author Scribble
+ */
+public class FileRanges {
+
+	/**
+	 * The number of bytes that are read at once while calculating a checksum
+	 */
+	private static final int CHECKSUM_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Reads a range of bytes from a file
+	 * @param channel The channel of the file
+	 * @param position The position of the first byte
+	 * @param length The number of bytes to read
+	 * @return The bytes in the range
+	 * @throws IOException If the file is shorter than the range
+	 */
+	public static byte[] read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new EOFException("Reached the end of the file while reading " + length + " bytes at " + position);
+			}
+		}
+		return buffer.array();
+	}
+
+	/**
+	 * Calculates the CRC32 checksum of a range of bytes in a file
+	 * @param channel The channel of the file
+	 * @param from The position of the first byte
+	 * @param to The position after the last byte
+	 * @return The checksum of the range
+	 * @throws IOException If the file is shorter than the range
+	 */
+	public static long checksum(FileChannel channel, long from, long to) throws IOException {
+		CRC32 crc = new CRC32();
+		update(crc, channel, from, to);
+		return crc.getValue();
+	}
+
+	/**
+	 * Adds a range of bytes in a file to a CRC32 checksum, reading the range in parts
+	 * @param crc The checksum to update
+	 * @param channel The channel of the file
+	 * @param from The position of the first byte
+	 * @param to The position after the last byte
+	 * @throws IOException If the file is shorter than the range
+	 */
+	public static void update(CRC32 crc, FileChannel channel, long from, long to) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(CHECKSUM_BUFFER_SIZE, Math.max(0, to - from)));
+		long position = from;
+		while (position < to) {
+			buffer.clear().limit((int) Math.min(buffer.capacity(), to - position));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					throw new EOFException("Reached the end of the file while reading " + (to - from) + " bytes at " + from);
+				}
+			}
+			buffer.flip();
+			position += buffer.remaining();
+			crc.update(buffer);
+		}
+	}
+
+	/**
+	 * Calculates the CRC32 checksum of a range of bytes in an array
+	 * @param data The array containing the bytes
+	 * @param from The index of the first byte
+	 * @param to The index after the last byte
+	 * @return The checksum of the range
+	 */
+	public static long checksum(byte[] data, int from, int to) {
+		CRC32 crc = new CRC32();
+		crc.update(data, from, to - from);
+		return crc.getValue();
+	}
+}
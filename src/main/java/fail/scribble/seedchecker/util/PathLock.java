@@ -1,48 +1,68 @@
 package fail.scribble.seedchecker.util;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import fail.scribble.seedchecker.SeedChecker;
+
 /**
  * Locks certain paths from being called during a modify file event.<br>
- * The lock lasts for 1000 ms and each path has it's own timer.
- * 
+ * After writing a file, the size, modification time and a checksum of the end of the file are captured.
+ * Modify events are skipped as long as the file still matches, regardless of how long the write took.
+ *
  * @author Scribble
  *
  */
 public class PathLock {
 
+	/**
+	 * The number of bytes at the end of the file that are included in the checksum
+	 */
+	private static final int CHECKSUM_WINDOW = 4096;
+
 	/**
 	 * A list of locks
 	 */
-	private Map<Path, Long> locks = Collections.synchronizedMap(new HashMap<>());
+	private Map<Path, Fingerprint> locks = Collections.synchronizedMap(new HashMap<>());
 
 	/**
-	 * Locks the path and captures the current time
+	 * Locks the path and captures the current state of the file. Has to be called after writing the file
 	 * @param path The path to lock
 	 */
 	public void scheduleAndLock(Path path) {
-		locks.put(path, System.currentTimeMillis());
+		try {
+			locks.put(path, Fingerprint.of(path));
+		} catch (IOException e) {
+			locks.remove(path);
+		}
 	}
 
 	/**
-	 * Checks if the path is locked and should be skipped
+	 * Checks if the path is locked and should be skipped.<br>
+	 * Once the file changed, the lock is removed
 	 * @param path The path to check for
 	 * @return If the path is locked
 	 */
 	public boolean isLocked(Path path) {
-		if (locks.containsKey(path)) {
-			long startTime = locks.get(path);
-			if (System.currentTimeMillis() - startTime > 1000) {
-				locks.remove(path);
-				return false;
-			} else {
+		Fingerprint fingerprint = locks.get(path);
+		if (fingerprint == null) {
+			return false;
+		}
+		try {
+			if (fingerprint.equals(Fingerprint.of(path))) {
 				return true;
 			}
-
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
 		}
+		locks.remove(path);
 		return false;
 	}
 
@@ -50,4 +70,21 @@ public class PathLock {
 	public String toString() {
 		return locks.toString();
 	}
-}
\ No newline at end of file
+
+	/**
+	 * The state of a file after it was written
+	 * @param size The size of the file in bytes
+	 * @param modified The last modification time
+	 * @param checksum The checksum of the last {@link PathLock#CHECKSUM_WINDOW} bytes
+	 */
+	private static record Fingerprint(long size, FileTime modified, long checksum) {
+
+		private static Fingerprint of(Path path) throws IOException {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				long size = channel.size();
+				long checksum = FileRanges.checksum(channel, Math.max(0, size - CHECKSUM_WINDOW), size);
+				return new Fingerprint(size, Files.getLastModifiedTime(path), checksum);
+			}
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.file.PathUtils;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.mixin.AccessorMinecraftServer;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.server.level.progress.ChunkProgressListener;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.biome.BiomeManager;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.level.dimension.LevelStem;
+import net.minecraft.world.level.storage.DerivedLevelData;
+
+/**
+ * A temporary overworld of a different seed, created inside a running server, so the {@link fail.scribble.seedchecker.check.SeedCheck checks} of a seed
+ * can be evaluated without rendering and without restarting the server.
+ * <p>
+ * The level is added to the levels of the server, so the server drives it's chunk generation, and is removed again once the seed was checked.
+ * Its chunks are never saved and it's dimension folder is deleted when the level is discarded.<br>
+ * The seed of the level is looked up by {@link fail.scribble.seedchecker.mixin.MixinServerLevel} while the level is created, since the server would
+ * otherwise use the seed of it's own world.
+ *
+ * @author Scribble
+ */
+public class BatchLevel {
+
+	/**
+	 * The namespace of the dimensions of batch levels
+	 */
+	private static final String NAMESPACE = "seedchecker";
+
+	/**
+	 * The seeds of all batch levels that exist, by their dimension
+	 */
+	private static final Map<ResourceKey<Level>, Long> SEEDS = new ConcurrentHashMap<>();
+
+	private static final AtomicInteger nextId = new AtomicInteger();
+
+	private final MinecraftServer server;
+	private final ServerLevel level;
+
+	private BatchLevel(MinecraftServer server, ServerLevel level) {
+		this.server = server;
+		this.level = level;
+	}
+
+	/**
+	 * Creates a level for the seed and adds it to the server. Has to be called on the server thread
+	 * @param server The server the level is added to
+	 * @param generator The overworld generator
+	 * @param seed The seed of the level
+	 * @param spawn The spawn position of the seed
+	 * @return The created level
+	 */
+	public static BatchLevel create(MinecraftServer server, ChunkGenerator generator, long seed, BlockPos spawn) {
+		ResourceKey<Level> dimension = ResourceKey.create(Registries.DIMENSION, ResourceLocation.fromNamespaceAndPath(NAMESPACE, "batch_" + nextId.getAndIncrement()));
+		AccessorMinecraftServer accessor = (AccessorMinecraftServer) server;
+		LevelStem stem = new LevelStem(server.overworld().dimensionTypeRegistration(), generator);
+		SpawnLevelData levelData = new SpawnLevelData(server, spawn);
+
+		SEEDS.put(dimension, seed);
+		ServerLevel level;
+		try {
+			level = new ServerLevel(server, Util.backgroundExecutor(), accessor.getStorageSource(), levelData, dimension, stem, new SilentProgressListener(), false, BiomeManager.obfuscateSeed(seed), List.of(), false, null);
+		} catch (RuntimeException e) {
+			SEEDS.remove(dimension);
+			throw e;
+		}
+		accessor.getLevels().put(dimension, level);
+		return new BatchLevel(server, level);
+	}
+
+	/**
+	 * Generates all chunks in a square around spawn. Has to be called on the server thread
+	 * @param radius The radius in chunks
+	 * @return A future that completes once all chunks are generated
+	 */
+	public CompletableFuture<?> generateChunks(int radius) {
+		ServerChunkCache chunkSource = level.getChunkSource();
+		ChunkPos spawn = new ChunkPos(level.getSharedSpawnPos());
+		List<CompletableFuture<?>> chunks = new ArrayList<>();
+		for (int x = -radius; x <= radius; x++) {
+			for (int z = -radius; z <= radius; z++) {
+				ChunkPos chunk = new ChunkPos(spawn.x + x, spawn.z + z);
+				// The ticket keeps the chunk loaded until the level is discarded
+				chunkSource.addTicketWithRadius(TicketType.PLAYER_LOADING, chunk, 0);
+				chunks.add(chunkSource.getChunkFuture(chunk.x, chunk.z, ChunkStatus.FULL, true));
+			}
+		}
+		return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new));
+	}
+
+	/**
+	 * Removes the level from the server, closes it and deletes it's dimension folder. Has to be called on the server thread
+	 */
+	public void discard() {
+		ResourceKey<Level> dimension = level.dimension();
+		AccessorMinecraftServer accessor = (AccessorMinecraftServer) server;
+		accessor.getLevels().remove(dimension);
+		try {
+			level.close();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not close the batch level %s", dimension.location());
+			SeedChecker.LOGGER.catching(e);
+		}
+		SEEDS.remove(dimension);
+		delete(accessor.getStorageSource().getDimensionPath(dimension));
+	}
+
+	public ServerLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * Deletes the dimension folders of batch levels that were left behind, e.g. because the server stopped during a batch
+	 * @param server The server of the world
+	 */
+	public static void deleteLeftovers(MinecraftServer server) {
+		Path dimension = ((AccessorMinecraftServer) server).getStorageSource().getDimensionPath(ResourceKey.create(Registries.DIMENSION, ResourceLocation.fromNamespaceAndPath(NAMESPACE, "batch")));
+		delete(dimension.getParent());
+	}
+
+	/**
+	 * @param dimension The dimension of a level
+	 * @return Whether the level is a batch level
+	 */
+	public static boolean isBatchLevel(ResourceKey<Level> dimension) {
+		return SEEDS.containsKey(dimension);
+	}
+
+	/**
+	 * @param dimension The dimension of a level
+	 * @param worldSeed The seed of the world of the server
+	 * @return The seed of the batch level, or the world seed if the level is not a batch level
+	 */
+	public static long getSeed(ResourceKey<Level> dimension, long worldSeed) {
+		return SEEDS.getOrDefault(dimension, worldSeed);
+	}
+
+	private static void delete(Path folder) {
+		if (!Files.isDirectory(folder)) {
+			return;
+		}
+		try {
+			PathUtils.deleteDirectory(folder);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.error("Could not delete %s", folder);
+			SeedChecker.LOGGER.catching(e);
+		}
+	}
+
+	/**
+	 * The level data of the overworld, with the spawn of the checked seed
+	 */
+	private static class SpawnLevelData extends DerivedLevelData {
+
+		private final BlockPos spawn;
+
+		private SpawnLevelData(MinecraftServer server, BlockPos spawn) {
+			super(server.getWorldData(), server.getWorldData().overworldData());
+			this.spawn = spawn;
+		}
+
+		@Override
+		public BlockPos getSpawnPos() {
+			return spawn;
+		}
+
+		@Override
+		public float getSpawnAngle() {
+			return 0;
+		}
+	}
+
+	/**
+	 * Batch levels don't prepare a spawn area, so there is no progress to report
+	 */
+	private static class SilentProgressListener implements ChunkProgressListener {
+
+		@Override
+		public void updateSpawnPos(ChunkPos center) {
+		}
+
+		@Override
+		public void onStatusChange(ChunkPos chunkPosition, ChunkStatus newStatus) {
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void stop() {
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.biome.Biome;
+
+/**
+ * Matches a biome by it's id like <code>minecraft:plains</code> or by a biome tag like <code>#minecraft:is_ocean</code>
+ *
+ * @author Scribble
+ */
+public class BiomeMatcher implements Predicate<Holder<Biome>> {
+
+	/**
+	 * The string this matcher was parsed from, used in logging and as a column name
+	 */
+	private final String name;
+
+	private final Predicate<Holder<Biome>> predicate;
+
+	private BiomeMatcher(String name, Predicate<Holder<Biome>> predicate) {
+		this.name = name;
+		this.predicate = predicate;
+	}
+
+	/**
+	 * Parses a single biome or biome tag
+	 * @param value The biome id, or a tag with a leading #
+	 * @return The biome matcher
+	 * @throws IllegalArgumentException If the id is not a valid resource location
+	 */
+	public static BiomeMatcher parse(String value) {
+		String trimmed = value.trim();
+		try {
+			if (trimmed.startsWith("#")) {
+				TagKey<Biome> tag = TagKey.create(Registries.BIOME, ResourceLocation.parse(trimmed.substring(1)));
+				return new BiomeMatcher(trimmed, biome -> biome.is(tag));
+			}
+			ResourceLocation location = ResourceLocation.parse(trimmed);
+			return new BiomeMatcher(trimmed, biome -> biome.is(location));
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid biome " + trimmed, e);
+		}
+	}
+
+	/**
+	 * Parses a comma separated list of biomes and biome tags. Empty entries are ignored
+	 * @param value The comma separated list
+	 * @return The list of biome matchers
+	 * @throws IllegalArgumentException If one of the ids is not a valid resource location
+	 */
+	public static List<BiomeMatcher> parseList(String value) {
+		List<BiomeMatcher> out = new ArrayList<>();
+		for (String entry : value.split(",")) {
+			if (!entry.isBlank()) {
+				out.add(parse(entry));
+			}
+		}
+		return out;
+	}
+
+	@Override
+	public boolean test(Holder<Biome> biome) {
+		return predicate.test(biome);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,206 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Generates the chunks around spawn in the background, after a seed was loaded.
+ * <p>
+ * Chunks are requested on the server thread, at most {@link #MAX_IN_FLIGHT} at a time and only after a tick that finished within {@link #TICK_BUDGET}, so the
+ * generation never delays the ticks of the world.<br>
+ * The remaining chunks are sorted by their distance to the player, chunks in the view direction of the player count as closer and are generated first.
+ * <p>
+ * {@link #cancel()} drops all remaining chunks right away, so the next seed doesn't wait for them.
+ *
+ * @author Scribble
+ */
+public class ChunkPregenerator {
+
+	/**
+	 * The maximum number of chunks that are generating at the same time
+	 */
+	private static final int MAX_IN_FLIGHT = 4;
+
+	/**
+	 * New chunks are only requested if the last tick took less than this
+	 */
+	private static final long TICK_BUDGET = TimeUnit.MILLISECONDS.toNanos(25);
+
+	/**
+	 * The number of ticks after which the remaining chunks are sorted again, to follow the movement of the player
+	 */
+	private static final int SORT_INTERVAL = 20;
+
+	/**
+	 * The area that is generated, or null if nothing is generated
+	 */
+	private volatile Run current;
+
+	/**
+	 * Incremented on every cancel, so a start that is still waiting for the server thread doesn't begin afterwards
+	 */
+	private volatile int generation;
+
+	private long tickStart;
+	private long lastTickDuration;
+
+	/**
+	 * Starts generating the chunks around the spawn of the overworld, replacing any unfinished generation
+	 * @param server The server of the world
+	 * @param shape The shape of the area
+	 * @param radius The outer radius in chunks
+	 * @param innerRadius The radius in chunks around spawn that is skipped, to only generate a ring
+	 */
+	public void start(MinecraftServer server, Shape shape, int radius, int innerRadius) {
+		int startGeneration = generation;
+		server.execute(() -> {
+			if (generation != startGeneration) {
+				return;
+			}
+			ServerLevel level = server.overworld();
+			ChunkPos spawn = new ChunkPos(level.getSharedSpawnPos());
+			List<ChunkPos> chunks = new ArrayList<>();
+			for (int x = -radius; x <= radius; x++) {
+				for (int z = -radius; z <= radius; z++) {
+					if (shape.contains(x, z, radius) && !shape.contains(x, z, innerRadius - 1)) {
+						chunks.add(new ChunkPos(spawn.x + x, spawn.z + z));
+					}
+				}
+			}
+			SeedChecker.LOGGER.info("Pregenerating %s chunks around spawn", chunks.size());
+			current = new Run(level, chunks);
+		});
+	}
+
+	/**
+	 * Drops all chunks that were not requested yet
+	 */
+	public void cancel() {
+		generation++;
+		Run run = current;
+		current = null;
+		if (run != null && !run.pending.isEmpty()) {
+			SeedChecker.LOGGER.info("Cancelled pregenerating after %s of %s chunks", run.generated, run.total);
+		}
+	}
+
+	public void onTickStart(MinecraftServer server) {
+		tickStart = System.nanoTime();
+	}
+
+	public void onTickEnd(MinecraftServer server) {
+		lastTickDuration = System.nanoTime() - tickStart;
+		Run run = current;
+		if (run == null || run.level.getServer() != server) {
+			return;
+		}
+		if (run.pending.isEmpty()) {
+			if (run.inFlight == 0) {
+				SeedChecker.LOGGER.info("Pregenerated %s chunks in %ss", run.total, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - run.startTime));
+				current = null;
+			}
+			return;
+		}
+		if (lastTickDuration > TICK_BUDGET) {
+			return;
+		}
+
+		if (run.ticks++ % SORT_INTERVAL == 0) {
+			run.sort();
+		}
+		while (run.inFlight < MAX_IN_FLIGHT && !run.pending.isEmpty()) {
+			ChunkPos chunk = run.pending.remove(run.pending.size() - 1);
+			ServerChunkCache chunkSource = run.level.getChunkSource();
+			run.inFlight++;
+			// The ticket keeps the chunk loaded until it is generated. It is not saved with the world, in case the world closes first
+			chunkSource.addTicketWithRadius(TicketType.PLAYER_LOADING, chunk, 0);
+			chunkSource.getChunkFuture(chunk.x, chunk.z, ChunkStatus.FULL, true).whenCompleteAsync((result, throwable) -> {
+				chunkSource.removeTicketWithRadius(TicketType.PLAYER_LOADING, chunk, 0);
+				run.inFlight--;
+				run.generated++;
+			}, server);
+		}
+	}
+
+	/**
+	 * The shape of the generated area
+	 */
+	public static enum Shape {
+		SQUARE,
+		CIRCLE;
+
+		boolean contains(int x, int z, int radius) {
+			if (radius < 0) {
+				return false;
+			}
+			if (this == SQUARE) {
+				return Math.abs(x) <= radius && Math.abs(z) <= radius;
+			}
+			return x * x + z * z <= radius * radius;
+		}
+	}
+
+	/**
+	 * A single pregeneration of a level. Only accessed on the server thread
+	 */
+	private static class Run {
+		private final ServerLevel level;
+
+		/**
+		 * The chunks that were not requested yet. The next chunk is at the end of the list
+		 */
+		private final List<ChunkPos> pending;
+		private final int total;
+		private final long startTime = System.nanoTime();
+		private int inFlight;
+		private int generated;
+		private int ticks;
+
+		private Run(ServerLevel level, List<ChunkPos> pending) {
+			this.level = level;
+			this.pending = pending;
+			this.total = pending.size();
+		}
+
+		/**
+		 * Sorts the pending chunks, so the chunk closest to the player and its view direction is last
+		 */
+		private void sort() {
+			List<ServerPlayer> players = level.players();
+			if (players.isEmpty()) {
+				return;
+			}
+			ServerPlayer player = players.get(0);
+			BlockPos position = player.blockPosition();
+			Vec3 look = player.getLookAngle();
+			double lookLength = Math.sqrt(look.x * look.x + look.z * look.z);
+			double lookX = lookLength == 0 ? 0 : look.x / lookLength;
+			double lookZ = lookLength == 0 ? 0 : look.z / lookLength;
+
+			pending.sort(Comparator.comparingDouble((ChunkPos chunk) -> {
+				double dx = chunk.getMiddleBlockX() - position.getX();
+				double dz = chunk.getMiddleBlockZ() - position.getZ();
+				double distance = Math.sqrt(dx * dx + dz * dz);
+				if (distance == 0) {
+					return 0;
+				}
+				// Chunks ahead of the player count as half as far, chunks behind as twice as far
+				double cos = (dx * lookX + dz * lookZ) / distance;
+				return distance * (1.25 - 0.75 * cos);
+			}).reversed());
+		}
+	}
+}
@@ -0,0 +1,342 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.SeedFile;
+import fail.scribble.seedchecker.check.SeedCheck;
+import fail.scribble.seedchecker.check.SeedVerifier;
+import fail.scribble.seedchecker.check.SeedVerifier.NamedResult;
+import fail.scribble.seedchecker.check.SeedVerifier.Verdict;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.RandomState;
+
+/**
+ * Drains the seed list without opening a world and writes one result row per seed.
+ * <p>
+ * For each seed the spawn position is searched and the surface of every chunk in a radius around spawn is sampled,
+ * using all available cores. Works on a dedicated server as well as on the integrated server.
+ * <p>
+ * If checks are configured, a {@link BatchLevel} is created for each seed afterwards, the chunks in the radius are generated
+ * and the checks are evaluated in that level, at most {@link #MAX_LEVELS} seeds at a time.
+ *
+ * @author Scribble
+ */
+public class SeedBatch {
+
+	/**
+	 * After how many seeds the seed list is saved
+	 */
+	private static final int SAVE_INTERVAL = 1000;
+
+	/**
+	 * The maximum number of levels that exist at the same time. All levels generate their chunks on the same worldgen threads of the server,
+	 * so more levels only use more memory
+	 */
+	private static final int MAX_LEVELS = 2;
+
+	private final MinecraftServer server;
+	private final SeedSampler sampler;
+	private final SeedFile seedFile;
+
+	/**
+	 * The radius in chunks around spawn that is sampled
+	 */
+	private final int chunkRadius;
+
+	/**
+	 * The biomes that are searched around spawn. Each one gets it's own column in the results
+	 */
+	private final List<BiomeMatcher> biomes;
+
+	/**
+	 * The checks that are evaluated in the level of each seed, no level is created if this is empty
+	 */
+	private final List<SeedCheck> checks;
+
+	/**
+	 * The csv file the results are appended to
+	 */
+	private final Path resultFile;
+
+	private final int threadCount;
+
+	private volatile boolean running;
+	private ExecutorService executor;
+	private BufferedWriter writer;
+	private final AtomicInteger activeWorkers = new AtomicInteger();
+	private final AtomicLong processed = new AtomicLong();
+	private long startTime;
+
+	private final Semaphore levelSlots = new Semaphore(MAX_LEVELS);
+
+	/**
+	 * The checks of levels that are not finished yet, cancelled when the batch is stopped
+	 */
+	private final Set<CompletableFuture<Verdict>> pendingLevels = ConcurrentHashMap.newKeySet();
+
+	public SeedBatch(MinecraftServer server, SeedSampler sampler, SeedFile seedFile, int chunkRadius, List<BiomeMatcher> biomes, List<SeedCheck> checks, Path resultFile) {
+		this.server = server;
+		this.sampler = sampler;
+		this.seedFile = seedFile;
+		this.chunkRadius = chunkRadius;
+		this.biomes = biomes;
+		this.checks = checks;
+		this.resultFile = resultFile;
+		this.threadCount = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Starts processing the seed list on all cores. Has to be called on the server thread
+	 * @throws IOException If the result file could not be opened
+	 */
+	public synchronized void start() throws IOException {
+		if (running) {
+			return;
+		}
+		boolean writeHeader = !Files.exists(resultFile) || Files.size(resultFile) == 0;
+		writer = Files.newBufferedWriter(resultFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		if (writeHeader) {
+			writer.write(createHeader());
+			writer.newLine();
+		}
+
+		if (!checks.isEmpty()) {
+			BatchLevel.deleteLeftovers(server);
+		}
+		SeedChecker.LOGGER.info("Starting seed batch with %s threads, %s seeds in the list", threadCount, seedFile.seedList.longSize());
+		running = true;
+		processed.set(0);
+		startTime = System.currentTimeMillis();
+		activeWorkers.set(threadCount);
+
+		AtomicInteger threadIndex = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "SeedChecker Batch #" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (int i = 0; i < threadCount; i++) {
+			executor.execute(this::work);
+		}
+		executor.shutdown();
+	}
+
+	/**
+	 * Stops the batch after each thread finished it's current seed. Checks that were not evaluated yet are cancelled
+	 */
+	public void stop() {
+		running = false;
+		for (CompletableFuture<Verdict> verdict : pendingLevels) {
+			verdict.cancel(false);
+		}
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	private void work() {
+		try {
+			while (running) {
+				OptionalLong nextSeed = seedFile.poll();
+				if (nextSeed.isEmpty()) {
+					break;
+				}
+				long seed = nextSeed.getAsLong();
+
+				String row;
+				try {
+					row = evaluate(seed);
+				} catch (Exception e) {
+					SeedChecker.LOGGER.error("Failed to evaluate seed %s", seed);
+					SeedChecker.LOGGER.catching(e);
+					continue;
+				} finally {
+					seedFile.complete(seed);
+				}
+
+				synchronized (this) {
+					writer.write(row);
+					writer.newLine();
+				}
+
+				if (processed.incrementAndGet() % SAVE_INTERVAL == 0) {
+					flush();
+				}
+			}
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		} finally {
+			if (activeWorkers.decrementAndGet() == 0) {
+				finish();
+			}
+		}
+	}
+
+	private String evaluate(long seed) throws InterruptedException, ExecutionException {
+		RandomState randomState = sampler.createRandomState(seed);
+		BlockPos spawn = sampler.findSpawn(randomState);
+		Holder<Biome> spawnBiome = sampler.getSurfaceBiome(randomState, spawn.getX(), spawn.getZ());
+
+		int spawnChunkX = SectionPos.blockToSectionCoord(spawn.getX());
+		int spawnChunkZ = SectionPos.blockToSectionCoord(spawn.getZ());
+
+		int[] distances = new int[biomes.size()];
+		Arrays.fill(distances, -1);
+		long[] heightSum = new long[1];
+
+		for (int radius = 0; radius <= chunkRadius; radius++) {
+			int currentRadius = radius;
+			SeedSampler.forEachInRing(radius, (offsetX, offsetZ) -> {
+				int x = SectionPos.sectionToBlockCoord(spawnChunkX + offsetX, 8);
+				int z = SectionPos.sectionToBlockCoord(spawnChunkZ + offsetZ, 8);
+				int height = sampler.getSurfaceHeight(randomState, x, z);
+				heightSum[0] += height;
+
+				Holder<Biome> biome = sampler.getBiome(randomState, x, height, z);
+				for (int i = 0; i < distances.length; i++) {
+					if (distances[i] == -1 && biomes.get(i).test(biome)) {
+						distances[i] = currentRadius * 16;
+					}
+				}
+			});
+		}
+
+		int chunkDiameter = chunkRadius * 2 + 1;
+		StringBuilder row = new StringBuilder();
+		row.append(seed).append(',');
+		row.append(spawn.getX()).append(',');
+		row.append(spawn.getZ()).append(',');
+		row.append(spawnBiome.getRegisteredName()).append(',');
+		row.append(heightSum[0] / (chunkDiameter * chunkDiameter));
+		for (int distance : distances) {
+			row.append(',').append(distance);
+		}
+
+		if (!checks.isEmpty()) {
+			BlockPos levelSpawn = new BlockPos(spawn.getX(), sampler.getSurfaceHeight(randomState, spawn.getX(), spawn.getZ()), spawn.getZ());
+			Verdict verdict = checkLevel(seed, levelSpawn);
+			if (verdict == null) {
+				row.append(",cancelled");
+				row.append(",".repeat(checks.size()));
+			} else {
+				row.append(',').append(verdict.passed());
+				for (NamedResult result : verdict.results()) {
+					row.append(',').append(quote(result.result().value()));
+				}
+			}
+		}
+		return row.toString();
+	}
+
+	/**
+	 * Creates the level of a seed on the server thread, generates the chunks around spawn and evaluates the checks.
+	 * Waits until one of the {@link #MAX_LEVELS} is free
+	 * @param seed The seed of the level
+	 * @param spawn The spawn of the seed
+	 * @return The verdict, or null if the batch was stopped before the checks were evaluated
+	 */
+	private Verdict checkLevel(long seed, BlockPos spawn) throws InterruptedException, ExecutionException {
+		levelSlots.acquire();
+		CompletableFuture<Verdict> verdict = CompletableFuture.supplyAsync(() -> BatchLevel.create(server, sampler.getGenerator(), seed, spawn), server).thenComposeAsync(level -> verifyLevel(level, seed), server);
+		pendingLevels.add(verdict);
+		try {
+			if (!running) {
+				verdict.cancel(false);
+			}
+			return verdict.get();
+		} catch (CancellationException e) {
+			return null;
+		} finally {
+			pendingLevels.remove(verdict);
+			levelSlots.release();
+		}
+	}
+
+	/**
+	 * Generates the chunks and evaluates the checks, then discards the level. Has to be called on the server thread
+	 */
+	private CompletableFuture<Verdict> verifyLevel(BatchLevel level, long seed) {
+		CompletableFuture<Verdict> verdict;
+		try {
+			verdict = level.generateChunks(chunkRadius).thenComposeAsync(generated -> SeedVerifier.verify(server, level.getLevel(), seed, checks), server);
+		} catch (RuntimeException e) {
+			verdict = CompletableFuture.failedFuture(e);
+		}
+		return verdict.whenCompleteAsync((result, throwable) -> level.discard(), server);
+	}
+
+	private String createHeader() {
+		StringBuilder header = new StringBuilder("seed,spawn_x,spawn_z,spawn_biome,average_height");
+		for (BiomeMatcher biome : biomes) {
+			header.append(',').append(biome.getName()).append("_distance");
+		}
+		if (!checks.isEmpty()) {
+			header.append(",passed");
+			for (SeedCheck check : checks) {
+				header.append(',').append(quote(check.getName()));
+			}
+		}
+		return header.toString();
+	}
+
+	/**
+	 * @param value A value of the results
+	 * @return The value in quotes, if it contains a comma or a quote
+	 */
+	private static String quote(String value) {
+		if (value.indexOf(',') == -1 && value.indexOf('"') == -1) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	private void flush() {
+		synchronized (this) {
+			try {
+				writer.flush();
+			} catch (IOException e) {
+				SeedChecker.LOGGER.catching(e);
+			}
+		}
+		seedFile.save();
+	}
+
+	private synchronized void finish() {
+		running = false;
+		flush();
+		try {
+			writer.close();
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+		float seconds = (System.currentTimeMillis() - startTime) / 1000F;
+		SeedChecker.LOGGER.info("Seed batch finished, checked %s seeds in %.1fs. Results are in %s", processed.get(), seconds, resultFile);
+	}
+}
@@ -0,0 +1,169 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.seedlist.SeedQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.RandomState;
+
+/**
+ * Checks seeds against cheap biome criteria, before a world is created for them.
+ * <p>
+ * Only the {@link RandomState} and the biome source of a seed are evaluated. The spawn biome is sampled on the surface,
+ * the biomes around spawn are sampled at a fixed height in the center of each chunk, sea level by default.
+ * Cave biomes like lush caves are only found if the height is set below the surface.<br>
+ * The next seeds in the queue are evaluated ahead of time on the {@link ForkJoinPool#commonPool() fork join pool}, so the verdict is usually ready once the seed is polled.
+ *
+ * @author Scribble
+ */
+public class SeedPrefilter {
+
+	/**
+	 * The number of seeds in the queue that are evaluated ahead of time
+	 */
+	private static final int WINDOW = 64;
+
+	private final SeedSampler sampler;
+
+	/**
+	 * Biomes that all have to be found around spawn
+	 */
+	private final List<BiomeMatcher> requiredBiomes;
+
+	/**
+	 * The radius in chunks around spawn that is searched for the {@link #requiredBiomes}
+	 */
+	private final int chunkRadius;
+
+	/**
+	 * The height at which the biomes around spawn are sampled
+	 */
+	private final int sampleHeight;
+
+	/**
+	 * Biomes that the spawn may not be in
+	 */
+	private final List<BiomeMatcher> excludedSpawnBiomes;
+
+	/**
+	 * The verdicts of seeds that are evaluated ahead of time
+	 */
+	private final Map<Long, CompletableFuture<Boolean>> verdicts = new ConcurrentHashMap<>();
+
+	public SeedPrefilter(SeedSampler sampler, List<BiomeMatcher> requiredBiomes, int chunkRadius, int sampleHeight, List<BiomeMatcher> excludedSpawnBiomes) {
+		this.sampler = sampler;
+		this.requiredBiomes = requiredBiomes;
+		this.chunkRadius = chunkRadius;
+		this.sampleHeight = sampleHeight;
+		this.excludedSpawnBiomes = excludedSpawnBiomes;
+	}
+
+	/**
+	 * Starts evaluating the next seeds in the queue
+	 * @param queue The seed queue
+	 */
+	public void schedule(SeedQueue queue) {
+		if (verdicts.size() > WINDOW * 4) {
+			// Seeds that were removed from the queue in the meantime
+			verdicts.clear();
+		}
+		for (int i = 0; i < WINDOW; i++) {
+			OptionalLong seed = queue.peek(i);
+			if (seed.isEmpty()) {
+				break;
+			}
+			verdicts.computeIfAbsent(seed.getAsLong(), this::evaluateAsync);
+		}
+	}
+
+	/**
+	 * Takes the verdict of a seed, that was polled from the queue
+	 * @param seed The seed
+	 * @return Whether the seed passes, completes once the seed was evaluated
+	 */
+	public CompletableFuture<Boolean> take(long seed) {
+		CompletableFuture<Boolean> verdict = verdicts.remove(seed);
+		return verdict != null ? verdict : evaluateAsync(seed);
+	}
+
+	/**
+	 * Searches the first seed in the queue, that is not known to fail
+	 * @param queue The seed queue
+	 * @return The seed or an empty optional, if all seeds in the window fail
+	 */
+	public OptionalLong peekPassing(SeedQueue queue) {
+		for (int i = 0; i < WINDOW; i++) {
+			OptionalLong seed = queue.peek(i);
+			if (seed.isEmpty()) {
+				return seed;
+			}
+			CompletableFuture<Boolean> verdict = verdicts.get(seed.getAsLong());
+			if (verdict == null || !verdict.isDone() || verdict.join()) {
+				return seed;
+			}
+		}
+		return OptionalLong.empty();
+	}
+
+	private CompletableFuture<Boolean> evaluateAsync(long seed) {
+		return CompletableFuture.supplyAsync(() -> test(seed), ForkJoinPool.commonPool()).exceptionally(throwable -> {
+			SeedChecker.LOGGER.error("Failed to prefilter seed %s, letting it pass", seed);
+			SeedChecker.LOGGER.catching(throwable);
+			return true;
+		});
+	}
+
+	/**
+	 * @param seed The seed
+	 * @return Whether the seed passes all criteria
+	 */
+	public boolean test(long seed) {
+		RandomState randomState = sampler.createRandomState(seed);
+		BlockPos spawn = sampler.findSpawn(randomState);
+
+		if (!excludedSpawnBiomes.isEmpty()) {
+			Holder<Biome> spawnBiome = sampler.getSurfaceBiome(randomState, spawn.getX(), spawn.getZ());
+			for (BiomeMatcher excluded : excludedSpawnBiomes) {
+				if (excluded.test(spawnBiome)) {
+					return false;
+				}
+			}
+		}
+
+		if (requiredBiomes.isEmpty()) {
+			return true;
+		}
+
+		int spawnChunkX = SectionPos.blockToSectionCoord(spawn.getX());
+		int spawnChunkZ = SectionPos.blockToSectionCoord(spawn.getZ());
+		boolean[] found = new boolean[requiredBiomes.size()];
+		int[] remaining = { found.length };
+
+		for (int radius = 0; radius <= chunkRadius && remaining[0] > 0; radius++) {
+			SeedSampler.forEachInRing(radius, (offsetX, offsetZ) -> {
+				if (remaining[0] == 0) {
+					return;
+				}
+				int x = SectionPos.sectionToBlockCoord(spawnChunkX + offsetX, 8);
+				int z = SectionPos.sectionToBlockCoord(spawnChunkZ + offsetZ, 8);
+				Holder<Biome> biome = sampler.getBiome(randomState, x, sampleHeight, z);
+				for (int i = 0; i < found.length; i++) {
+					if (!found[i] && requiredBiomes.get(i).test(biome)) {
+						found[i] = true;
+						remaining[0]--;
+					}
+				}
+			});
+		}
+		return remaining[0] == 0;
+	}
+}
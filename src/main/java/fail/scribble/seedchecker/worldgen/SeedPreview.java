@@ -0,0 +1,252 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import com.mojang.blaze3d.platform.NativeImage;
+
+import fail.scribble.seedchecker.SeedChecker;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.util.ARGB;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.RandomState;
+
+/**
+ * Renders a top down map of the biomes and the terrain height around the spawn of a seed, without creating a level.
+ * <p>
+ * The map is split into tiles of {@link #TILE_SIZE} pixels, that are rendered in parallel on the {@link ForkJoinPool#commonPool() fork join pool}.
+ * Every pixel shows the biome on the surface, shaded by the terrain height, which is only sampled every {@link #HEIGHT_STEP} pixels.<br>
+ * Rendered tiles are cached as PNG files, the tiles are aligned to the world grid so they can be reused for any radius.
+ * <p>
+ * Only available on the client, as the images are {@link NativeImage}s.
+ *
+ * @author Scribble
+ */
+public class SeedPreview {
+
+	/**
+	 * The width and height of a tile in pixels
+	 */
+	public static final int TILE_SIZE = 64;
+
+	/**
+	 * The distance between height samples in pixels
+	 */
+	private static final int HEIGHT_STEP = 4;
+
+	private static final int SEA_LEVEL = 63;
+
+	//@formatter:off
+	private static final Map<String, Integer> COLORS = Map.ofEntries(
+			Map.entry("ocean", 0x000070),
+			Map.entry("deep_ocean", 0x000030),
+			Map.entry("warm_ocean", 0x0000AC),
+			Map.entry("lukewarm_ocean", 0x000090),
+			Map.entry("deep_lukewarm_ocean", 0x000040),
+			Map.entry("cold_ocean", 0x202070),
+			Map.entry("deep_cold_ocean", 0x202038),
+			Map.entry("frozen_ocean", 0x7070D6),
+			Map.entry("deep_frozen_ocean", 0x404090),
+			Map.entry("river", 0x0000FF),
+			Map.entry("frozen_river", 0xA0A0FF),
+			Map.entry("beach", 0xFADE55),
+			Map.entry("snowy_beach", 0xFAF0C0),
+			Map.entry("stony_shore", 0xA2A284),
+			Map.entry("plains", 0x8DB360),
+			Map.entry("sunflower_plains", 0xB5DB88),
+			Map.entry("snowy_plains", 0xFFFFFF),
+			Map.entry("ice_spikes", 0xB4DCDC),
+			Map.entry("desert", 0xFA9418),
+			Map.entry("swamp", 0x07F9B2),
+			Map.entry("mangrove_swamp", 0x2CCC8E),
+			Map.entry("forest", 0x056621),
+			Map.entry("flower_forest", 0x2D8E49),
+			Map.entry("birch_forest", 0x307444),
+			Map.entry("old_growth_birch_forest", 0x589C6C),
+			Map.entry("dark_forest", 0x40511A),
+			Map.entry("pale_garden", 0x696D62),
+			Map.entry("taiga", 0x0B6659),
+			Map.entry("snowy_taiga", 0x31554A),
+			Map.entry("old_growth_pine_taiga", 0x596651),
+			Map.entry("old_growth_spruce_taiga", 0x818E79),
+			Map.entry("jungle", 0x537B09),
+			Map.entry("sparse_jungle", 0x628B17),
+			Map.entry("bamboo_jungle", 0x768E14),
+			Map.entry("savanna", 0xBDB25F),
+			Map.entry("savanna_plateau", 0xA79D64),
+			Map.entry("windswept_savanna", 0xE5DA87),
+			Map.entry("badlands", 0xD94515),
+			Map.entry("wooded_badlands", 0xB09765),
+			Map.entry("eroded_badlands", 0xFF6D3D),
+			Map.entry("windswept_hills", 0x606060),
+			Map.entry("windswept_gravelly_hills", 0x888888),
+			Map.entry("windswept_forest", 0x507050),
+			Map.entry("meadow", 0x60A445),
+			Map.entry("cherry_grove", 0xFFB7C5),
+			Map.entry("grove", 0x47726C),
+			Map.entry("snowy_slopes", 0xC4C4C4),
+			Map.entry("frozen_peaks", 0xDCDCC8),
+			Map.entry("jagged_peaks", 0xB0B0B0),
+			Map.entry("stony_peaks", 0x7B8F74),
+			Map.entry("mushroom_fields", 0xFF00FF),
+			Map.entry("dripstone_caves", 0x4E3012),
+			Map.entry("lush_caves", 0x283C00),
+			Map.entry("deep_dark", 0x031F29)
+	);
+	//@formatter:on
+
+	private final SeedSampler sampler;
+
+	/**
+	 * The directory containing the cached tiles
+	 */
+	private final Path directory;
+
+	/**
+	 * The world type the sampler was created with, as tiles of different world types are cached separately
+	 */
+	private final String worldType;
+
+	/**
+	 * The number of blocks per pixel
+	 */
+	private final int scale;
+
+	public SeedPreview(SeedSampler sampler, Path directory, String worldType, int scale) {
+		this.sampler = sampler;
+		this.directory = directory;
+		this.worldType = worldType;
+		this.scale = scale;
+	}
+
+	/**
+	 * Renders the map around the spawn of a seed
+	 * @param seed The seed
+	 * @param radius The radius around spawn in blocks
+	 * @return The rendered map, once all tiles are rendered. The caller has to close the image
+	 */
+	public CompletableFuture<Preview> render(long seed, int radius) {
+		return CompletableFuture.supplyAsync(() -> sampler.createRandomState(seed), ForkJoinPool.commonPool()).thenCompose(randomState -> {
+			BlockPos spawn = sampler.findSpawn(randomState);
+			int tileBlocks = TILE_SIZE * scale;
+			int minTileX = Math.floorDiv(spawn.getX() - radius, tileBlocks);
+			int maxTileX = Math.floorDiv(spawn.getX() + radius, tileBlocks);
+			int minTileZ = Math.floorDiv(spawn.getZ() - radius, tileBlocks);
+			int maxTileZ = Math.floorDiv(spawn.getZ() + radius, tileBlocks);
+
+			List<CompletableFuture<NativeImage>> tiles = new ArrayList<>();
+			for (int tileZ = minTileZ; tileZ <= maxTileZ; tileZ++) {
+				for (int tileX = minTileX; tileX <= maxTileX; tileX++) {
+					int x = tileX;
+					int z = tileZ;
+					tiles.add(CompletableFuture.supplyAsync(() -> loadTile(seed, randomState, x, z), ForkJoinPool.commonPool()));
+				}
+			}
+
+			int tilesX = maxTileX - minTileX + 1;
+			int tilesZ = maxTileZ - minTileZ + 1;
+			return CompletableFuture.allOf(tiles.toArray(CompletableFuture[]::new)).thenApply(v -> {
+				NativeImage image = new NativeImage(tilesX * TILE_SIZE, tilesZ * TILE_SIZE, false);
+				for (int i = 0; i < tiles.size(); i++) {
+					try (NativeImage tile = tiles.get(i).join()) {
+						int offsetX = (i % tilesX) * TILE_SIZE;
+						int offsetZ = (i / tilesX) * TILE_SIZE;
+						for (int z = 0; z < TILE_SIZE; z++) {
+							for (int x = 0; x < TILE_SIZE; x++) {
+								image.setPixel(offsetX + x, offsetZ + z, tile.getPixel(x, z));
+							}
+						}
+					}
+				}
+				return new Preview(seed, image, minTileX * tileBlocks, minTileZ * tileBlocks, scale, spawn);
+			});
+		});
+	}
+
+	/**
+	 * Reads a tile from the cache or renders it, if it is not cached yet
+	 */
+	private NativeImage loadTile(long seed, RandomState randomState, int tileX, int tileZ) {
+		Path file = directory.resolve(Long.toString(seed)).resolve(String.format("%s_%s_%s_%s.png", worldType, scale, tileX, tileZ));
+		if (Files.exists(file)) {
+			try (InputStream in = Files.newInputStream(file)) {
+				return NativeImage.read(in);
+			} catch (IOException e) {
+				SeedChecker.LOGGER.warn("Could not read the cached preview tile %s, rendering it again", file);
+			}
+		}
+
+		NativeImage tile = renderTile(randomState, tileX, tileZ);
+		try {
+			Files.createDirectories(file.getParent());
+			tile.writeToFile(file);
+		} catch (IOException e) {
+			SeedChecker.LOGGER.catching(e);
+		}
+		return tile;
+	}
+
+	private NativeImage renderTile(RandomState randomState, int tileX, int tileZ) {
+		int originX = tileX * TILE_SIZE * scale;
+		int originZ = tileZ * TILE_SIZE * scale;
+		int step = HEIGHT_STEP * scale;
+
+		// One more sample in each direction, for the slope of the last pixels
+		int samples = TILE_SIZE / HEIGHT_STEP + 1;
+		int[] heights = new int[samples * samples];
+		for (int sampleZ = 0; sampleZ < samples; sampleZ++) {
+			for (int sampleX = 0; sampleX < samples; sampleX++) {
+				heights[sampleZ * samples + sampleX] = sampler.getSurfaceHeight(randomState, originX + sampleX * step, originZ + sampleZ * step);
+			}
+		}
+
+		NativeImage tile = new NativeImage(TILE_SIZE, TILE_SIZE, false);
+		for (int z = 0; z < TILE_SIZE; z++) {
+			for (int x = 0; x < TILE_SIZE; x++) {
+				int sample = (z / HEIGHT_STEP) * samples + x / HEIGHT_STEP;
+				int height = heights[sample];
+				Holder<Biome> biome = sampler.getBiome(randomState, originX + x * scale, height, originZ + z * scale);
+
+				// Slopes rising to the south east are lit, slopes falling are shaded. Higher terrain is slightly brighter
+				int slope = heights[sample + samples + 1] - height;
+				float shade = Mth.clamp(1.0F + slope * 0.03F + (height - SEA_LEVEL) * 0.002F, 0.6F, 1.25F);
+				tile.setPixel(x, z, shade(getColor(biome), shade));
+			}
+		}
+		return tile;
+	}
+
+	private static int getColor(Holder<Biome> biome) {
+		String name = biome.getRegisteredName();
+		Integer color = COLORS.get(name.startsWith("minecraft:") ? name.substring("minecraft:".length()) : name);
+		return color != null ? color : biome.value().getFoliageColor();
+	}
+
+	private static int shade(int rgb, float shade) {
+		int red = Math.min(255, (int) (ARGB.red(rgb) * shade));
+		int green = Math.min(255, (int) (ARGB.green(rgb) * shade));
+		int blue = Math.min(255, (int) (ARGB.blue(rgb) * shade));
+		return ARGB.color(255, red, green, blue);
+	}
+
+	/**
+	 * A rendered map
+	 * @param seed The seed
+	 * @param image The map, one pixel per {@link #scale} blocks
+	 * @param originX The x block coordinate of the top left pixel
+	 * @param originZ The z block coordinate of the top left pixel
+	 * @param scale The number of blocks per pixel
+	 * @param spawn The approximate spawn position
+	 */
+	public static record Preview(long seed, NativeImage image, int originX, int originZ, int scale, BlockPos spawn) {
+	}
+}
@@ -0,0 +1,155 @@
+package fail.scribble.seedchecker.worldgen;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.QuartPos;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.LevelHeightAccessor;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.ChunkGenerator;
+import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.NoiseBasedChunkGenerator;
+import net.minecraft.world.level.levelgen.NoiseGeneratorSettings;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.presets.WorldPreset;
+import net.minecraft.world.level.levelgen.structure.StructureSet;
+import net.minecraft.world.level.levelgen.synth.NormalNoise;
+
+/**
+ * Samples the overworld generation of a seed, without creating a level.
+ * <p>
+ * Only the noise stage is evaluated, meaning biomes, the terrain height and the structure placement are available,
+ * but no features, structure pieces or blocks.<br>
+ * The sampler itself is immutable and can be used from multiple threads at once.
+ *
+ * @author Scribble
+ */
+public class SeedSampler {
+
+	/**
+	 * The overworld generator of the world preset
+	 */
+	private final ChunkGenerator generator;
+
+	/**
+	 * The noise parameters used to create the {@link RandomState} of a seed
+	 */
+	private final HolderGetter<NormalNoise.NoiseParameters> noises;
+
+	/**
+	 * The structure sets used to create the {@link ChunkGeneratorStructureState} of a seed
+	 */
+	private final HolderLookup<StructureSet> structureSets;
+
+	/**
+	 * The heights of the overworld, used for the height samples
+	 */
+	private final LevelHeightAccessor heightAccessor;
+
+	/**
+	 * @param registries The registries containing the world gen data
+	 * @param preset The world preset that is used for the overworld generator
+	 */
+	public SeedSampler(HolderLookup.Provider registries, ResourceKey<WorldPreset> preset) {
+		this.generator = registries.lookupOrThrow(Registries.WORLD_PRESET).getOrThrow(preset).value().createWorldDimensions().overworld();
+		this.noises = registries.lookupOrThrow(Registries.NOISE);
+		this.structureSets = registries.lookupOrThrow(Registries.STRUCTURE_SET);
+		this.heightAccessor = LevelHeightAccessor.create(generator.getMinY(), generator.getGenDepth());
+	}
+
+	/**
+	 * Creates the random state of a seed, the same way the server does it when creating a level
+	 * @param seed The seed of the world
+	 * @return The random state used for all further samples of this seed
+	 */
+	public RandomState createRandomState(long seed) {
+		if (generator instanceof NoiseBasedChunkGenerator noiseBasedChunkGenerator) {
+			return RandomState.create(noiseBasedChunkGenerator.generatorSettings().value(), noises, seed);
+		}
+		return RandomState.create(NoiseGeneratorSettings.dummy(), noises, seed);
+	}
+
+	/**
+	 * Creates the structure state of a seed, the same way the server does it when creating a level
+	 * @param randomState The random state of the seed
+	 * @param seed The seed of the world
+	 * @return The structure state, containing the structure sets that can generate in the overworld
+	 */
+	public ChunkGeneratorStructureState createStructureState(RandomState randomState, long seed) {
+		return generator.createState(structureSets, randomState, seed);
+	}
+
+	/**
+	 * @param randomState The random state of the seed
+	 * @return The spawn position the server will search from, before looking for a valid spawn block
+	 */
+	public BlockPos findSpawn(RandomState randomState) {
+		return randomState.sampler().findSpawnPosition();
+	}
+
+	/**
+	 * @param randomState The random state of the seed
+	 * @param x The x block coordinate
+	 * @param y The y block coordinate
+	 * @param z The z block coordinate
+	 * @return The biome at this block position
+	 */
+	public Holder<Biome> getBiome(RandomState randomState, int x, int y, int z) {
+		return generator.getBiomeSource().getNoiseBiome(QuartPos.fromBlock(x), QuartPos.fromBlock(y), QuartPos.fromBlock(z), randomState.sampler());
+	}
+
+	/**
+	 * @param randomState The random state of the seed
+	 * @param x The x block coordinate
+	 * @param z The z block coordinate
+	 * @return The height of the terrain before any features are placed
+	 */
+	public int getSurfaceHeight(RandomState randomState, int x, int z) {
+		return generator.getBaseHeight(x, z, Heightmap.Types.WORLD_SURFACE_WG, heightAccessor, randomState);
+	}
+
+	/**
+	 * @param randomState The random state of the seed
+	 * @param x The x block coordinate
+	 * @param z The z block coordinate
+	 * @return The biome on the surface of the terrain
+	 */
+	public Holder<Biome> getSurfaceBiome(RandomState randomState, int x, int z) {
+		return getBiome(randomState, x, getSurfaceHeight(randomState, x, z), z);
+	}
+
+	/**
+	 * Iterates over the chunk offsets in a square ring around the center
+	 * @param radius The distance of the ring from the center in chunks. A radius of 0 only contains the center
+	 * @param consumer The consumer accepting the x and z offset of each chunk
+	 */
+	public static void forEachInRing(int radius, ChunkConsumer consumer) {
+		if (radius == 0) {
+			consumer.accept(0, 0);
+			return;
+		}
+		for (int i = -radius; i < radius; i++) {
+			consumer.accept(i, -radius);
+			consumer.accept(radius, i);
+			consumer.accept(-i, radius);
+			consumer.accept(-radius, -i);
+		}
+	}
+
+	@FunctionalInterface
+	public static interface ChunkConsumer {
+		public void accept(int chunkX, int chunkZ);
+	}
+
+	public ChunkGenerator getGenerator() {
+		return generator;
+	}
+
+	public LevelHeightAccessor getHeightAccessor() {
+		return heightAccessor;
+	}
+}
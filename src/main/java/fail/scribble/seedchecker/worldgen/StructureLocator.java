@@ -0,0 +1,225 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import fail.scribble.seedchecker.SeedChecker;
+import fail.scribble.seedchecker.seedlist.SeedQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Holder;
+import net.minecraft.core.QuartPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.chunk.ChunkGeneratorStructureState;
+import net.minecraft.world.level.levelgen.RandomState;
+import net.minecraft.world.level.levelgen.structure.Structure;
+import net.minecraft.world.level.levelgen.structure.StructureSet;
+import net.minecraft.world.level.levelgen.structure.StructureSet.StructureSelectionEntry;
+import net.minecraft.world.level.levelgen.structure.placement.ConcentricRingsStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.RandomSpreadStructurePlacement;
+import net.minecraft.world.level.levelgen.structure.placement.StructurePlacement;
+
+/**
+ * Computes the candidate positions of structures around spawn from the structure placement of a seed, without creating a level.
+ * <p>
+ * Random spread structures like villages and monuments are computed from their placement grid, strongholds from their concentric rings.<br>
+ * A candidate is only reported if the biome at the chunk center allows the structure somewhere in the column.
+ * Structures can still fail to generate, e.g. if their pieces don't fit into the terrain, so the positions are candidates and not guaranteed.
+ * <p>
+ * Results are computed on the {@link ForkJoinPool#commonPool() fork join pool} and cached per seed.
+ *
+ * @author Scribble
+ */
+public class StructureLocator {
+
+	/**
+	 * The number of seeds whose results are cached
+	 */
+	private static final int CACHE_SIZE = 256;
+
+	/**
+	 * The maximum number of positions that are reported per structure
+	 */
+	private static final int MAX_PER_STRUCTURE = 3;
+
+	/**
+	 * The vertical distance between biome samples, when checking if a structure can generate in a column
+	 */
+	private static final int BIOME_STEP = 16;
+
+	private final SeedSampler sampler;
+	private final List<StructureMatcher> structures;
+
+	/**
+	 * The radius in chunks around spawn that is searched
+	 */
+	private final int chunkRadius;
+
+	private final Map<Long, CompletableFuture<List<StructureLocation>>> results = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<List<StructureLocation>>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	});
+
+	public StructureLocator(SeedSampler sampler, List<StructureMatcher> structures, int chunkRadius) {
+		this.sampler = sampler;
+		this.structures = structures;
+		this.chunkRadius = chunkRadius;
+	}
+
+	/**
+	 * Starts locating the structures of the next seeds in the queue
+	 * @param queue The seed queue
+	 * @param count The number of seeds to locate ahead of time
+	 */
+	public void schedule(SeedQueue queue, int count) {
+		for (int i = 0; i < count; i++) {
+			OptionalLong seed = queue.peek(i);
+			if (seed.isEmpty()) {
+				break;
+			}
+			locate(seed.getAsLong());
+		}
+	}
+
+	/**
+	 * @param seed The seed
+	 * @return The candidate positions sorted by distance to spawn, once they are computed
+	 */
+	public CompletableFuture<List<StructureLocation>> locate(long seed) {
+		return results.computeIfAbsent(seed, s -> CompletableFuture.supplyAsync(() -> locateNow(s), ForkJoinPool.commonPool()).exceptionally(throwable -> {
+			SeedChecker.LOGGER.error("Failed to locate structures for seed %s", s);
+			SeedChecker.LOGGER.catching(throwable);
+			return List.of();
+		}));
+	}
+
+	/**
+	 * Computes the candidate positions on the current thread
+	 * @param seed The seed
+	 * @return The candidate positions sorted by distance to spawn
+	 */
+	public List<StructureLocation> locateNow(long seed) {
+		RandomState randomState = sampler.createRandomState(seed);
+		ChunkGeneratorStructureState structureState = sampler.createStructureState(randomState, seed);
+		BlockPos spawn = sampler.findSpawn(randomState);
+		ChunkPos spawnChunk = new ChunkPos(spawn);
+
+		Map<String, List<StructureLocation>> byStructure = new LinkedHashMap<>();
+		for (Holder<StructureSet> structureSet : structureState.possibleStructureSets()) {
+			if (!containsMatch(structureSet.value())) {
+				continue;
+			}
+			for (ChunkPos chunk : findCandidates(structureSet.value().placement(), structureState, spawnChunk, seed)) {
+				Holder<Structure> structure = findStructure(structureSet.value(), randomState, chunk);
+				if (structure == null || !matches(structure)) {
+					continue;
+				}
+				int x = chunk.getMiddleBlockX();
+				int z = chunk.getMiddleBlockZ();
+				String name = structure.getRegisteredName();
+				byStructure.computeIfAbsent(name, k -> new ArrayList<>()).add(new StructureLocation(name, x, z, Math.sqrt(spawn.distToLowCornerSqr(x, spawn.getY(), z))));
+			}
+		}
+
+		List<StructureLocation> out = new ArrayList<>();
+		for (List<StructureLocation> locations : byStructure.values()) {
+			locations.sort(Comparator.comparingDouble(StructureLocation::distance));
+			out.addAll(locations.subList(0, Math.min(MAX_PER_STRUCTURE, locations.size())));
+		}
+		out.sort(Comparator.comparingDouble(StructureLocation::distance));
+		return out;
+	}
+
+	private List<ChunkPos> findCandidates(StructurePlacement placement, ChunkGeneratorStructureState structureState, ChunkPos center, long seed) {
+		List<ChunkPos> candidates = new ArrayList<>();
+		if (placement instanceof RandomSpreadStructurePlacement randomSpread) {
+			int spacing = randomSpread.spacing();
+			int minRegionX = Math.floorDiv(center.x - chunkRadius, spacing);
+			int maxRegionX = Math.floorDiv(center.x + chunkRadius, spacing);
+			int minRegionZ = Math.floorDiv(center.z - chunkRadius, spacing);
+			int maxRegionZ = Math.floorDiv(center.z + chunkRadius, spacing);
+			for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+				for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+					ChunkPos chunk = randomSpread.getPotentialStructureChunk(seed, regionX * spacing, regionZ * spacing);
+					if (isInRadius(chunk, center) && randomSpread.isStructureChunk(structureState, chunk.x, chunk.z)) {
+						candidates.add(chunk);
+					}
+				}
+			}
+		} else if (placement instanceof ConcentricRingsStructurePlacement concentricRings) {
+			List<ChunkPos> ringPositions = structureState.getRingPositionsFor(concentricRings);
+			if (ringPositions != null) {
+				for (ChunkPos chunk : ringPositions) {
+					if (isInRadius(chunk, center)) {
+						candidates.add(chunk);
+					}
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Searches the first structure of the set, that is allowed in the biomes of the chunk
+	 * @return The structure, or null if no structure of the set can generate in this chunk
+	 */
+	private Holder<Structure> findStructure(StructureSet structureSet, RandomState randomState, ChunkPos chunk) {
+		int x = chunk.getMiddleBlockX();
+		int z = chunk.getMiddleBlockZ();
+		int surface = sampler.getSurfaceHeight(randomState, x, z);
+		int minY = sampler.getHeightAccessor().getMinY();
+
+		for (StructureSelectionEntry entry : structureSet.structures()) {
+			for (int y = surface; y >= minY; y -= BIOME_STEP) {
+				Holder<Biome> biome = sampler.getGenerator().getBiomeSource().getNoiseBiome(QuartPos.fromBlock(x), QuartPos.fromBlock(y), QuartPos.fromBlock(z), randomState.sampler());
+				if (entry.structure().value().biomes().contains(biome)) {
+					return entry.structure();
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean isInRadius(ChunkPos chunk, ChunkPos center) {
+		return Math.abs(chunk.x - center.x) <= chunkRadius && Math.abs(chunk.z - center.z) <= chunkRadius;
+	}
+
+	private boolean containsMatch(StructureSet structureSet) {
+		for (StructureSelectionEntry entry : structureSet.structures()) {
+			if (matches(entry.structure())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean matches(Holder<Structure> structure) {
+		for (StructureMatcher matcher : structures) {
+			if (matcher.test(structure)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A candidate position of a structure
+	 * @param structure The id of the structure
+	 * @param x The x block coordinate of the chunk center
+	 * @param z The z block coordinate of the chunk center
+	 * @param distance The horizontal distance to spawn in blocks
+	 */
+	public static record StructureLocation(String structure, int x, int z, double distance) {
+	}
+}
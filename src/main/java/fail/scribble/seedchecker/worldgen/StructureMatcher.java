@@ -0,0 +1,81 @@
+package fail.scribble.seedchecker.worldgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.levelgen.structure.Structure;
+
+/**
+ * Matches a structure by it's id like <code>minecraft:stronghold</code> or by a structure tag like <code>#minecraft:village</code>
+ *
+ * @author Scribble
+ */
+public class StructureMatcher implements Predicate<Holder<Structure>> {
+
+	/**
+	 * The string this matcher was parsed from
+	 */
+	private final String name;
+
+	private final Predicate<Holder<Structure>> predicate;
+
+	private StructureMatcher(String name, Predicate<Holder<Structure>> predicate) {
+		this.name = name;
+		this.predicate = predicate;
+	}
+
+	/**
+	 * Parses a single structure or structure tag
+	 * @param value The structure id, or a tag with a leading #
+	 * @return The structure matcher
+	 * @throws IllegalArgumentException If the id is not a valid resource location
+	 */
+	public static StructureMatcher parse(String value) {
+		String trimmed = value.trim();
+		try {
+			if (trimmed.startsWith("#")) {
+				TagKey<Structure> tag = TagKey.create(Registries.STRUCTURE, ResourceLocation.parse(trimmed.substring(1)));
+				return new StructureMatcher(trimmed, structure -> structure.is(tag));
+			}
+			ResourceLocation location = ResourceLocation.parse(trimmed);
+			return new StructureMatcher(trimmed, structure -> structure.is(location));
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Invalid structure " + trimmed, e);
+		}
+	}
+
+	/**
+	 * Parses a comma separated list of structures and structure tags. Empty entries are ignored
+	 * @param value The comma separated list
+	 * @return The list of structure matchers
+	 * @throws IllegalArgumentException If one of the ids is not a valid resource location
+	 */
+	public static List<StructureMatcher> parseList(String value) {
+		List<StructureMatcher> out = new ArrayList<>();
+		for (String entry : value.split(",")) {
+			if (!entry.isBlank()) {
+				out.add(parse(entry));
+			}
+		}
+		return out;
+	}
+
+	@Override
+	public boolean test(Holder<Structure> structure) {
+		return predicate.test(structure);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
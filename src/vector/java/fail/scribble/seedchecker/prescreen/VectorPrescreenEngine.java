@@ -0,0 +1,173 @@
+package fail.scribble.seedchecker.prescreen;
+
+import java.util.List;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Evaluates the {@link Prescreen}s for as many seeds at once as the CPU has lanes, with the <code>jdk.incubator.vector</code> module.
+ * <p>
+ * The prescreens reimplement the random number generator of Minecraft, a 48 bit linear congruential generator, on all lanes at once.<br>
+ * <code>nextInt(bound)</code> divides by a multiplication with a precomputed reciprocal, as vectors can't divide.
+ * If the generator would reject a value and draw again, which happens for less than one in a million values, the lane is evaluated by the scalar
+ * {@link PrescreenEngine} instead.
+ * <p>
+ * Only loaded if the module is available, see {@link PrescreenEngine#create(List)}.
+ * This class lives in the <code>vector</code> source set, the only one that is compiled with the incubator module.
+ *
+ * @author Scribble
+ */
+public class VectorPrescreenEngine extends PrescreenEngine {
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long INCREMENT = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	private static final Divider SLIME_DIVIDER = new Divider(10);
+
+	/**
+	 * The divider for the bound of each prescreen, or null if the prescreen has a fixed bound
+	 */
+	private final Divider[] dividers;
+
+	public VectorPrescreenEngine(List<Prescreen> prescreens) {
+		super(prescreens);
+		this.dividers = new Divider[this.prescreens.size()];
+		for (int i = 0; i < dividers.length; i++) {
+			if (this.prescreens.get(i) instanceof RegionPrescreen region) {
+				dividers[i] = new Divider(region.bound());
+			}
+		}
+	}
+
+	@Override
+	public int lanes() {
+		return SPECIES.length();
+	}
+
+	@Override
+	public int firstPassing(long[] seeds, int from, int to) {
+		int lanes = SPECIES.length();
+		int upper = from + SPECIES.loopBound(to - from);
+		@SuppressWarnings("unchecked")
+		VectorMask<Long>[] rejected = new VectorMask[1];
+		for (int i = from; i < upper; i += lanes) {
+			LongVector seed = LongVector.fromArray(SPECIES, seeds, i);
+			VectorMask<Long> pass = SPECIES.maskAll(true);
+			rejected[0] = SPECIES.maskAll(false);
+			for (int p = 0; p < dividers.length; p++) {
+				Prescreen prescreen = prescreens.get(p);
+				if (prescreen instanceof SlimeChunkPrescreen slimeChunk) {
+					pass = pass.and(testSlimeChunk(seed, slimeChunk, rejected));
+				} else if (prescreen instanceof RegionPrescreen region) {
+					pass = pass.and(testRegion(seed, region, dividers[p], rejected));
+				} else {
+					// Unknown prescreens are evaluated by the scalar engine
+					rejected[0] = SPECIES.maskAll(true);
+				}
+				if (!pass.or(rejected[0]).anyTrue()) {
+					break;
+				}
+			}
+
+			VectorMask<Long> candidates = pass.or(rejected[0]);
+			for (int lane = candidates.firstTrue(); lane < lanes; lane++) {
+				if (!candidates.laneIsSet(lane)) {
+					continue;
+				}
+				if (!rejected[0].laneIsSet(lane) || test(seeds[i + lane])) {
+					return i + lane;
+				}
+			}
+		}
+		return super.firstPassing(seeds, upper, to);
+	}
+
+	private static VectorMask<Long> testSlimeChunk(LongVector seed, SlimeChunkPrescreen slimeChunk, VectorMask<Long>[] rejected) {
+		LongVector state = scramble(seed.add(slimeChunk.addend()).lanewise(VectorOperators.XOR, SlimeChunkPrescreen.SALT));
+		LongVector bits = next31(step(state));
+		LongVector value = SLIME_DIVIDER.remainder(bits);
+		rejected[0] = rejected[0].or(SLIME_DIVIDER.rejected(bits, value));
+		return value.compare(VectorOperators.EQ, 0);
+	}
+
+	private static VectorMask<Long> testRegion(LongVector seed, RegionPrescreen region, Divider divider, VectorMask<Long>[] rejected) {
+		LongVector state = scramble(seed.add(region.addend()));
+		LongVector bitsX = next31(state = step(state));
+		LongVector offsetX = divider.remainder(bitsX);
+		LongVector bitsZ = next31(state = step(state));
+		LongVector offsetZ = divider.remainder(bitsZ);
+		// If the x offset was rejected, the z offset comes from a later value and is wrong as well
+		rejected[0] = rejected[0].or(divider.rejected(bitsX, offsetX)).or(divider.rejected(bitsZ, offsetZ));
+		return offsetX.compare(VectorOperators.LE, region.maxOffset()).and(offsetZ.compare(VectorOperators.LE, region.maxOffset()));
+	}
+
+	/**
+	 * The same as {@link java.util.Random#setSeed(long)}
+	 */
+	private static LongVector scramble(LongVector seed) {
+		return seed.lanewise(VectorOperators.XOR, MULTIPLIER).lanewise(VectorOperators.AND, MASK);
+	}
+
+	private static LongVector step(LongVector state) {
+		return state.mul(MULTIPLIER).add(INCREMENT).lanewise(VectorOperators.AND, MASK);
+	}
+
+	/**
+	 * @return The same as <code>next(31)</code> of the random after the step
+	 */
+	private static LongVector next31(LongVector state) {
+		return state.lanewise(VectorOperators.LSHR, 17);
+	}
+
+	/**
+	 * Computes <code>nextInt(bound)</code> from 31 random bits, like {@link java.util.Random#nextInt(int)}
+	 */
+	private static class Divider {
+		private final long bound;
+		private final boolean powerOfTwo;
+
+		/**
+		 * The rounded up reciprocal of the bound, scaled by <code>2^shift</code>, which is exact for all 31 bit values
+		 */
+		private final long reciprocal;
+		private final int shift;
+
+		/**
+		 * The largest value of <code>bits - remainder</code> that is not rejected
+		 */
+		private final long limit;
+
+		private Divider(int bound) {
+			this.bound = bound;
+			this.powerOfTwo = (bound & bound - 1) == 0;
+			int log = 32 - Integer.numberOfLeadingZeros(bound - 1);
+			this.shift = 31 + log;
+			this.reciprocal = ((1L << shift) + bound - 1) / bound;
+			this.limit = Integer.MAX_VALUE - (bound - 1);
+		}
+
+		private LongVector remainder(LongVector bits) {
+			if (powerOfTwo) {
+				return bits.mul(bound).lanewise(VectorOperators.ASHR, 31);
+			}
+			LongVector quotient = bits.mul(reciprocal).lanewise(VectorOperators.LSHR, shift);
+			return bits.sub(quotient.mul(bound));
+		}
+
+		/**
+		 * @return The lanes where {@link java.util.Random#nextInt(int)} would reject the value and draw again
+		 */
+		private VectorMask<Long> rejected(LongVector bits, LongVector remainder) {
+			if (powerOfTwo) {
+				return SPECIES.maskAll(false);
+			}
+			return bits.sub(remainder).compare(VectorOperators.GT, limit);
+		}
+	}
+}